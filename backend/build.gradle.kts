@@ -28,7 +28,7 @@ dependencies {
     implementation("nl.martijndwars:web-push:5.1.1")
     implementation("org.bouncycastle:bcprov-jdk18on:1.77")
 
-    runtimeOnly("org.postgresql:postgresql")
+    implementation("org.postgresql:postgresql")
 
     testImplementation("org.springframework.boot:spring-boot-starter-test")
     testImplementation("org.springframework.security:spring-security-test")
@@ -44,4 +44,24 @@ tasks.withType<Test>().configureEach {
     binaryResultsDirectory.set(
         layout.buildDirectory.dir("tmp/test-binary/$testBinarySuffix/${name}")
     )
-}
\ No newline at end of file
+}
+
+tasks.test {
+    useJUnitPlatform {
+        excludeTags("benchmark")
+    }
+}
+
+tasks.register<Test>("benchmark") {
+    description = "Runs push fan-out load benchmarks against a local push service stub."
+    group = "verification"
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    useJUnitPlatform {
+        includeTags("benchmark")
+    }
+    System.getProperties().stringPropertyNames()
+        .filter { it.startsWith("benchmark.") }
+        .forEach { systemProperty(it, System.getProperty(it)) }
+    shouldRunAfter(tasks.test)
+}
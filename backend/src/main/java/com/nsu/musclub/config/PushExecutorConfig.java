@@ -0,0 +1,61 @@
+package com.nsu.musclub.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Пулы потоков для рассылки push-уведомлений.
+ * Задачи рассылки выполняются вне потока запроса, а доставка отдельным получателям —
+ * параллельно в пуле ограниченного размера.
+ */
+@Configuration
+public class PushExecutorConfig {
+
+    /**
+     * Пул для задач массовой рассылки (одна задача — одно уведомление мероприятия)
+     */
+    @Bean(name = "pushFanoutExecutor")
+    public ThreadPoolTaskExecutor pushFanoutExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setThreadNamePrefix("push-fanout-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    /**
+     * Пул для параллельной доставки уведомлений на устройства получателей
+     */
+    @Bean(name = "pushDeliveryExecutor")
+    public ThreadPoolTaskExecutor pushDeliveryExecutor(PushNotificationConfig config) {
+        int concurrency = Math.max(1, config.getDeliveryConcurrency());
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setThreadNamePrefix("push-delivery-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    /**
+     * Пул для отправки уведомлений, срок которых наступил по таймеру.
+     * Очередь ограничена: при переполнении задача отклоняется, а уведомления остаются PENDING
+     * до периодического опроса
+     */
+    @Bean(name = "pushTimerExecutor")
+    public ThreadPoolTaskExecutor pushTimerExecutor(PushNotificationConfig config) {
+        int concurrency = Math.max(1, config.getTimerDispatchConcurrency());
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setQueueCapacity(Math.max(1, config.getTimerDispatchQueueCapacity()));
+        executor.setThreadNamePrefix("push-timer-dispatch-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
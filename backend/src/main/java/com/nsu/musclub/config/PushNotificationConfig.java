@@ -48,7 +48,8 @@ public class PushNotificationConfig {
     private List<Integer> defaultReminderIntervals = List.of(1440, 120, 15); // 24h, 2h, 15min
 
     /**
-     * Интервал проверки pending уведомлений (в миллисекундах)
+     * Интервал страховочной проверки pending уведомлений (в миллисекундах).
+     * В срок уведомления отправляет таймер, опрос подхватывает пропущенные.
      */
     private long schedulerInterval = 30000; // 30 секунд
 
@@ -57,6 +58,172 @@ public class PushNotificationConfig {
      */
     private int notificationRetentionDays = 30;
 
+    /**
+     * Количество параллельных доставок при массовой рассылке
+     */
+    private int deliveryConcurrency = 16;
+
+    /**
+     * Время хранения информации о завершённых задачах рассылки (в минутах)
+     */
+    private int fanoutJobRetentionMinutes = 60;
+
+    /**
+     * Базовая задержка перед повторной попыткой (в секундах), удваивается с каждой попыткой
+     */
+    private int retryBaseDelaySeconds = 30;
+
+    /**
+     * Максимальная задержка перед повторной попыткой (в секундах)
+     */
+    private int retryMaxDelaySeconds = 3600;
+
+    /**
+     * Сколько уведомлений планировщик берёт в работу за один запрос
+     */
+    private int claimBatchSize = 50;
+
+    /**
+     * На сколько секунд взятое в работу уведомление скрывается от других узлов
+     */
+    private int claimLeaseSeconds = 300;
+
+    /**
+     * Отправлять уведомления точно в срок по таймеру (иначе только по периодической проверке)
+     */
+    private boolean timerEnabled = true;
+
+    /**
+     * Точность таймера уведомлений (в миллисекундах)
+     */
+    private long timerTickMs = 100;
+
+    /**
+     * Окно, на которое таймер заранее загружает уведомления (в секундах)
+     */
+    private int timerPreloadWindowSeconds = 600;
+
+    /**
+     * Интервал дозагрузки уведомлений в таймер (в миллисекундах)
+     */
+    private long timerPreloadInterval = 60000;
+
+    /**
+     * Максимум уведомлений, загружаемых в таймер за одну дозагрузку
+     */
+    private int timerPreloadLimit = 10000;
+
+    /**
+     * Число потоков, отправляющих уведомления, срок которых наступил по таймеру
+     */
+    private int timerDispatchConcurrency = 2;
+
+    /**
+     * Ёмкость очереди отправки по таймеру; при переполнении уведомления дожидаются периодического опроса
+     */
+    private int timerDispatchQueueCapacity = 1000;
+
+    /**
+     * Получать сообщения о новых уведомлениях от других узлов через LISTEN/NOTIFY Postgres
+     */
+    private boolean listenEnabled = true;
+
+    /**
+     * На сколько месяцев вперёд заранее создавать секции event_notifications
+     */
+    private int partitionMonthsAhead = 3;
+
+    /**
+     * Размер пачки при удалении старых уведомлений и журнала доставок
+     */
+    private int retentionDeleteChunkSize = 1000;
+
+    /**
+     * Максимальное количество подписок, деактивируемых одним UPDATE
+     */
+    private int expiredSubscriptionBatchSize = 500;
+
+    /**
+     * Интервал деактивации истёкших подписок (в миллисекундах)
+     */
+    private long expiredSubscriptionFlushInterval = 1000;
+
+    /**
+     * Размер скользящего окна запросов к push-сервису для расчёта доли ошибок
+     */
+    private int circuitWindowSize = 50;
+
+    /**
+     * Минимальное количество запросов в окне, после которого circuit breaker может открыться
+     */
+    private int circuitMinimumRequests = 20;
+
+    /**
+     * Доля ошибок в окне, при которой доставка на push-сервис приостанавливается
+     */
+    private double circuitFailureRateThreshold = 0.5;
+
+    /**
+     * Ответ медленнее этого порога (в миллисекундах) считается ошибкой push-сервиса
+     */
+    private long circuitSlowCallMs = 5000;
+
+    /**
+     * Пауза после открытия circuit breaker (в секундах), удваивается при повторных срабатываниях
+     */
+    private long circuitOpenSeconds = 30;
+
+    /**
+     * Максимальная пауза circuit breaker (в секундах)
+     */
+    private long circuitMaxOpenSeconds = 600;
+
+    /**
+     * Время жизни записи кэша активных подписок (в секундах)
+     */
+    private long subscriptionCacheTtlSeconds = 300;
+
+    /**
+     * Максимальное количество пользователей в кэше активных подписок
+     */
+    private int subscriptionCacheMaxUsers = 100000;
+
+    /**
+     * Окно объединения уведомлений об изменении мероприятия (в секундах):
+     * уведомление уходит, когда столько времени изменений не было
+     */
+    private long eventUpdateCoalesceSeconds = 60;
+
+    /**
+     * Максимальная задержка уведомления об изменении мероприятия от первого изменения (в секундах)
+     */
+    private long eventUpdateMaxDelaySeconds = 300;
+
+    /**
+     * Ёмкость очереди подтверждений показа и клика; при переполнении новые подтверждения отбрасываются
+     */
+    private int receiptBufferCapacity = 10000;
+
+    /**
+     * Размер пачки при записи подтверждений
+     */
+    private int receiptBatchSize = 500;
+
+    /**
+     * Интервал записи подтверждений (в миллисекундах)
+     */
+    private long receiptFlushInterval = 1000;
+
+    /**
+     * Сколько ждать запись журнала доставок для подтверждения, пришедшего раньше неё (в секундах)
+     */
+    private long receiptPendingSeconds = 300;
+
+    /**
+     * Сколько раз искать запись доставки для подтверждения, прежде чем отбросить его
+     */
+    private int receiptMaxAttempts = 10;
+
     // Getters and Setters
 
     public String getVapidPublicKey() {
@@ -130,4 +297,268 @@ public class PushNotificationConfig {
     public void setNotificationRetentionDays(int notificationRetentionDays) {
         this.notificationRetentionDays = notificationRetentionDays;
     }
+
+    public int getDeliveryConcurrency() {
+        return deliveryConcurrency;
+    }
+
+    public void setDeliveryConcurrency(int deliveryConcurrency) {
+        this.deliveryConcurrency = deliveryConcurrency;
+    }
+
+    public int getFanoutJobRetentionMinutes() {
+        return fanoutJobRetentionMinutes;
+    }
+
+    public void setFanoutJobRetentionMinutes(int fanoutJobRetentionMinutes) {
+        this.fanoutJobRetentionMinutes = fanoutJobRetentionMinutes;
+    }
+
+    public int getRetryBaseDelaySeconds() {
+        return retryBaseDelaySeconds;
+    }
+
+    public void setRetryBaseDelaySeconds(int retryBaseDelaySeconds) {
+        this.retryBaseDelaySeconds = retryBaseDelaySeconds;
+    }
+
+    public int getRetryMaxDelaySeconds() {
+        return retryMaxDelaySeconds;
+    }
+
+    public void setRetryMaxDelaySeconds(int retryMaxDelaySeconds) {
+        this.retryMaxDelaySeconds = retryMaxDelaySeconds;
+    }
+
+    public int getClaimBatchSize() {
+        return claimBatchSize;
+    }
+
+    public void setClaimBatchSize(int claimBatchSize) {
+        this.claimBatchSize = claimBatchSize;
+    }
+
+    public int getClaimLeaseSeconds() {
+        return claimLeaseSeconds;
+    }
+
+    public void setClaimLeaseSeconds(int claimLeaseSeconds) {
+        this.claimLeaseSeconds = claimLeaseSeconds;
+    }
+
+    public boolean isTimerEnabled() {
+        return timerEnabled;
+    }
+
+    public void setTimerEnabled(boolean timerEnabled) {
+        this.timerEnabled = timerEnabled;
+    }
+
+    public long getTimerTickMs() {
+        return timerTickMs;
+    }
+
+    public void setTimerTickMs(long timerTickMs) {
+        this.timerTickMs = timerTickMs;
+    }
+
+    public int getTimerPreloadWindowSeconds() {
+        return timerPreloadWindowSeconds;
+    }
+
+    public void setTimerPreloadWindowSeconds(int timerPreloadWindowSeconds) {
+        this.timerPreloadWindowSeconds = timerPreloadWindowSeconds;
+    }
+
+    public long getTimerPreloadInterval() {
+        return timerPreloadInterval;
+    }
+
+    public void setTimerPreloadInterval(long timerPreloadInterval) {
+        this.timerPreloadInterval = timerPreloadInterval;
+    }
+
+    public int getTimerPreloadLimit() {
+        return timerPreloadLimit;
+    }
+
+    public void setTimerPreloadLimit(int timerPreloadLimit) {
+        this.timerPreloadLimit = timerPreloadLimit;
+    }
+
+    public int getTimerDispatchConcurrency() {
+        return timerDispatchConcurrency;
+    }
+
+    public void setTimerDispatchConcurrency(int timerDispatchConcurrency) {
+        this.timerDispatchConcurrency = timerDispatchConcurrency;
+    }
+
+    public int getTimerDispatchQueueCapacity() {
+        return timerDispatchQueueCapacity;
+    }
+
+    public void setTimerDispatchQueueCapacity(int timerDispatchQueueCapacity) {
+        this.timerDispatchQueueCapacity = timerDispatchQueueCapacity;
+    }
+
+    public boolean isListenEnabled() {
+        return listenEnabled;
+    }
+
+    public void setListenEnabled(boolean listenEnabled) {
+        this.listenEnabled = listenEnabled;
+    }
+
+    public int getPartitionMonthsAhead() {
+        return partitionMonthsAhead;
+    }
+
+    public void setPartitionMonthsAhead(int partitionMonthsAhead) {
+        this.partitionMonthsAhead = partitionMonthsAhead;
+    }
+
+    public int getRetentionDeleteChunkSize() {
+        return retentionDeleteChunkSize;
+    }
+
+    public void setRetentionDeleteChunkSize(int retentionDeleteChunkSize) {
+        this.retentionDeleteChunkSize = retentionDeleteChunkSize;
+    }
+
+    public int getExpiredSubscriptionBatchSize() {
+        return expiredSubscriptionBatchSize;
+    }
+
+    public void setExpiredSubscriptionBatchSize(int expiredSubscriptionBatchSize) {
+        this.expiredSubscriptionBatchSize = expiredSubscriptionBatchSize;
+    }
+
+    public long getExpiredSubscriptionFlushInterval() {
+        return expiredSubscriptionFlushInterval;
+    }
+
+    public void setExpiredSubscriptionFlushInterval(long expiredSubscriptionFlushInterval) {
+        this.expiredSubscriptionFlushInterval = expiredSubscriptionFlushInterval;
+    }
+
+    public int getCircuitWindowSize() {
+        return circuitWindowSize;
+    }
+
+    public void setCircuitWindowSize(int circuitWindowSize) {
+        this.circuitWindowSize = circuitWindowSize;
+    }
+
+    public int getCircuitMinimumRequests() {
+        return circuitMinimumRequests;
+    }
+
+    public void setCircuitMinimumRequests(int circuitMinimumRequests) {
+        this.circuitMinimumRequests = circuitMinimumRequests;
+    }
+
+    public double getCircuitFailureRateThreshold() {
+        return circuitFailureRateThreshold;
+    }
+
+    public void setCircuitFailureRateThreshold(double circuitFailureRateThreshold) {
+        this.circuitFailureRateThreshold = circuitFailureRateThreshold;
+    }
+
+    public long getCircuitSlowCallMs() {
+        return circuitSlowCallMs;
+    }
+
+    public void setCircuitSlowCallMs(long circuitSlowCallMs) {
+        this.circuitSlowCallMs = circuitSlowCallMs;
+    }
+
+    public long getCircuitOpenSeconds() {
+        return circuitOpenSeconds;
+    }
+
+    public void setCircuitOpenSeconds(long circuitOpenSeconds) {
+        this.circuitOpenSeconds = circuitOpenSeconds;
+    }
+
+    public long getCircuitMaxOpenSeconds() {
+        return circuitMaxOpenSeconds;
+    }
+
+    public void setCircuitMaxOpenSeconds(long circuitMaxOpenSeconds) {
+        this.circuitMaxOpenSeconds = circuitMaxOpenSeconds;
+    }
+
+    public long getSubscriptionCacheTtlSeconds() {
+        return subscriptionCacheTtlSeconds;
+    }
+
+    public void setSubscriptionCacheTtlSeconds(long subscriptionCacheTtlSeconds) {
+        this.subscriptionCacheTtlSeconds = subscriptionCacheTtlSeconds;
+    }
+
+    public int getSubscriptionCacheMaxUsers() {
+        return subscriptionCacheMaxUsers;
+    }
+
+    public void setSubscriptionCacheMaxUsers(int subscriptionCacheMaxUsers) {
+        this.subscriptionCacheMaxUsers = subscriptionCacheMaxUsers;
+    }
+
+    public long getEventUpdateCoalesceSeconds() {
+        return eventUpdateCoalesceSeconds;
+    }
+
+    public void setEventUpdateCoalesceSeconds(long eventUpdateCoalesceSeconds) {
+        this.eventUpdateCoalesceSeconds = eventUpdateCoalesceSeconds;
+    }
+
+    public long getEventUpdateMaxDelaySeconds() {
+        return eventUpdateMaxDelaySeconds;
+    }
+
+    public void setEventUpdateMaxDelaySeconds(long eventUpdateMaxDelaySeconds) {
+        this.eventUpdateMaxDelaySeconds = eventUpdateMaxDelaySeconds;
+    }
+
+    public int getReceiptBufferCapacity() {
+        return receiptBufferCapacity;
+    }
+
+    public void setReceiptBufferCapacity(int receiptBufferCapacity) {
+        this.receiptBufferCapacity = receiptBufferCapacity;
+    }
+
+    public int getReceiptBatchSize() {
+        return receiptBatchSize;
+    }
+
+    public void setReceiptBatchSize(int receiptBatchSize) {
+        this.receiptBatchSize = receiptBatchSize;
+    }
+
+    public long getReceiptFlushInterval() {
+        return receiptFlushInterval;
+    }
+
+    public void setReceiptFlushInterval(long receiptFlushInterval) {
+        this.receiptFlushInterval = receiptFlushInterval;
+    }
+
+    public long getReceiptPendingSeconds() {
+        return receiptPendingSeconds;
+    }
+
+    public void setReceiptPendingSeconds(long receiptPendingSeconds) {
+        this.receiptPendingSeconds = receiptPendingSeconds;
+    }
+
+    public int getReceiptMaxAttempts() {
+        return receiptMaxAttempts;
+    }
+
+    public void setReceiptMaxAttempts(int receiptMaxAttempts) {
+        this.receiptMaxAttempts = receiptMaxAttempts;
+    }
 }
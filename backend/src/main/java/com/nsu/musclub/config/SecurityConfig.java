@@ -37,6 +37,8 @@ public class SecurityConfig {
                 .requestMatchers(HttpMethod.GET, "/api/users/*/avatar").permitAll()
                 // Временный публичный доступ к созданию пользователей (вызов только из фронтенда)
                 .requestMatchers(HttpMethod.POST, "/api/users/**").permitAll()
+                // Подтверждения показа/клика отправляет service worker без токена; отправителя подтверждает пара endpoint и секрет auth подписки
+                .requestMatchers(HttpMethod.POST, "/api/push/receipts").permitAll()
                 // Все остальные API требуют аутентификации
                 .anyRequest().authenticated()
             )
@@ -4,7 +4,9 @@ import jakarta.persistence.*;
 import java.time.OffsetDateTime;
 
 /**
- * Push-уведомление о мероприятии
+ * Push-уведомление о мероприятии (topic): одна запись на мероприятие и тип напоминания.
+ * Получатели определяются по текущему списку участников в момент отправки,
+ * результат по каждому пользователю сохраняется в {@link NotificationDelivery}.
  */
 @Entity
 @Table(name = "event_notifications")
@@ -34,10 +36,6 @@ public class EventNotification {
     @JoinColumn(name = "event_id", nullable = false)
     private Event event;
 
-    @ManyToOne(fetch = FetchType.LAZY, optional = false)
-    @JoinColumn(name = "user_id", nullable = false)
-    private User user;
-
     @Column(name = "send_at", nullable = false)
     private OffsetDateTime sendAt;
 
@@ -70,6 +68,18 @@ public class EventNotification {
     @Column(name = "retry_count", nullable = false)
     private int retryCount = 0;
 
+    /**
+     * Время следующей попытки отправки (для первой попытки совпадает с sendAt)
+     */
+    @Column(name = "next_attempt_at", nullable = false)
+    private OffsetDateTime nextAttemptAt;
+
+    /**
+     * До какого момента уведомление захвачено для рассылки (null — не захвачено)
+     */
+    @Column(name = "leased_until")
+    private OffsetDateTime leasedUntil;
+
     /**
      * Сообщение об ошибке (если status = FAILED)
      */
@@ -97,14 +107,6 @@ public class EventNotification {
         this.event = event;
     }
 
-    public User getUser() {
-        return user;
-    }
-
-    public void setUser(User user) {
-        this.user = user;
-    }
-
     public OffsetDateTime getSendAt() {
         return sendAt;
     }
@@ -169,6 +171,22 @@ public class EventNotification {
         this.retryCount = retryCount;
     }
 
+    public OffsetDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(OffsetDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public OffsetDateTime getLeasedUntil() {
+        return leasedUntil;
+    }
+
+    public void setLeasedUntil(OffsetDateTime leasedUntil) {
+        this.leasedUntil = leasedUntil;
+    }
+
     public String getErrorMessage() {
         return errorMessage;
     }
@@ -188,4 +206,11 @@ public class EventNotification {
     public void incrementRetryCount() {
         this.retryCount++;
     }
+
+    @PrePersist
+    public void prePersist() {
+        if (this.nextAttemptAt == null) {
+            this.nextAttemptAt = this.sendAt;
+        }
+    }
 }
@@ -0,0 +1,145 @@
+package com.nsu.musclub.domain;
+
+import com.nsu.musclub.domain.EventNotification.Status;
+import jakarta.persistence.*;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Запись журнала доставки уведомления конкретному пользователю
+ */
+@Entity
+@Table(name = "notification_deliveries")
+public class NotificationDelivery {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "notification_id", nullable = false)
+    private EventNotification notification;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    /**
+     * Результат доставки: SENT или FAILED
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private Status status;
+
+    @Column(name = "delivered_at", nullable = false)
+    private OffsetDateTime deliveredAt = OffsetDateTime.now();
+
+    @Column(name = "error_message", columnDefinition = "TEXT")
+    private String errorMessage;
+
+    /**
+     * Временная ошибка: получатель будет включён в следующую попытку отправки
+     */
+    @Column(nullable = false)
+    private boolean retryable;
+
+    /**
+     * Когда пользователь прочитал уведомление
+     */
+    @Column(name = "read_at")
+    private OffsetDateTime readAt;
+
+    /**
+     * Когда service worker показал уведомление (первое подтверждение)
+     */
+    @Column(name = "shown_at")
+    private OffsetDateTime shownAt;
+
+    /**
+     * Когда пользователь кликнул по уведомлению (первое подтверждение)
+     */
+    @Column(name = "clicked_at")
+    private OffsetDateTime clickedAt;
+
+    // Getters and Setters
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public EventNotification getNotification() {
+        return notification;
+    }
+
+    public void setNotification(EventNotification notification) {
+        this.notification = notification;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public OffsetDateTime getDeliveredAt() {
+        return deliveredAt;
+    }
+
+    public void setDeliveredAt(OffsetDateTime deliveredAt) {
+        this.deliveredAt = deliveredAt;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+
+    public boolean isRetryable() {
+        return retryable;
+    }
+
+    public void setRetryable(boolean retryable) {
+        this.retryable = retryable;
+    }
+
+    public OffsetDateTime getReadAt() {
+        return readAt;
+    }
+
+    public void setReadAt(OffsetDateTime readAt) {
+        this.readAt = readAt;
+    }
+
+    public OffsetDateTime getShownAt() {
+        return shownAt;
+    }
+
+    public void setShownAt(OffsetDateTime shownAt) {
+        this.shownAt = shownAt;
+    }
+
+    public OffsetDateTime getClickedAt() {
+        return clickedAt;
+    }
+
+    public void setClickedAt(OffsetDateTime clickedAt) {
+        this.clickedAt = clickedAt;
+    }
+}
@@ -0,0 +1,80 @@
+package com.nsu.musclub.dto.event;
+
+import com.nsu.musclub.domain.EventStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Фильтры списка мероприятий; незаданные поля не ограничивают выборку
+ */
+public class EventFilterDto {
+
+    @Schema(description = "Events starting at or after this time (ISO-8601)")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private OffsetDateTime from;
+
+    @Schema(description = "Events starting before this time (ISO-8601)")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private OffsetDateTime to;
+
+    private EventStatus status;
+
+    @Schema(description = "Venue, case-insensitive exact match")
+    private String venue;
+
+    @Schema(description = "Only events without a parent event")
+    private Boolean topLevel;
+
+    @Schema(description = "true — only events with sub-events, false — only events without them")
+    private Boolean hasChildren;
+
+    public OffsetDateTime getFrom() {
+        return from;
+    }
+
+    public void setFrom(OffsetDateTime from) {
+        this.from = from;
+    }
+
+    public OffsetDateTime getTo() {
+        return to;
+    }
+
+    public void setTo(OffsetDateTime to) {
+        this.to = to;
+    }
+
+    public EventStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(EventStatus status) {
+        this.status = status;
+    }
+
+    public String getVenue() {
+        return venue;
+    }
+
+    public void setVenue(String venue) {
+        this.venue = venue;
+    }
+
+    public Boolean getTopLevel() {
+        return topLevel;
+    }
+
+    public void setTopLevel(Boolean topLevel) {
+        this.topLevel = topLevel;
+    }
+
+    public Boolean getHasChildren() {
+        return hasChildren;
+    }
+
+    public void setHasChildren(Boolean hasChildren) {
+        this.hasChildren = hasChildren;
+    }
+}
@@ -0,0 +1,54 @@
+package com.nsu.musclub.dto.event;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class EventFullDto {
+    private EventResponseDto event;
+    private List<EventMemberResponseDto> members;
+    private List<EventTimelineItemResponseDto> timeline;
+    private List<EventProgramItemResponseDto> program;
+    private EventTreeNodeDto tree;
+
+    public EventResponseDto getEvent() {
+        return event;
+    }
+
+    public void setEvent(EventResponseDto event) {
+        this.event = event;
+    }
+
+    public List<EventMemberResponseDto> getMembers() {
+        return members;
+    }
+
+    public void setMembers(List<EventMemberResponseDto> members) {
+        this.members = members;
+    }
+
+    public List<EventTimelineItemResponseDto> getTimeline() {
+        return timeline;
+    }
+
+    public void setTimeline(List<EventTimelineItemResponseDto> timeline) {
+        this.timeline = timeline;
+    }
+
+    public List<EventProgramItemResponseDto> getProgram() {
+        return program;
+    }
+
+    public void setProgram(List<EventProgramItemResponseDto> program) {
+        this.program = program;
+    }
+
+    public EventTreeNodeDto getTree() {
+        return tree;
+    }
+
+    public void setTree(EventTreeNodeDto tree) {
+        this.tree = tree;
+    }
+}
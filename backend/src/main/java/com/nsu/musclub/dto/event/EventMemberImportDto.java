@@ -0,0 +1,20 @@
+package com.nsu.musclub.dto.event;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class EventMemberImportDto {
+    @NotEmpty
+    @Size(max = 5000)
+    private List<EventMemberImportItemDto> members;
+
+    public List<EventMemberImportItemDto> getMembers() {
+        return members;
+    }
+
+    public void setMembers(List<EventMemberImportItemDto> members) {
+        this.members = members;
+    }
+}
@@ -0,0 +1,34 @@
+package com.nsu.musclub.dto.event;
+
+/**
+ * Строка импорта: пользователь задаётся идентификатором или email
+ */
+public class EventMemberImportItemDto {
+    private Long userId;
+    private String email;
+    private String role;
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public void setRole(String role) {
+        this.role = role;
+    }
+}
@@ -0,0 +1,60 @@
+package com.nsu.musclub.dto.event;
+
+import java.util.List;
+
+public class EventMemberImportResultDto {
+    private Long eventId;
+    private int created;
+    private int updated;
+    private int unchanged;
+    private int failed;
+    private List<EventMemberImportRowDto> results;
+
+    public Long getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(Long eventId) {
+        this.eventId = eventId;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public void setCreated(int created) {
+        this.created = created;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(int updated) {
+        this.updated = updated;
+    }
+
+    public int getUnchanged() {
+        return unchanged;
+    }
+
+    public void setUnchanged(int unchanged) {
+        this.unchanged = unchanged;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public List<EventMemberImportRowDto> getResults() {
+        return results;
+    }
+
+    public void setResults(List<EventMemberImportRowDto> results) {
+        this.results = results;
+    }
+}
@@ -0,0 +1,62 @@
+package com.nsu.musclub.dto.event;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Результат строки импорта; {@code index} — позиция строки в запросе
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class EventMemberImportRowDto {
+    public enum Status {
+        CREATED,
+        UPDATED,
+        UNCHANGED,
+        FAILED
+    }
+
+    private int index;
+    private Long userId;
+    private String role;
+    private Status status;
+    private String error;
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public void setRole(String role) {
+        this.role = role;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
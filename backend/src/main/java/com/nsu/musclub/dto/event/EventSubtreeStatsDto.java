@@ -0,0 +1,63 @@
+package com.nsu.musclub.dto.event;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Сводка по мероприятию и всем его подмероприятиям
+ */
+public class EventSubtreeStatsDto {
+    private Long eventId;
+    private long eventCount;
+    private int maxDepth;
+    private long memberCount;
+    private OffsetDateTime firstStartTime;
+    private OffsetDateTime lastEndTime;
+
+    public Long getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(Long eventId) {
+        this.eventId = eventId;
+    }
+
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    public void setEventCount(long eventCount) {
+        this.eventCount = eventCount;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public void setMaxDepth(int maxDepth) {
+        this.maxDepth = maxDepth;
+    }
+
+    public long getMemberCount() {
+        return memberCount;
+    }
+
+    public void setMemberCount(long memberCount) {
+        this.memberCount = memberCount;
+    }
+
+    public OffsetDateTime getFirstStartTime() {
+        return firstStartTime;
+    }
+
+    public void setFirstStartTime(OffsetDateTime firstStartTime) {
+        this.firstStartTime = firstStartTime;
+    }
+
+    public OffsetDateTime getLastEndTime() {
+        return lastEndTime;
+    }
+
+    public void setLastEndTime(OffsetDateTime lastEndTime) {
+        this.lastEndTime = lastEndTime;
+    }
+}
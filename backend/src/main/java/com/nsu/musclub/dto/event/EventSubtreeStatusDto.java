@@ -0,0 +1,17 @@
+package com.nsu.musclub.dto.event;
+
+import com.nsu.musclub.domain.EventStatus;
+import jakarta.validation.constraints.NotNull;
+
+public class EventSubtreeStatusDto {
+    @NotNull
+    private EventStatus status;
+
+    public EventStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(EventStatus status) {
+        this.status = status;
+    }
+}
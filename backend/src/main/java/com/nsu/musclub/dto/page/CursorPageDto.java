@@ -0,0 +1,45 @@
+package com.nsu.musclub.dto.page;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Страница keyset-пагинации. Следующая страница запрашивается с {@code cursor = nextCursor};
+ * общее количество записей не считается.
+ */
+public class CursorPageDto<T> {
+
+    private final List<T> items;
+    private final String nextCursor;
+    private final boolean hasMore;
+
+    public CursorPageDto(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = nextCursor != null;
+    }
+
+    /**
+     * Собрать страницу из выборки с запасом в одну запись ({@code limit + 1}):
+     * лишняя запись означает, что есть следующая страница
+     */
+    public static <T> CursorPageDto<T> of(List<T> rows, int limit, Function<T, KeysetCursor> cursorOf) {
+        if (rows.size() <= limit) {
+            return new CursorPageDto<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        return new CursorPageDto<>(List.copyOf(items), cursorOf.apply(items.get(limit - 1)).encode());
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+}
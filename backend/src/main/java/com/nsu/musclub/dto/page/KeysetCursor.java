@@ -0,0 +1,49 @@
+package com.nsu.musclub.dto.page;
+
+import com.nsu.musclub.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+
+/**
+ * Позиция keyset-пагинации: значение колонки сортировки и id последней возвращённой записи.
+ * Клиенту передаётся в виде непрозрачной строки (base64url от {@code epochMicros:id}).
+ */
+public record KeysetCursor(OffsetDateTime at, long id) {
+
+    public static KeysetCursor of(OffsetDateTime at, long id) {
+        return new KeysetCursor(at, id);
+    }
+
+    public String encode() {
+        long micros = ChronoUnit.MICROS.between(Instant.EPOCH, at.toInstant());
+        String raw = micros + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Разобрать курсор из запроса
+     *
+     * @return null для пустого курсора (первая страница)
+     * @throws BadRequestException если курсор повреждён
+     */
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            long micros = Long.parseLong(raw.substring(0, separator));
+            long id = Long.parseLong(raw.substring(separator + 1));
+            Instant at = Instant.EPOCH.plus(micros, ChronoUnit.MICROS);
+            return new KeysetCursor(OffsetDateTime.ofInstant(at, ZoneOffset.UTC), id);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new BadRequestException("Некорректный курсор страницы", "INVALID_CURSOR");
+        }
+    }
+}
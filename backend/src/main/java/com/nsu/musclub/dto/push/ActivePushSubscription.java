@@ -0,0 +1,19 @@
+package com.nsu.musclub.dto.push;
+
+import com.nsu.musclub.domain.PushSubscription;
+
+/**
+ * Неизменяемый снимок активной push-подписки: только то, что нужно для доставки уведомления.
+ * Хранится в кэше подписок и передаётся между потоками доставки без обращения к JPA-сущности.
+ */
+public record ActivePushSubscription(Long id, Long userId, String endpoint, String p256dhKey, String authKey) {
+
+    public static ActivePushSubscription of(PushSubscription subscription) {
+        return new ActivePushSubscription(
+                subscription.getId(),
+                subscription.getUser().getId(),
+                subscription.getEndpoint(),
+                subscription.getP256dhKey(),
+                subscription.getAuthKey());
+    }
+}
@@ -0,0 +1,23 @@
+package com.nsu.musclub.dto.push;
+
+/**
+ * Сериализованное содержимое push-уведомления.
+ * Готовится один раз на сообщение и переиспользуется для всех получателей рассылки;
+ * на каждого получателя остаётся только шифрование payload его ключом.
+ */
+public class EncodedPushMessage {
+
+    private final byte[] payload;
+
+    public EncodedPushMessage(byte[] payload) {
+        this.payload = payload;
+    }
+
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    public int size() {
+        return payload.length;
+    }
+}
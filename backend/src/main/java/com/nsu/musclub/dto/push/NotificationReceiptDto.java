@@ -0,0 +1,79 @@
+package com.nsu.musclub.dto.push;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Подтверждение от service worker: уведомление показано или по нему кликнули.
+ * Получатель определяется по endpoint его push-подписки, а секрет auth той же подписки
+ * подтверждает, что запрос прислал её владелец.
+ */
+public class NotificationReceiptDto {
+
+    public enum Type {
+        SHOWN,
+        CLICKED
+    }
+
+    @NotNull(message = "ID уведомления обязателен")
+    private Long notificationId;
+
+    @NotBlank(message = "Endpoint обязателен")
+    private String endpoint;
+
+    /**
+     * Секрет auth push-подписки в base64url, как при подписке
+     */
+    @NotBlank(message = "Ключ auth обязателен")
+    private String auth;
+
+    @NotNull(message = "Тип подтверждения обязателен")
+    private Type type;
+
+    /**
+     * Время события на устройстве; если не указано — время получения запроса
+     */
+    private OffsetDateTime occurredAt;
+
+    public Long getNotificationId() {
+        return notificationId;
+    }
+
+    public void setNotificationId(Long notificationId) {
+        this.notificationId = notificationId;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public void setEndpoint(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public String getAuth() {
+        return auth;
+    }
+
+    public void setAuth(String auth) {
+        this.auth = auth;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public OffsetDateTime getOccurredAt() {
+        return occurredAt;
+    }
+
+    public void setOccurredAt(OffsetDateTime occurredAt) {
+        this.occurredAt = occurredAt;
+    }
+}
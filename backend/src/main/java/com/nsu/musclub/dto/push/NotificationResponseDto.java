@@ -6,7 +6,8 @@ import com.nsu.musclub.domain.EventNotification.Status;
 import java.time.OffsetDateTime;
 
 /**
- * DTO для ответа с информацией об уведомлении
+ * DTO для ответа с информацией об уведомлении.
+ * Для записей журнала пользователя заполнен userId, а status/sentAt отражают доставку этому пользователю.
  */
 public class NotificationResponseDto {
 
@@ -25,6 +26,11 @@ public class NotificationResponseDto {
     private String errorMessage;
     private OffsetDateTime createdAt;
 
+    /**
+     * Когда пользователь прочитал уведомление (только для записей журнала пользователя)
+     */
+    private OffsetDateTime readAt;
+
     public Long getId() {
         return id;
     }
@@ -136,4 +142,12 @@ public class NotificationResponseDto {
     public void setCreatedAt(OffsetDateTime createdAt) {
         this.createdAt = createdAt;
     }
+
+    public OffsetDateTime getReadAt() {
+        return readAt;
+    }
+
+    public void setReadAt(OffsetDateTime readAt) {
+        this.readAt = readAt;
+    }
 }
@@ -5,11 +5,50 @@ package com.nsu.musclub.dto.push;
  */
 public class NotificationStatsDto {
 
+    /**
+     * Запланированные уведомления мероприятия, ожидающие отправки
+     */
     private long pending;
+
+    /**
+     * Успешные доставки пользователям
+     */
     private long sent;
+
+    /**
+     * Неудачные доставки пользователям
+     */
     private long failed;
+
+    /**
+     * Отменённые уведомления мероприятия
+     */
     private long cancelled;
-    private long total;
+
+    /**
+     * Все доставки пользователям (sent + failed); уведомления мероприятия сюда не входят
+     */
+    private long totalDeliveries;
+
+    /**
+     * Доставки, показ которых подтвердил service worker
+     */
+    private long shown;
+
+    /**
+     * Доставки, по которым пользователь кликнул
+     */
+    private long clicked;
+
+    /**
+     * Средняя задержка успешной доставки относительно запланированного времени, мс (null — доставок не было)
+     */
+    private Long averageDeliveryLatencyMs;
+
+    /**
+     * Максимальная задержка успешной доставки, мс (null — доставок не было)
+     */
+    private Long maxDeliveryLatencyMs;
 
     public long getPending() {
         return pending;
@@ -43,11 +82,43 @@ public class NotificationStatsDto {
         this.cancelled = cancelled;
     }
 
-    public long getTotal() {
-        return total;
+    public long getTotalDeliveries() {
+        return totalDeliveries;
+    }
+
+    public void setTotalDeliveries(long totalDeliveries) {
+        this.totalDeliveries = totalDeliveries;
+    }
+
+    public long getShown() {
+        return shown;
+    }
+
+    public void setShown(long shown) {
+        this.shown = shown;
+    }
+
+    public long getClicked() {
+        return clicked;
+    }
+
+    public void setClicked(long clicked) {
+        this.clicked = clicked;
+    }
+
+    public Long getAverageDeliveryLatencyMs() {
+        return averageDeliveryLatencyMs;
+    }
+
+    public void setAverageDeliveryLatencyMs(Long averageDeliveryLatencyMs) {
+        this.averageDeliveryLatencyMs = averageDeliveryLatencyMs;
+    }
+
+    public Long getMaxDeliveryLatencyMs() {
+        return maxDeliveryLatencyMs;
     }
 
-    public void setTotal(long total) {
-        this.total = total;
+    public void setMaxDeliveryLatencyMs(Long maxDeliveryLatencyMs) {
+        this.maxDeliveryLatencyMs = maxDeliveryLatencyMs;
     }
 }
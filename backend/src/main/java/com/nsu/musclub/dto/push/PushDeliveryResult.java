@@ -0,0 +1,99 @@
+package com.nsu.musclub.dto.push;
+
+import java.time.Duration;
+
+/**
+ * Результат отправки push-уведомления на одну подписку
+ */
+public class PushDeliveryResult {
+
+    public enum Outcome {
+        /**
+         * Push-сервис принял уведомление
+         */
+        DELIVERED,
+        /**
+         * Подписка больше не существует (404/410), повторять бессмысленно
+         */
+        EXPIRED,
+        /**
+         * Временная ошибка (429/5xx, сетевой сбой), стоит повторить позже
+         */
+        RETRYABLE,
+        /**
+         * Запрос не отправлялся: цепь push-сервиса разомкнута, доставку нужно отложить до её восстановления
+         */
+        DEFERRED,
+        /**
+         * Push-сервис отклонил запрос (прочие 4xx, некорректные ключи подписки)
+         */
+        REJECTED
+    }
+
+    private final Outcome outcome;
+    private final int statusCode;
+    private final Duration retryAfter;
+    private final String errorMessage;
+
+    private PushDeliveryResult(Outcome outcome, int statusCode, Duration retryAfter, String errorMessage) {
+        this.outcome = outcome;
+        this.statusCode = statusCode;
+        this.retryAfter = retryAfter;
+        this.errorMessage = errorMessage;
+    }
+
+    public static PushDeliveryResult delivered(int statusCode) {
+        return new PushDeliveryResult(Outcome.DELIVERED, statusCode, Duration.ZERO, null);
+    }
+
+    public static PushDeliveryResult expired(int statusCode, String errorMessage) {
+        return new PushDeliveryResult(Outcome.EXPIRED, statusCode, Duration.ZERO, errorMessage);
+    }
+
+    /**
+     * @param statusCode HTTP-статус ответа или 0, если ответ не получен
+     * @param retryAfter задержка из заголовка Retry-After (или {@link Duration#ZERO})
+     */
+    public static PushDeliveryResult retryable(int statusCode, Duration retryAfter, String errorMessage) {
+        return new PushDeliveryResult(Outcome.RETRYABLE, statusCode, retryAfter, errorMessage);
+    }
+
+    /**
+     * @param until через сколько push-сервис снова будет принимать запросы
+     */
+    public static PushDeliveryResult deferred(Duration until, String errorMessage) {
+        return new PushDeliveryResult(Outcome.DEFERRED, 0, until, errorMessage);
+    }
+
+    public static PushDeliveryResult rejected(int statusCode, String errorMessage) {
+        return new PushDeliveryResult(Outcome.REJECTED, statusCode, Duration.ZERO, errorMessage);
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public boolean isDelivered() {
+        return outcome == Outcome.DELIVERED;
+    }
+
+    public boolean isRetryable() {
+        return outcome == Outcome.RETRYABLE;
+    }
+
+    public boolean isDeferred() {
+        return outcome == Outcome.DEFERRED;
+    }
+}
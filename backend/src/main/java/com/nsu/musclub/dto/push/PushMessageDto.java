@@ -11,6 +11,11 @@ public class PushMessageDto {
     private boolean requireInteraction;
     private long timestamp;
 
+    /**
+     * Уведомление, в рамках которого отправлено сообщение; service worker возвращает его в подтверждениях
+     */
+    private Long notificationId;
+
     public PushMessageDto() {
     }
 
@@ -84,6 +89,14 @@ public class PushMessageDto {
         this.timestamp = timestamp;
     }
 
+    public Long getNotificationId() {
+        return notificationId;
+    }
+
+    public void setNotificationId(Long notificationId) {
+        this.notificationId = notificationId;
+    }
+
     public static Builder builder() {
         return new Builder();
     }
@@ -126,6 +139,11 @@ public class PushMessageDto {
             return this;
         }
 
+        public Builder notificationId(Long notificationId) {
+            dto.setNotificationId(notificationId);
+            return this;
+        }
+
         public PushMessageDto build() {
             dto.setTimestamp(System.currentTimeMillis());
             return dto;
@@ -0,0 +1,130 @@
+package com.nsu.musclub.dto.push;
+
+import java.time.OffsetDateTime;
+
+/**
+ * DTO для состояния push-сервиса (origin endpoint-а подписки) и его circuit breaker
+ */
+public class PushOriginHealthDto {
+
+    /**
+     * Состояние circuit breaker
+     */
+    public enum State {
+        CLOSED,     // Доставка идёт штатно
+        OPEN,       // Доставка приостановлена, уведомления откладываются
+        HALF_OPEN   // Пробная доставка после паузы
+    }
+
+    private String origin;
+    private State state;
+
+    /**
+     * Всего запросов к push-сервису с момента запуска
+     */
+    private long requests;
+
+    /**
+     * Из них неудачных (таймауты, 429, 5xx, слишком медленные ответы)
+     */
+    private long failures;
+
+    /**
+     * Доля неудачных запросов в скользящем окне последних запросов
+     */
+    private double errorRate;
+
+    /**
+     * Сглаженное время ответа в миллисекундах
+     */
+    private double averageLatencyMs;
+
+    /**
+     * Сколько раз подряд circuit breaker открывался (определяет длительность паузы)
+     */
+    private int consecutiveOpens;
+
+    private OffsetDateTime openUntil;
+    private OffsetDateTime lastFailureAt;
+    private String lastError;
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public void setOrigin(String origin) {
+        this.origin = origin;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public void setState(State state) {
+        this.state = state;
+    }
+
+    public long getRequests() {
+        return requests;
+    }
+
+    public void setRequests(long requests) {
+        this.requests = requests;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    public void setFailures(long failures) {
+        this.failures = failures;
+    }
+
+    public double getErrorRate() {
+        return errorRate;
+    }
+
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    public double getAverageLatencyMs() {
+        return averageLatencyMs;
+    }
+
+    public void setAverageLatencyMs(double averageLatencyMs) {
+        this.averageLatencyMs = averageLatencyMs;
+    }
+
+    public int getConsecutiveOpens() {
+        return consecutiveOpens;
+    }
+
+    public void setConsecutiveOpens(int consecutiveOpens) {
+        this.consecutiveOpens = consecutiveOpens;
+    }
+
+    public OffsetDateTime getOpenUntil() {
+        return openUntil;
+    }
+
+    public void setOpenUntil(OffsetDateTime openUntil) {
+        this.openUntil = openUntil;
+    }
+
+    public OffsetDateTime getLastFailureAt() {
+        return lastFailureAt;
+    }
+
+    public void setLastFailureAt(OffsetDateTime lastFailureAt) {
+        this.lastFailureAt = lastFailureAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+}
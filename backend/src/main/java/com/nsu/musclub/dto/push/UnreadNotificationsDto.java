@@ -0,0 +1,35 @@
+package com.nsu.musclub.dto.push;
+
+/**
+ * DTO для счётчика непрочитанных уведомлений пользователя.
+ * Счёт ограничен сверху: при {@code capped = true} непрочитанных не меньше {@code count}.
+ */
+public class UnreadNotificationsDto {
+
+    private long count;
+    private boolean capped;
+
+    public UnreadNotificationsDto() {
+    }
+
+    public UnreadNotificationsDto(long count, boolean capped) {
+        this.count = count;
+        this.capped = capped;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public boolean isCapped() {
+        return capped;
+    }
+
+    public void setCapped(boolean capped) {
+        this.capped = capped;
+    }
+}
@@ -0,0 +1,65 @@
+package com.nsu.musclub.repository;
+
+import com.nsu.musclub.domain.EventStatus;
+import com.nsu.musclub.dto.event.EventCardDto;
+import com.nsu.musclub.dto.page.KeysetCursor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Лента мероприятий (от поздних к ранним) с keyset-пагинацией по (start_time, id).
+ * Выбираются только колонки карточки; страница читается по индексу idx_events_start_time_id
+ * без подсчёта общего количества.
+ */
+@Repository
+public class EventFeedRepository {
+
+    private static final String PAGE_SQL = """
+            SELECT id, title, start_time, end_time, venue, status, parent_id
+            FROM events %s
+            ORDER BY start_time DESC NULLS LAST, id DESC
+            LIMIT :limit
+            """;
+
+    private static final String FIRST_PAGE_SQL = PAGE_SQL.formatted("");
+
+    private static final String NEXT_PAGE_SQL = PAGE_SQL.formatted("WHERE (start_time, id) < (:afterAt, :afterId)");
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public EventFeedRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Карточки мероприятий после курсора
+     *
+     * @param after курсор предыдущей страницы или null для первой страницы
+     */
+    public List<EventCardDto> findPage(KeysetCursor after, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource("limit", limit);
+        if (after == null) {
+            return jdbcTemplate.query(FIRST_PAGE_SQL, params, ROW_MAPPER);
+        }
+        params.addValue("afterAt", after.at())
+                .addValue("afterId", after.id());
+        return jdbcTemplate.query(NEXT_PAGE_SQL, params, ROW_MAPPER);
+    }
+
+    static final RowMapper<EventCardDto> ROW_MAPPER = (rs, rowNum) -> {
+        EventCardDto dto = new EventCardDto();
+        dto.setId(rs.getLong("id"));
+        dto.setTitle(rs.getString("title"));
+        dto.setStartTime(rs.getObject("start_time", OffsetDateTime.class));
+        dto.setEndTime(rs.getObject("end_time", OffsetDateTime.class));
+        dto.setVenue(rs.getString("venue"));
+        dto.setStatus(EventStatus.valueOf(rs.getString("status")));
+        dto.setParentId(rs.getObject("parent_id", Long.class));
+        return dto;
+    };
+}
@@ -0,0 +1,80 @@
+package com.nsu.musclub.repository;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Массовое добавление участников мероприятия: пользователи находятся одним запросом,
+ * участники записываются одним INSERT ... ON CONFLICT по массивам через unnest.
+ */
+@Repository
+public class EventMemberBulkRepository {
+
+    private static final String FIND_USERS_SQL = """
+            SELECT id, email
+            FROM users
+            WHERE id = ANY (CAST(:ids AS BIGINT[]))
+               OR lower(email) = ANY (CAST(:emails AS TEXT[]))
+            ORDER BY id
+            """;
+
+    /**
+     * Строки с неизменной ролью не перезаписываются и не возвращаются, чтобы повторный импорт
+     * не менял версию мероприятия. xmax = 0 у только что вставленной строки.
+     */
+    private static final String UPSERT_SQL = """
+            INSERT INTO event_members (event_id, user_id, role, added_at)
+            SELECT :eventId, m.user_id, m.role, :now
+            FROM unnest(CAST(:userIds AS BIGINT[]), CAST(:roles AS TEXT[])) AS m(user_id, role)
+            ON CONFLICT (event_id, user_id) DO UPDATE
+                SET role = EXCLUDED.role
+                WHERE event_members.role IS DISTINCT FROM EXCLUDED.role
+            RETURNING user_id, (xmax = 0) AS inserted
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public EventMemberBulkRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Пользователи с указанными идентификаторами или email (email сравниваются без учёта регистра)
+     */
+    public List<UserRef> findUsers(Collection<Long> ids, Collection<String> emails) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("ids", ids.toArray(Long[]::new))
+                .addValue("emails", emails.stream().map(email -> email.toLowerCase(Locale.ROOT)).toArray(String[]::new));
+        return jdbcTemplate.query(FIND_USERS_SQL, params,
+                (rs, rowNum) -> new UserRef(rs.getLong("id"), rs.getString("email")));
+    }
+
+    /**
+     * Добавить участников или сменить им роль
+     *
+     * @param userIds пользователи без повторов
+     * @param roles   роли в том же порядке
+     * @return добавленные и изменённые участники; участники с прежней ролью не возвращаются
+     */
+    public List<UpsertedMember> upsert(Long eventId, List<Long> userIds, List<String> roles) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("eventId", eventId)
+                .addValue("now", OffsetDateTime.now())
+                .addValue("userIds", userIds.toArray(Long[]::new))
+                .addValue("roles", roles.toArray(String[]::new));
+        return jdbcTemplate.query(UPSERT_SQL, params,
+                (rs, rowNum) -> new UpsertedMember(rs.getLong("user_id"), rs.getBoolean("inserted")));
+    }
+
+    public record UserRef(Long id, String email) {
+    }
+
+    public record UpsertedMember(Long userId, boolean inserted) {
+    }
+}
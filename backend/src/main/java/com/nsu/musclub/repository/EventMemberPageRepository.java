@@ -0,0 +1,88 @@
+package com.nsu.musclub.repository;
+
+import com.nsu.musclub.dto.event.EventMemberResponseDto;
+import com.nsu.musclub.dto.page.KeysetCursor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Участники мероприятия вместе с пользователями одним запросом, в порядке добавления.
+ * Страницы читаются по курсору (added_at, user_id) по индексу idx_event_members_event_added,
+ * без подсчёта общего количества.
+ */
+@Repository
+public class EventMemberPageRepository {
+
+    private static final String PAGE_SQL = """
+            SELECT m.user_id, m.role, m.added_at, u.username, u.email
+            FROM event_members m
+                     JOIN users u ON u.id = m.user_id
+            WHERE m.event_id = :eventId
+            """;
+
+    private static final String ROLE_FILTER = " AND m.role = :role";
+
+    private static final String SEARCH_FILTER = " AND u.username ILIKE :pattern ESCAPE '\\'";
+
+    private static final String AFTER_FILTER = " AND (m.added_at, m.user_id) > (:afterAt, :afterId)";
+
+    private static final String ORDER_SQL = """
+
+            ORDER BY m.added_at, m.user_id
+            LIMIT :limit
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public EventMemberPageRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Участники мероприятия после курсора
+     *
+     * @param role   точное значение роли или null
+     * @param search подстрока имени пользователя без учёта регистра или null
+     * @param after  курсор предыдущей страницы или null для первой страницы
+     */
+    public List<EventMemberResponseDto> findPage(Long eventId, String role, String search, KeysetCursor after, int limit) {
+        StringBuilder sql = new StringBuilder(PAGE_SQL.stripTrailing());
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("eventId", eventId)
+                .addValue("limit", limit);
+        if (role != null) {
+            sql.append(ROLE_FILTER);
+            params.addValue("role", role);
+        }
+        if (search != null) {
+            sql.append(SEARCH_FILTER);
+            params.addValue("pattern", "%" + escapeLike(search) + "%");
+        }
+        if (after != null) {
+            sql.append(AFTER_FILTER);
+            params.addValue("afterAt", after.at())
+                    .addValue("afterId", after.id());
+        }
+        sql.append(ORDER_SQL);
+        return jdbcTemplate.query(sql.toString(), params, ROW_MAPPER);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static final RowMapper<EventMemberResponseDto> ROW_MAPPER = (rs, rowNum) -> {
+        EventMemberResponseDto dto = new EventMemberResponseDto();
+        dto.setUserId(rs.getLong("user_id"));
+        dto.setUsername(rs.getString("username"));
+        dto.setEmail(rs.getString("email"));
+        dto.setRole(rs.getString("role"));
+        dto.setAddedAt(rs.getObject("added_at", OffsetDateTime.class));
+        return dto;
+    };
+}
@@ -2,11 +2,22 @@ package com.nsu.musclub.repository;
 
 import com.nsu.musclub.domain.EventMember;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
 public interface EventMemberRepository extends JpaRepository<EventMember, EventMember.Pk> {
     List<EventMember> findByEvent_Id(Long eventId);
+
+    /**
+     * Участники мероприятия вместе с пользователями одним запросом
+     */
+    @Query("SELECT em FROM EventMember em JOIN FETCH em.user WHERE em.event.id = :eventId")
+    List<EventMember> findWithUserByEventId(@Param("eventId") Long eventId);
     List<EventMember> findByUser_Id(Long userId);
     boolean existsByEvent_IdAndUser_Id(Long eventId, Long userId);
+
+    @Query("SELECT em.id.userId FROM EventMember em WHERE em.id.eventId = :eventId")
+    List<Long> findUserIdsByEventId(@Param("eventId") Long eventId);
 }
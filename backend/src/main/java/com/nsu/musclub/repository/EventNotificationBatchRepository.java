@@ -0,0 +1,131 @@
+package com.nsu.musclub.repository;
+
+import com.nsu.musclub.domain.EventNotification;
+import com.nsu.musclub.domain.EventNotification.NotificationType;
+import com.nsu.musclub.repository.EventNotificationClaimRepository.UpcomingNotification;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Пакетные операции с уведомлениями всех мероприятий поддерева (по таблице замыкания event_closure).
+ * Напоминания поддерева создаются одним batch-запросом, отмена выполняется одним UPDATE.
+ */
+@Repository
+public class EventNotificationBatchRepository {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String INSERT_SQL = """
+            INSERT INTO event_notifications (event_id, send_at, next_attempt_at, status, notification_type,
+                                             title, body, action_url, created_at)
+            VALUES (:eventId, :sendAt, :nextAttemptAt, 'PENDING', :type, :title, :body, :actionUrl, :createdAt)
+            ON CONFLICT (event_id, notification_type, send_at) WHERE status = 'PENDING' DO NOTHING
+            """;
+
+    private static final String PENDING_KEYS_SQL = """
+            SELECT n.event_id, n.notification_type, n.send_at
+            FROM event_closure c
+                     JOIN event_notifications n ON n.event_id = c.descendant_id
+            WHERE c.ancestor_id = :rootId
+              AND n.status = 'PENDING'
+            """;
+
+    private static final String CANCEL_PENDING_SQL = """
+            UPDATE event_notifications
+            SET status = 'CANCELLED'
+            WHERE status = 'PENDING'
+              AND (leased_until IS NULL OR leased_until <= :now)
+              AND event_id IN (SELECT descendant_id FROM event_closure WHERE ancestor_id = :rootId)
+            RETURNING id
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public EventNotificationBatchRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Ожидающие отправки уведомления поддерева для проверки дублей при планировании
+     */
+    public Set<PendingKey> findPendingKeys(Long rootId) {
+        Set<PendingKey> keys = new HashSet<>();
+        jdbcTemplate.query(PENDING_KEYS_SQL, new MapSqlParameterSource("rootId", rootId), rs -> {
+            keys.add(new PendingKey(rs.getLong("event_id"),
+                    NotificationType.valueOf(rs.getString("notification_type")),
+                    rs.getObject("send_at", OffsetDateTime.class).toInstant()));
+        });
+        return keys;
+    }
+
+    /**
+     * Сохранить новые ожидающие уведомления пачками. Уведомления, уже запланированные параллельным
+     * вызовом, пропускаются по уникальному индексу ux_event_notifications_pending_topic.
+     *
+     * @return фактически созданные уведомления и время их первой попытки
+     */
+    public List<UpcomingNotification> insertAll(List<EventNotification> notifications) {
+        List<UpcomingNotification> created = new ArrayList<>(notifications.size());
+        for (int from = 0; from < notifications.size(); from += BATCH_SIZE) {
+            List<EventNotification> chunk = notifications.subList(from, Math.min(from + BATCH_SIZE, notifications.size()));
+            SqlParameterSource[] batch = chunk.stream()
+                    .map(notification -> new MapSqlParameterSource()
+                            .addValue("eventId", notification.getEvent().getId())
+                            .addValue("sendAt", notification.getSendAt())
+                            .addValue("nextAttemptAt", notification.getSendAt())
+                            .addValue("type", notification.getNotificationType().name())
+                            .addValue("title", notification.getTitle())
+                            .addValue("body", notification.getBody())
+                            .addValue("actionUrl", notification.getActionUrl())
+                            .addValue("createdAt", notification.getCreatedAt()))
+                    .toArray(SqlParameterSource[]::new);
+            KeyHolder keys = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, keys, new String[]{"id", "next_attempt_at"});
+            // Пропущенные строки ключей не возвращают, поэтому результат берётся из самих ключей
+            for (Map<String, Object> key : keys.getKeyList()) {
+                created.add(new UpcomingNotification(((Number) key.get("id")).longValue(),
+                        toOffsetDateTime(key.get("next_attempt_at"))));
+            }
+        }
+        return created;
+    }
+
+    private static OffsetDateTime toOffsetDateTime(Object value) {
+        if (value instanceof OffsetDateTime offsetDateTime) {
+            return offsetDateTime;
+        }
+        return OffsetDateTime.ofInstant(((Timestamp) value).toInstant(), ZoneOffset.UTC);
+    }
+
+    /**
+     * Отменить ожидающие уведомления всех мероприятий поддерева; захваченные для рассылки не отменяются
+     *
+     * @return идентификаторы отменённых уведомлений
+     */
+    public List<Long> cancelPending(Long rootId) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("rootId", rootId)
+                .addValue("now", OffsetDateTime.now());
+        return jdbcTemplate.queryForList(CANCEL_PENDING_SQL, params, Long.class);
+    }
+
+    /**
+     * Ключ проверки дублей: мероприятие, тип напоминания и момент отправки
+     */
+    public record PendingKey(Long eventId, NotificationType type, Instant sendAt) {
+    }
+}
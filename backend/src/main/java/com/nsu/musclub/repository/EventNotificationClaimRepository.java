@@ -0,0 +1,111 @@
+package com.nsu.musclub.repository;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Захват готовых к отправке уведомлений.
+ * Один запрос по частичному индексу (status = 'PENDING', next_attempt_at) обслуживает и первые попытки,
+ * и повторные: захваченные строки сдвигаются на время аренды, поэтому другие узлы их не видят,
+ * а при падении узла уведомление снова станет доступным по истечении аренды.
+ */
+@Repository
+public class EventNotificationClaimRepository {
+
+    private static final String CLAIM_SQL = """
+            UPDATE event_notifications
+            SET next_attempt_at = :leaseUntil,
+                leased_until    = :leaseUntil
+            WHERE id IN (SELECT id
+                         FROM event_notifications
+                         WHERE status = 'PENDING'
+                           AND next_attempt_at <= :now
+                         ORDER BY next_attempt_at
+                         LIMIT :limit
+                         FOR UPDATE SKIP LOCKED)
+            RETURNING id
+            """;
+
+    private static final String CLAIM_BY_IDS_SQL = """
+            UPDATE event_notifications
+            SET next_attempt_at = :leaseUntil,
+                leased_until    = :leaseUntil
+            WHERE id IN (SELECT id
+                         FROM event_notifications
+                         WHERE id IN (:ids)
+                           AND status = 'PENDING'
+                           AND next_attempt_at <= :now
+                         FOR UPDATE SKIP LOCKED)
+            RETURNING id
+            """;
+
+    private static final String UPCOMING_SQL = """
+            SELECT id, next_attempt_at
+            FROM event_notifications
+            WHERE status = 'PENDING'
+              AND next_attempt_at < :before
+            ORDER BY next_attempt_at
+            LIMIT :limit
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public EventNotificationClaimRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Захватить до {@code limit} уведомлений, время отправки которых наступило
+     *
+     * @return идентификаторы захваченных уведомлений
+     */
+    public List<Long> claimDue(int limit, Duration lease) {
+        OffsetDateTime now = OffsetDateTime.now();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("now", now)
+                .addValue("leaseUntil", now.plus(lease))
+                .addValue("limit", limit);
+        return jdbcTemplate.queryForList(CLAIM_SQL, params, Long.class);
+    }
+
+    /**
+     * Захватить указанные уведомления, если они всё ещё ожидают отправки и их срок наступил
+     * (используется таймером, сработавшим точно в срок)
+     */
+    public List<Long> claimDueByIds(Collection<Long> ids, Duration lease) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        OffsetDateTime now = OffsetDateTime.now();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("ids", ids)
+                .addValue("now", now)
+                .addValue("leaseUntil", now.plus(lease));
+        return jdbcTemplate.queryForList(CLAIM_BY_IDS_SQL, params, Long.class);
+    }
+
+    /**
+     * Не более {@code limit} ближайших ожидающих уведомлений, очередная попытка которых наступит раньше {@code before}
+     */
+    public List<UpcomingNotification> findUpcoming(OffsetDateTime before, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("before", before)
+                .addValue("limit", limit);
+        return jdbcTemplate.query(UPCOMING_SQL, params,
+                (rs, rowNum) -> new UpcomingNotification(
+                        rs.getLong("id"),
+                        rs.getObject("next_attempt_at", OffsetDateTime.class)));
+    }
+
+    /**
+     * Уведомление и время его очередной попытки отправки
+     */
+    public record UpcomingNotification(Long id, OffsetDateTime nextAttemptAt) {
+    }
+}
@@ -0,0 +1,152 @@
+package com.nsu.musclub.repository;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Обслуживание месячных секций event_notifications (секционирование по send_at, UTC).
+ * Секции называются {@code event_notifications_pYYYYMM}; строки вне созданных секций
+ * попадают в {@code event_notifications_default} и переносятся при создании секции их месяца.
+ */
+@Repository
+public class EventNotificationPartitionRepository {
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("event_notifications_p(\\d{6})");
+    private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private static final String PARTITIONS_SQL = """
+            SELECT c.relname
+            FROM pg_inherits i
+                     JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = 'event_notifications'::regclass
+            """;
+
+    private static final String DELETE_EXPIRED_CHUNK_SQL = """
+            DELETE
+            FROM event_notifications
+            WHERE id IN (SELECT id
+                         FROM event_notifications
+                         WHERE send_at < :before
+                           AND status IN ('SENT', 'CANCELLED', 'FAILED')
+                         LIMIT :limit)
+              AND send_at < :before
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public EventNotificationPartitionRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Создать секцию месяца, если её ещё нет
+     *
+     * @return true, если секция создана
+     */
+    public boolean ensurePartition(YearMonth month) {
+        Boolean created = jdbcTemplate.queryForObject(
+                "SELECT ensure_event_notifications_partition(:month)",
+                new MapSqlParameterSource("month", month.atDay(1)), Boolean.class);
+        return Boolean.TRUE.equals(created);
+    }
+
+    /**
+     * Месяцы существующих секций (без секции по умолчанию) в порядке возрастания
+     */
+    public List<YearMonth> findPartitionMonths() {
+        List<YearMonth> months = new ArrayList<>();
+        for (String name : jdbcTemplate.queryForList(PARTITIONS_SQL, new MapSqlParameterSource(), String.class)) {
+            Matcher matcher = PARTITION_NAME.matcher(name);
+            if (matcher.matches()) {
+                months.add(YearMonth.parse(matcher.group(1), PARTITION_MONTH));
+            }
+        }
+        months.sort(null);
+        return months;
+    }
+
+    /**
+     * Есть ли в секции уведомления, ожидающие отправки
+     */
+    public boolean hasPending(YearMonth month) {
+        Boolean pending = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM " + partitionName(month) + " WHERE status = 'PENDING')",
+                new MapSqlParameterSource(), Boolean.class);
+        return Boolean.TRUE.equals(pending);
+    }
+
+    /**
+     * Заблокировать секцию до конца транзакции (та же блокировка, что возьмёт DETACH):
+     * после этого в секции не появятся новые ожидающие уведомления и записи журнала доставок
+     */
+    public void lockPartition(YearMonth month) {
+        jdbcTemplate.getJdbcTemplate().execute("LOCK TABLE " + partitionName(month) + " IN ACCESS EXCLUSIVE MODE");
+    }
+
+    /**
+     * Удалить пачку записей журнала доставок, относящихся к завершённым уведомлениям секции
+     * (журнал ожидающих уведомлений нужен для повторной попытки и не трогается)
+     *
+     * @return количество удалённых записей
+     */
+    public int deleteDeliveriesChunk(YearMonth month, int limit) {
+        String sql = """
+                DELETE
+                FROM notification_deliveries
+                WHERE id IN (SELECT d.id
+                             FROM notification_deliveries d
+                                      JOIN %s n ON n.id = d.notification_id
+                             WHERE n.status <> 'PENDING'
+                             LIMIT :limit)
+                """.formatted(partitionName(month));
+        return jdbcTemplate.update(sql, new MapSqlParameterSource("limit", limit));
+    }
+
+    /**
+     * Отключить секцию от event_notifications и удалить её.
+     * Удаление секции не вызывает триггеров, поэтому отменённые уведомления секции
+     * предварительно вычитаются из event_notification_stats; вызывать в транзакции.
+     */
+    public void dropPartition(YearMonth month) {
+        String name = partitionName(month);
+        jdbcTemplate.getJdbcTemplate().update("""
+                UPDATE event_notification_stats s
+                SET cancelled  = s.cancelled - c.cancelled,
+                    updated_at = now()
+                FROM (SELECT event_id, count(*) AS cancelled
+                      FROM %s
+                      WHERE status = 'CANCELLED'
+                      GROUP BY event_id) c
+                WHERE s.event_id = c.event_id
+                """.formatted(name));
+        jdbcTemplate.getJdbcTemplate().execute("ALTER TABLE event_notifications DETACH PARTITION " + name);
+        jdbcTemplate.getJdbcTemplate().execute("DROP TABLE " + name);
+    }
+
+    /**
+     * Удалить пачку завершённых уведомлений со временем отправки раньше {@code before}
+     * (для секций, которые нельзя удалить целиком, и секции по умолчанию).
+     * Журнал доставок удалённых уведомлений очищает триггер.
+     *
+     * @return количество удалённых уведомлений
+     */
+    public int deleteExpiredChunk(OffsetDateTime before, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("before", before)
+                .addValue("limit", limit);
+        return jdbcTemplate.update(DELETE_EXPIRED_CHUNK_SQL, params);
+    }
+
+    private static String partitionName(YearMonth month) {
+        return "event_notifications_p" + month.format(PARTITION_MONTH);
+    }
+}
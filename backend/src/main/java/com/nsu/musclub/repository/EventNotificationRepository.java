@@ -3,8 +3,6 @@ package com.nsu.musclub.repository;
 import com.nsu.musclub.domain.EventNotification;
 import com.nsu.musclub.domain.EventNotification.NotificationType;
 import com.nsu.musclub.domain.EventNotification.Status;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -16,49 +14,90 @@ import java.util.List;
 public interface EventNotificationRepository extends JpaRepository<EventNotification, Long> {
 
     /**
-     * Найти уведомления готовые к отправке
+     * Проверить существование pending уведомления
      */
-    List<EventNotification> findByStatusAndSendAtLessThanEqual(Status status, OffsetDateTime sendAt);
+    boolean existsByEventIdAndNotificationTypeAndSendAtAndStatus(
+            Long eventId, NotificationType type, OffsetDateTime sendAt, Status status);
 
     /**
-     * Найти уведомления для retry (FAILED с retry_count < maxRetries)
+     * Идентификаторы pending уведомлений мероприятия, рассылка которых сейчас не идёт
      */
-    @Query("SELECT n FROM EventNotification n WHERE n.status = 'FAILED' AND n.retryCount < :maxRetries")
-    List<EventNotification> findFailedForRetry(@Param("maxRetries") int maxRetries);
+    @Query("SELECT n.id FROM EventNotification n WHERE n.event.id = :eventId AND n.status = 'PENDING' " +
+           "AND (n.leasedUntil IS NULL OR n.leasedUntil <= :now)")
+    List<Long> findPendingIdsByEventId(@Param("eventId") Long eventId, @Param("now") OffsetDateTime now);
 
     /**
-     * Проверить существование pending уведомления
+     * Отменить pending уведомления мероприятия. Захваченные для рассылки (в том числе немедленные,
+     * ещё не завершившие рассылку) не отменяются: их итог зафиксирует рассылка
      */
-    boolean existsByEventIdAndUserIdAndNotificationTypeAndStatus(
-            Long eventId, Long userId, NotificationType type, Status status);
+    @Modifying
+    @Query("UPDATE EventNotification n SET n.status = 'CANCELLED' WHERE n.event.id = :eventId AND n.status = 'PENDING' " +
+           "AND (n.leasedUntil IS NULL OR n.leasedUntil <= :now)")
+    int cancelPendingByEventId(@Param("eventId") Long eventId, @Param("now") OffsetDateTime now);
 
     /**
-     * Отменить все pending уведомления для мероприятия
+     * Зафиксировать итог рассылки (отменённые уведомления не изменяются)
      */
     @Modifying
-    @Query("UPDATE EventNotification n SET n.status = 'CANCELLED' WHERE n.event.id = :eventId AND n.status = 'PENDING'")
-    int cancelPendingByEventId(@Param("eventId") Long eventId);
+    @Query("UPDATE EventNotification n SET n.status = :status, n.sentAt = :sentAt, n.errorMessage = :errorMessage, " +
+           "n.leasedUntil = NULL " +
+           "WHERE n.id = :id AND n.status <> 'CANCELLED'")
+    int updateOutcome(@Param("id") Long id,
+                      @Param("status") Status status,
+                      @Param("sentAt") OffsetDateTime sentAt,
+                      @Param("errorMessage") String errorMessage);
 
     /**
-     * Получить уведомления пользователя
+     * Вернуть уведомление в очередь для повторной попытки в указанное время (отменённые не изменяются)
      */
-    Page<EventNotification> findByUserIdOrderBySendAtDesc(Long userId, Pageable pageable);
+    @Modifying
+    @Query("UPDATE EventNotification n SET n.status = 'PENDING', n.retryCount = n.retryCount + 1, " +
+           "n.nextAttemptAt = :nextAttemptAt, n.errorMessage = :errorMessage, n.leasedUntil = NULL " +
+           "WHERE n.id = :id AND n.status <> 'CANCELLED'")
+    int scheduleRetry(@Param("id") Long id,
+                      @Param("nextAttemptAt") OffsetDateTime nextAttemptAt,
+                      @Param("errorMessage") String errorMessage);
 
     /**
-     * Получить уведомления мероприятия
+     * Отложить попытку до указанного времени, не расходуя повторные попытки
+     * (push-сервис был недоступен и запросы не отправлялись; отменённые не изменяются)
      */
-    List<EventNotification> findByEventIdOrderBySendAtDesc(Long eventId);
+    @Modifying
+    @Query("UPDATE EventNotification n SET n.status = 'PENDING', " +
+           "n.nextAttemptAt = :nextAttemptAt, n.errorMessage = :errorMessage, n.leasedUntil = NULL " +
+           "WHERE n.id = :id AND n.status <> 'CANCELLED'")
+    int deferAttempt(@Param("id") Long id,
+                     @Param("nextAttemptAt") OffsetDateTime nextAttemptAt,
+                     @Param("errorMessage") String errorMessage);
 
     /**
-     * Статистика по статусам для мероприятия
+     * Ожидающие первой отправки уведомления мероприятия заданного типа, запланированные позже {@code now}
+     * (без захваченных планировщиком и ожидающих повтора)
      */
-    @Query("SELECT n.status, COUNT(n) FROM EventNotification n WHERE n.event.id = :eventId GROUP BY n.status")
-    List<Object[]> countByEventIdGroupByStatus(@Param("eventId") Long eventId);
+    @Query("SELECT n FROM EventNotification n WHERE n.event.id = :eventId AND n.notificationType = :type " +
+           "AND n.status = 'PENDING' AND n.nextAttemptAt = n.sendAt AND n.sendAt > :now " +
+           "ORDER BY n.sendAt DESC")
+    List<EventNotification> findUpcomingByEventIdAndType(@Param("eventId") Long eventId,
+                                                         @Param("type") NotificationType type,
+                                                         @Param("now") OffsetDateTime now);
 
     /**
-     * Удалить старые отправленные уведомления
+     * Перенести время отправки ожидающего уведомления и обновить его текст.
+     * Не изменяет уведомление, если его срок уже наступил или его захватил планировщик.
      */
     @Modifying
-    @Query("DELETE FROM EventNotification n WHERE n.status IN ('SENT', 'CANCELLED') AND n.sentAt < :before")
-    int deleteOldNotifications(@Param("before") OffsetDateTime before);
+    @Query("UPDATE EventNotification n SET n.sendAt = :sendAt, n.nextAttemptAt = :sendAt, " +
+           "n.title = :title, n.body = :body " +
+           "WHERE n.id = :id AND n.status = 'PENDING' AND n.nextAttemptAt = n.sendAt AND n.sendAt > :now")
+    int reschedulePending(@Param("id") Long id,
+                          @Param("sendAt") OffsetDateTime sendAt,
+                          @Param("title") String title,
+                          @Param("body") String body,
+                          @Param("now") OffsetDateTime now);
+
+    /**
+     * Получить уведомления мероприятия вместе с мероприятием (одним запросом)
+     */
+    @Query("SELECT n FROM EventNotification n JOIN FETCH n.event WHERE n.event.id = :eventId ORDER BY n.sendAt DESC")
+    List<EventNotification> findWithEventByEventId(@Param("eventId") Long eventId);
 }
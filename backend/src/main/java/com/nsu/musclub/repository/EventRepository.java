@@ -1,9 +1,47 @@
 package com.nsu.musclub.repository;
 
 import com.nsu.musclub.domain.Event;
+import jakarta.persistence.LockModeType;
 import java.util.List;
+import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface EventRepository extends JpaRepository<Event, Long> {
+public interface EventRepository extends JpaRepository<Event, Long>, JpaSpecificationExecutor<Event> {
     List<Event> findByParentId(Long parentId);
+
+    /**
+     * Мероприятие и все его подмероприятия (по таблице замыкания)
+     */
+    @Query(value = "SELECT e.* FROM event_closure c JOIN events e ON e.id = c.descendant_id " +
+                   "WHERE c.ancestor_id = :rootId ORDER BY c.depth, e.id", nativeQuery = true)
+    List<Event> findSubtree(@Param("rootId") Long rootId);
+
+    /**
+     * Установить статус мероприятию и всем его подмероприятиям
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE events SET status = :status " +
+                   "WHERE id IN (SELECT descendant_id FROM event_closure WHERE ancestor_id = :rootId) " +
+                   "AND status <> :status", nativeQuery = true)
+    int updateSubtreeStatus(@Param("rootId") Long rootId, @Param("status") String status);
+
+    /**
+     * Удалить мероприятие вместе со всеми подмероприятиями; вложенные данные удаляются каскадно
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM events WHERE id IN (SELECT descendant_id FROM event_closure WHERE ancestor_id = :rootId)",
+           nativeQuery = true)
+    int deleteSubtree(@Param("rootId") Long rootId);
+
+    /**
+     * Мероприятие с блокировкой строки до конца транзакции
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM Event e WHERE e.id = :id")
+    Optional<Event> findByIdForUpdate(@Param("id") Long id);
 }
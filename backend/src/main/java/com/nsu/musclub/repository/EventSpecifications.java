@@ -0,0 +1,51 @@
+package com.nsu.musclub.repository;
+
+import com.nsu.musclub.domain.Event;
+import com.nsu.musclub.dto.event.EventFilterDto;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Условия выборки мероприятий по {@link EventFilterDto}.
+ * Условия записаны так, чтобы совпадать с индексами V19: lower(venue), частичные индексы
+ * по status = 'NOT_STARTED' и parent_id IS NULL; наличие подмероприятий проверяется по idx_events_parent.
+ */
+public final class EventSpecifications {
+
+    private EventSpecifications() {
+    }
+
+    public static Specification<Event> matching(EventFilterDto filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (filter.getFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("startTime"), filter.getFrom()));
+            }
+            if (filter.getTo() != null) {
+                predicates.add(cb.lessThan(root.get("startTime"), filter.getTo()));
+            }
+            if (filter.getStatus() != null) {
+                predicates.add(cb.equal(root.get("status"), filter.getStatus()));
+            }
+            if (filter.getVenue() != null && !filter.getVenue().isBlank()) {
+                predicates.add(cb.equal(cb.lower(root.get("venue")),
+                        filter.getVenue().trim().toLowerCase(Locale.ROOT)));
+            }
+            if (Boolean.TRUE.equals(filter.getTopLevel())) {
+                predicates.add(cb.isNull(root.get("parent")));
+            }
+            if (filter.getHasChildren() != null) {
+                Subquery<Long> children = query.subquery(Long.class);
+                var child = children.from(Event.class);
+                children.select(child.get("id")).where(cb.equal(child.get("parent"), root));
+                predicates.add(filter.getHasChildren() ? cb.exists(children) : cb.not(cb.exists(children)));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+}
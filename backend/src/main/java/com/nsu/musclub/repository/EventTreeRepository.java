@@ -0,0 +1,155 @@
+package com.nsu.musclub.repository;
+
+import com.nsu.musclub.dto.event.EventCardDto;
+import com.nsu.musclub.dto.event.EventSubtreeStatsDto;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Иерархия мероприятий по таблице замыкания event_closure (V22): поддерево, цепочка предков
+ * и сводки по поддереву читаются одним индексным запросом без рекурсии.
+ * Таблицу поддерживают триггеры events; изменения parent_id через JPA нужно сбросить (flush)
+ * до чтения в той же транзакции.
+ */
+@Repository
+public class EventTreeRepository {
+
+    private static final String SUBTREE_SQL = """
+            SELECT e.id, e.parent_id, e.title, e.start_time, c.depth + 1 AS depth
+            FROM event_closure c
+                     JOIN events e ON e.id = c.descendant_id
+            WHERE c.ancestor_id = :id
+              AND c.depth < :depth
+            ORDER BY c.depth, e.id
+            """;
+
+    private static final String SUBTREE_IDS_SQL = """
+            SELECT descendant_id
+            FROM event_closure
+            WHERE ancestor_id = :id
+            """;
+
+    private static final String IS_ANCESTOR_OR_SELF_SQL = """
+            SELECT EXISTS (SELECT 1
+                           FROM event_closure
+                           WHERE ancestor_id = :ancestorId
+                             AND descendant_id = :nodeId)
+            """;
+
+    private static final String DESCENDANTS_SQL = """
+            SELECT e.id, e.title, e.start_time, e.end_time, e.venue, e.status, e.parent_id
+            FROM event_closure c
+                     JOIN events e ON e.id = c.descendant_id
+            WHERE c.ancestor_id = :id
+              AND c.depth BETWEEN 1 AND :maxDepth
+            ORDER BY c.depth, e.start_time, e.id
+            """;
+
+    private static final String ANCESTORS_SQL = """
+            SELECT e.id, e.title, e.start_time, e.end_time, e.venue, e.status, e.parent_id
+            FROM event_closure c
+                     JOIN events e ON e.id = c.ancestor_id
+            WHERE c.descendant_id = :id
+              AND c.depth > 0
+            ORDER BY c.depth DESC
+            """;
+
+    private static final String SUBTREE_STATS_SQL = """
+            SELECT count(*)                                  AS event_count,
+                   coalesce(max(c.depth), 0)                 AS max_depth,
+                   min(e.start_time)                         AS first_start_time,
+                   max(coalesce(e.end_time, e.start_time))   AS last_end_time,
+                   (SELECT count(DISTINCT m.user_id)
+                    FROM event_closure mc
+                             JOIN event_members m ON m.event_id = mc.descendant_id
+                    WHERE mc.ancestor_id = :id)              AS member_count
+            FROM event_closure c
+                     JOIN events e ON e.id = c.descendant_id
+            WHERE c.ancestor_id = :id
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public EventTreeRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Узлы поддерева до глубины {@code depth} (корень — глубина 1) в порядке обхода в ширину;
+     * пусто, если корня нет
+     */
+    public List<TreeRow> findSubtree(Long rootId, int depth) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("id", rootId)
+                .addValue("depth", depth);
+        return jdbcTemplate.query(SUBTREE_SQL, params, ROW_MAPPER);
+    }
+
+    /**
+     * Идентификаторы мероприятия и всех его подмероприятий; пусто, если мероприятия нет
+     */
+    public List<Long> findSubtreeIds(Long rootId) {
+        return jdbcTemplate.queryForList(SUBTREE_IDS_SQL, new MapSqlParameterSource("id", rootId), Long.class);
+    }
+
+    /**
+     * Является ли {@code ancestorId} самим {@code nodeId} или одним из его предков
+     */
+    public boolean isAncestorOrSelf(Long ancestorId, Long nodeId) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("ancestorId", ancestorId)
+                .addValue("nodeId", nodeId);
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(IS_ANCESTOR_OR_SELF_SQL, params, Boolean.class));
+    }
+
+    /**
+     * Все подмероприятия на глубине от 1 до {@code maxDepth} по уровням
+     */
+    public List<EventCardDto> findDescendants(Long eventId, int maxDepth) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("id", eventId)
+                .addValue("maxDepth", maxDepth);
+        return jdbcTemplate.query(DESCENDANTS_SQL, params, EventFeedRepository.ROW_MAPPER);
+    }
+
+    /**
+     * Предки мероприятия от корня дерева к непосредственному родителю
+     */
+    public List<EventCardDto> findAncestors(Long eventId) {
+        return jdbcTemplate.query(ANCESTORS_SQL, new MapSqlParameterSource("id", eventId), EventFeedRepository.ROW_MAPPER);
+    }
+
+    /**
+     * Сводка по поддереву; пусто, если мероприятия нет
+     */
+    public Optional<EventSubtreeStatsDto> findSubtreeStats(Long eventId) {
+        EventSubtreeStatsDto stats = jdbcTemplate.queryForObject(SUBTREE_STATS_SQL,
+                new MapSqlParameterSource("id", eventId), (rs, rowNum) -> {
+                    EventSubtreeStatsDto dto = new EventSubtreeStatsDto();
+                    dto.setEventId(eventId);
+                    dto.setEventCount(rs.getLong("event_count"));
+                    dto.setMaxDepth(rs.getInt("max_depth"));
+                    dto.setMemberCount(rs.getLong("member_count"));
+                    dto.setFirstStartTime(rs.getObject("first_start_time", OffsetDateTime.class));
+                    dto.setLastEndTime(rs.getObject("last_end_time", OffsetDateTime.class));
+                    return dto;
+                });
+        return Optional.ofNullable(stats).filter(dto -> dto.getEventCount() > 0);
+    }
+
+    private static final RowMapper<TreeRow> ROW_MAPPER = (rs, rowNum) -> new TreeRow(
+            rs.getLong("id"),
+            rs.getObject("parent_id", Long.class),
+            rs.getString("title"),
+            rs.getObject("start_time", OffsetDateTime.class),
+            rs.getInt("depth"));
+
+    public record TreeRow(Long id, Long parentId, String title, OffsetDateTime startTime, int depth) {
+    }
+}
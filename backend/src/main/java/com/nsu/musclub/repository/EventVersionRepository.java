@@ -0,0 +1,57 @@
+package com.nsu.musclub.repository;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Версии мероприятий для условных GET. Читаются только строки events (версию поднимают триггеры V20),
+ * вложенные таблицы не затрагиваются.
+ */
+@Repository
+public class EventVersionRepository {
+
+    private static final String VERSION_SQL = """
+            SELECT version
+            FROM events
+            WHERE id = :id
+            """;
+
+    /**
+     * Отпечаток дерева: идентификаторы и версии узлов до заданной глубины.
+     * Меняется при изменении любого узла, а также при присоединении или отсоединении подмероприятия.
+     */
+    private static final String TREE_VERSION_SQL = """
+            SELECT md5(string_agg(e.id || ':' || e.version, ',' ORDER BY e.id))
+            FROM event_closure c
+                     JOIN events e ON e.id = c.descendant_id
+            WHERE c.ancestor_id = :id
+              AND c.depth < :depth
+            HAVING count(*) > 0
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public EventVersionRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Optional<Long> findVersion(Long eventId) {
+        List<Long> versions = jdbcTemplate.queryForList(VERSION_SQL, new MapSqlParameterSource("id", eventId), Long.class);
+        return versions.stream().findFirst();
+    }
+
+    /**
+     * Отпечаток дерева мероприятия глубиной {@code depth}; пусто, если мероприятия нет
+     */
+    public Optional<String> findTreeVersion(Long eventId, int depth) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("id", eventId)
+                .addValue("depth", depth);
+        List<String> versions = jdbcTemplate.queryForList(TREE_VERSION_SQL, params, String.class);
+        return versions.stream().findFirst();
+    }
+}
@@ -0,0 +1,79 @@
+package com.nsu.musclub.repository;
+
+import com.nsu.musclub.domain.EventNotification.Status;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Пакетная запись журнала доставок через JDBC.
+ * При массовой рассылке строки журнала пишутся одним batch-запросом вместо сохранения сущностей по одной.
+ */
+@Repository
+public class NotificationDeliveryBatchRepository {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO notification_deliveries (notification_id, user_id, status, delivered_at, error_message, retryable)
+            VALUES (:notificationId, :userId, :status, :deliveredAt, :errorMessage, :retryable)
+            ON CONFLICT (notification_id, user_id) DO UPDATE
+                SET status        = EXCLUDED.status,
+                    delivered_at  = EXCLUDED.delivered_at,
+                    error_message = EXCLUDED.error_message,
+                    retryable     = EXCLUDED.retryable
+            """;
+
+    private static final String SETTLED_USERS_SQL = """
+            SELECT user_id
+            FROM notification_deliveries
+            WHERE notification_id = :notificationId
+              AND (status = 'SENT' OR NOT retryable)
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public NotificationDeliveryBatchRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Записать (или обновить при повторной попытке) результаты доставки
+     */
+    public void upsertAll(List<DeliveryRecord> records) {
+        for (int from = 0; from < records.size(); from += BATCH_SIZE) {
+            List<DeliveryRecord> chunk = records.subList(from, Math.min(from + BATCH_SIZE, records.size()));
+            SqlParameterSource[] batch = chunk.stream()
+                    .map(record -> new MapSqlParameterSource()
+                            .addValue("notificationId", record.notificationId())
+                            .addValue("userId", record.userId())
+                            .addValue("status", record.status().name())
+                            .addValue("deliveredAt", record.deliveredAt())
+                            .addValue("errorMessage", record.errorMessage())
+                            .addValue("retryable", record.retryable()))
+                    .toArray(SqlParameterSource[]::new);
+            jdbcTemplate.batchUpdate(UPSERT_SQL, batch);
+        }
+    }
+
+    /**
+     * Пользователи, для которых рассылка завершена: уведомление доставлено или ошибка не временная
+     */
+    public Set<Long> findSettledUserIds(Long notificationId) {
+        return new HashSet<>(jdbcTemplate.queryForList(SETTLED_USERS_SQL,
+                new MapSqlParameterSource("notificationId", notificationId), Long.class));
+    }
+
+    /**
+     * Результат доставки уведомления одному пользователю
+     */
+    public record DeliveryRecord(Long notificationId, Long userId, Status status,
+                                 OffsetDateTime deliveredAt, String errorMessage, boolean retryable) {
+    }
+}
@@ -0,0 +1,7 @@
+package com.nsu.musclub.repository;
+
+import com.nsu.musclub.domain.NotificationDelivery;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface NotificationDeliveryRepository extends JpaRepository<NotificationDelivery, Long> {
+}
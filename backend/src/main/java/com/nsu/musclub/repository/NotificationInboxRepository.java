@@ -0,0 +1,159 @@
+package com.nsu.musclub.repository;
+
+import com.nsu.musclub.domain.EventNotification.NotificationType;
+import com.nsu.musclub.domain.EventNotification.Status;
+import com.nsu.musclub.dto.page.KeysetCursor;
+import com.nsu.musclub.dto.push.NotificationResponseDto;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Входящие уведомления пользователя (журнал доставок) одним запросом вместе с названием мероприятия.
+ * Страницы читаются по курсору (delivered_at, id) по индексу
+ * idx_notification_deliveries_user_delivered_id, без подсчёта общего количества.
+ */
+@Repository
+public class NotificationInboxRepository {
+
+    private static final String PAGE_SQL = """
+            SELECT d.id            AS delivery_id,
+                   d.user_id,
+                   d.status,
+                   d.delivered_at,
+                   d.error_message AS delivery_error,
+                   d.read_at,
+                   n.id,
+                   n.send_at,
+                   n.notification_type,
+                   n.title,
+                   n.body,
+                   n.action_url,
+                   n.retry_count,
+                   n.created_at,
+                   e.id            AS event_id,
+                   e.title         AS event_title
+            FROM notification_deliveries d
+                     JOIN event_notifications n ON n.id = d.notification_id
+                     JOIN events e ON e.id = n.event_id
+            WHERE d.user_id = :userId %s
+            ORDER BY d.delivered_at DESC, d.id DESC
+            LIMIT :limit
+            """;
+
+    private static final String FIRST_PAGE_SQL = PAGE_SQL.formatted("");
+
+    private static final String NEXT_PAGE_SQL = PAGE_SQL.formatted("AND (d.delivered_at, d.id) < (:afterAt, :afterId)");
+
+    private static final String COUNT_UNREAD_SQL = """
+            SELECT count(*)
+            FROM (SELECT 1
+                  FROM notification_deliveries
+                  WHERE user_id = :userId
+                    AND read_at IS NULL
+                    AND status = 'SENT'
+                  LIMIT :cap) unread
+            """;
+
+    private static final String MARK_ALL_READ_SQL = """
+            UPDATE notification_deliveries
+            SET read_at = :now
+            WHERE user_id = :userId
+              AND read_at IS NULL
+              AND status = 'SENT'
+            """;
+
+    private static final String MARK_READ_SQL = """
+            UPDATE notification_deliveries
+            SET read_at = :now
+            WHERE user_id = :userId
+              AND notification_id IN (:ids)
+              AND read_at IS NULL
+              AND status = 'SENT'
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public NotificationInboxRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Записи журнала пользователя после курсора (от новых к старым)
+     *
+     * @param after курсор предыдущей страницы или null для первой страницы
+     */
+    public List<InboxRow> findPage(Long userId, KeysetCursor after, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("limit", limit);
+        if (after == null) {
+            return jdbcTemplate.query(FIRST_PAGE_SQL, params, ROW_MAPPER);
+        }
+        params.addValue("afterAt", after.at())
+                .addValue("afterId", after.id());
+        return jdbcTemplate.query(NEXT_PAGE_SQL, params, ROW_MAPPER);
+    }
+
+    /**
+     * Количество непрочитанных доставленных уведомлений, но не больше {@code cap}
+     */
+    public long countUnread(Long userId, int cap) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("cap", cap);
+        Long count = jdbcTemplate.queryForObject(COUNT_UNREAD_SQL, params, Long.class);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Отметить прочитанными уведомления пользователя
+     *
+     * @param notificationIds уведомления; null — все непрочитанные
+     * @return количество отмеченных уведомлений
+     */
+    public int markRead(Long userId, Collection<Long> notificationIds) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("now", OffsetDateTime.now());
+        if (notificationIds == null) {
+            return jdbcTemplate.update(MARK_ALL_READ_SQL, params);
+        }
+        if (notificationIds.isEmpty()) {
+            return 0;
+        }
+        params.addValue("ids", notificationIds);
+        return jdbcTemplate.update(MARK_READ_SQL, params);
+    }
+
+    private static final RowMapper<InboxRow> ROW_MAPPER = (rs, rowNum) -> {
+        NotificationResponseDto dto = new NotificationResponseDto();
+        dto.setId(rs.getLong("id"));
+        dto.setEventId(rs.getLong("event_id"));
+        dto.setEventTitle(rs.getString("event_title"));
+        dto.setUserId(rs.getLong("user_id"));
+        dto.setSendAt(rs.getObject("send_at", OffsetDateTime.class));
+        dto.setSentAt(rs.getObject("delivered_at", OffsetDateTime.class));
+        dto.setStatus(Status.valueOf(rs.getString("status")));
+        dto.setNotificationType(NotificationType.valueOf(rs.getString("notification_type")));
+        dto.setTitle(rs.getString("title"));
+        dto.setBody(rs.getString("body"));
+        dto.setActionUrl(rs.getString("action_url"));
+        dto.setRetryCount(rs.getInt("retry_count"));
+        dto.setErrorMessage(rs.getString("delivery_error"));
+        dto.setCreatedAt(rs.getObject("created_at", OffsetDateTime.class));
+        dto.setReadAt(rs.getObject("read_at", OffsetDateTime.class));
+        return new InboxRow(dto, KeysetCursor.of(dto.getSentAt(), rs.getLong("delivery_id")));
+    };
+
+    /**
+     * Запись журнала и её позиция для курсора следующей страницы
+     */
+    public record InboxRow(NotificationResponseDto notification, KeysetCursor position) {
+    }
+}
@@ -0,0 +1,135 @@
+package com.nsu.musclub.repository;
+
+import com.nsu.musclub.dto.push.NotificationReceiptDto.Type;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Пакетная запись подтверждений показа и клика в журнал доставок.
+ * Сохраняется только первое подтверждение каждого вида; счётчики статистики обновляет триггер.
+ * <p>
+ * Подтверждение засчитывается, только если endpoint и секрет auth совпадают с активной подпиской:
+ * endpoint виден через API подписок, а auth знает лишь браузер, владеющий подпиской.
+ */
+@Repository
+public class NotificationReceiptRepository {
+
+    /**
+     * Вся пачка применяется одним UPDATE, чтобы statement-level триггер статистики срабатывал один раз.
+     * Подтверждения одной доставки заранее сворачиваются в одну строку: UPDATE ... FROM изменяет
+     * строку журнала только один раз, и показ с кликом из одной пачки иначе потеряли бы друг друга.
+     */
+    private static final String APPLY_SQL = """
+            WITH r AS (
+                SELECT notification_id,
+                       endpoint,
+                       auth_key,
+                       min(to_timestamp(occurred_ms / 1000.0))                               AS shown_at,
+                       min(to_timestamp(occurred_ms / 1000.0)) FILTER (WHERE type = 'CLICKED') AS clicked_at
+                FROM unnest(CAST(:notificationIds AS BIGINT[]), CAST(:endpoints AS TEXT[]),
+                            CAST(:authKeys AS TEXT[]), CAST(:types AS TEXT[]), CAST(:occurredAt AS BIGINT[]))
+                         AS u(notification_id, endpoint, auth_key, type, occurred_ms)
+                GROUP BY notification_id, endpoint, auth_key
+            )
+            UPDATE notification_deliveries d
+            SET shown_at   = coalesce(d.shown_at, greatest(r.shown_at, d.delivered_at)),
+                clicked_at = CASE
+                                 WHEN r.clicked_at IS NULL THEN d.clicked_at
+                                 ELSE coalesce(d.clicked_at, greatest(r.clicked_at, d.delivered_at)) END
+            FROM r
+                     JOIN push_subscriptions s
+                          ON s.endpoint = r.endpoint
+                              AND s.auth_key = r.auth_key
+                              AND s.active
+            WHERE d.user_id = s.user_id
+              AND d.notification_id = r.notification_id
+            RETURNING r.notification_id, r.endpoint, r.auth_key
+            """;
+
+    private static final String ACTIVE_SUBSCRIPTIONS_SQL = """
+            SELECT s.endpoint, s.auth_key
+            FROM push_subscriptions s
+                     JOIN unnest(CAST(:endpoints AS TEXT[]), CAST(:authKeys AS TEXT[])) AS k(endpoint, auth_key)
+                          ON k.endpoint = s.endpoint AND k.auth_key = s.auth_key
+            WHERE s.active
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public NotificationReceiptRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Применить подтверждения одним запросом
+     *
+     * @return ключи подтверждений, для которых нашлась запись доставки
+     */
+    public Set<ReceiptKey> applyAll(List<Receipt> receipts) {
+        if (receipts.isEmpty()) {
+            return Set.of();
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("notificationIds", receipts.stream().map(Receipt::notificationId).toArray(Long[]::new))
+                .addValue("endpoints", receipts.stream().map(Receipt::endpoint).toArray(String[]::new))
+                .addValue("authKeys", receipts.stream().map(Receipt::authKey).toArray(String[]::new))
+                .addValue("types", receipts.stream().map(receipt -> receipt.type().name()).toArray(String[]::new))
+                .addValue("occurredAt", receipts.stream()
+                        .map(receipt -> receipt.occurredAt().toInstant().toEpochMilli())
+                        .toArray(Long[]::new));
+        return new HashSet<>(jdbcTemplate.query(APPLY_SQL, params, (rs, rowNum) ->
+                new ReceiptKey(rs.getLong("notification_id"), rs.getString("endpoint"), rs.getString("auth_key"))));
+    }
+
+    /**
+     * Ключи из списка, endpoint и auth которых совпадают с активной подпиской
+     *
+     * @return найденные пары endpoint и auth; идентификатор уведомления в них не заполняется
+     */
+    public Set<ReceiptKey> findActiveSubscriptions(Collection<ReceiptKey> keys) {
+        if (keys.isEmpty()) {
+            return Set.of();
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("endpoints", keys.stream().map(ReceiptKey::endpoint).toArray(String[]::new))
+                .addValue("authKeys", keys.stream().map(ReceiptKey::authKey).toArray(String[]::new));
+        return new HashSet<>(jdbcTemplate.query(ACTIVE_SUBSCRIPTIONS_SQL, params, (rs, rowNum) ->
+                new ReceiptKey(null, rs.getString("endpoint"), rs.getString("auth_key"))));
+    }
+
+    /**
+     * Доставка, к которой относится подтверждение: уведомление и подписка получателя
+     */
+    public record ReceiptKey(Long notificationId, String endpoint, String authKey) {
+
+        public ReceiptKey subscription() {
+            return new ReceiptKey(null, endpoint, authKey);
+        }
+    }
+
+    /**
+     * Подтверждение, ожидающее записи
+     *
+     * @param authKey    секрет auth push-подписки, подтверждающий, что подтверждение прислал её владелец
+     * @param receivedAt момент получения сервером (epoch millis)
+     * @param attempts   сколько раз запись доставки не была найдена
+     */
+    public record Receipt(Long notificationId, String endpoint, String authKey, Type type,
+                          OffsetDateTime occurredAt, long receivedAt, int attempts) {
+
+        public ReceiptKey key() {
+            return new ReceiptKey(notificationId, endpoint, authKey);
+        }
+
+        public Receipt nextAttempt() {
+            return new Receipt(notificationId, endpoint, authKey, type, occurredAt, receivedAt, attempts + 1);
+        }
+    }
+}
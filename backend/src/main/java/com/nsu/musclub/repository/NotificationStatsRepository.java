@@ -0,0 +1,56 @@
+package com.nsu.musclub.repository;
+
+import com.nsu.musclub.dto.push.NotificationStatsDto;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Счётчики уведомлений мероприятия из event_notification_stats.
+ * Таблицу поддерживают триггеры event_notifications и notification_deliveries (V16),
+ * поэтому чтение статистики — одна строка по первичному ключу.
+ */
+@Repository
+public class NotificationStatsRepository {
+
+    private static final String FIND_SQL = """
+            SELECT pending, cancelled, sent, failed, shown, clicked, latency_count, latency_sum_ms, latency_max_ms
+            FROM event_notification_stats
+            WHERE event_id = :eventId
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public NotificationStatsRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Статистика мероприятия; нулевая, если уведомлений ещё не было
+     */
+    public NotificationStatsDto findByEventId(Long eventId) {
+        List<NotificationStatsDto> rows = jdbcTemplate.query(FIND_SQL, new MapSqlParameterSource("eventId", eventId), ROW_MAPPER);
+        return rows.isEmpty() ? new NotificationStatsDto() : rows.get(0);
+    }
+
+    private static final RowMapper<NotificationStatsDto> ROW_MAPPER = (rs, rowNum) -> {
+        NotificationStatsDto dto = new NotificationStatsDto();
+        dto.setPending(rs.getLong("pending"));
+        dto.setCancelled(rs.getLong("cancelled"));
+        dto.setSent(rs.getLong("sent"));
+        dto.setFailed(rs.getLong("failed"));
+        dto.setShown(rs.getLong("shown"));
+        dto.setClicked(rs.getLong("clicked"));
+        // pending/cancelled считают уведомления, sent/failed — доставки, поэтому общий итог только по доставкам
+        dto.setTotalDeliveries(dto.getSent() + dto.getFailed());
+        long latencyCount = rs.getLong("latency_count");
+        if (latencyCount > 0) {
+            dto.setAverageDeliveryLatencyMs(rs.getLong("latency_sum_ms") / latencyCount);
+            dto.setMaxDeliveryLatencyMs(rs.getLong("latency_max_ms"));
+        }
+        return dto;
+    };
+}
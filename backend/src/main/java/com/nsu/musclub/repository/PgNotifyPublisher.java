@@ -0,0 +1,35 @@
+package com.nsu.musclub.repository;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Отправка сообщений в каналы Postgres (NOTIFY).
+ * Сообщение отправляется в рамках текущей транзакции и доставляется слушателям только после её фиксации,
+ * при откате транзакции оно отбрасывается.
+ */
+@Repository
+public class PgNotifyPublisher {
+
+    /**
+     * Максимальный размер сообщения NOTIFY в Postgres — 8000 байт
+     */
+    public static final int MAX_PAYLOAD_LENGTH = 7900;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public PgNotifyPublisher(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void publish(String channel, String payload) {
+        if (payload.length() > MAX_PAYLOAD_LENGTH) {
+            throw new IllegalArgumentException("NOTIFY payload is too long: " + payload.length());
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("channel", channel)
+                .addValue("payload", payload);
+        jdbcTemplate.queryForList("SELECT pg_notify(:channel, :payload)", params);
+    }
+}
@@ -6,6 +6,8 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -40,6 +42,15 @@ public interface PushSubscriptionRepository extends JpaRepository<PushSubscripti
     @Query("UPDATE PushSubscription p SET p.active = false WHERE p.endpoint = :endpoint")
     void deactivateByEndpoint(@Param("endpoint") String endpoint);
 
+    /**
+     * Деактивировать подписки по списку идентификаторов
+     *
+     * @return количество деактивированных подписок
+     */
+    @Modifying
+    @Query("UPDATE PushSubscription p SET p.active = false, p.updatedAt = :now WHERE p.id IN :ids AND p.active = true")
+    int deactivateByIds(@Param("ids") Collection<Long> ids, @Param("now") OffsetDateTime now);
+
     /**
      * Получить все активные подписки для списка пользователей
      */
@@ -9,6 +9,7 @@ import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
@@ -110,6 +111,11 @@ public class SearchRepository {
             WHERE entity_type = :entityType AND entity_id = :entityId
             """;
 
+    private static final String DELETE_ALL_SQL = """
+            DELETE FROM search_documents
+            WHERE entity_type = :entityType AND entity_id IN (:entityIds)
+            """;
+
     private final NamedParameterJdbcTemplate jdbc;
 
     public SearchRepository(NamedParameterJdbcTemplate jdbc) {
@@ -178,5 +184,15 @@ public class SearchRepository {
                 .addValue("entityId", entityId);
         jdbc.update(DELETE_SQL, params);
     }
+
+    public void deleteDocuments(SearchEntityType type, Collection<Long> entityIds) {
+        if (entityIds.isEmpty()) {
+            return;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("entityType", type.name())
+                .addValue("entityIds", entityIds);
+        jdbc.update(DELETE_ALL_SQL, params);
+    }
 }
 
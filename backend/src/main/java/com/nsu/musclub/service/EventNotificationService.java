@@ -1,10 +1,11 @@
 package com.nsu.musclub.service;
 
+import com.nsu.musclub.dto.page.CursorPageDto;
 import com.nsu.musclub.dto.push.EventNotificationSettingsDto;
+import com.nsu.musclub.dto.push.FanoutJobDto;
 import com.nsu.musclub.dto.push.NotificationResponseDto;
 import com.nsu.musclub.dto.push.NotificationStatsDto;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import com.nsu.musclub.dto.push.UnreadNotificationsDto;
 
 import java.util.List;
 
@@ -16,15 +17,51 @@ public interface EventNotificationService {
 
     int cancelNotificationsForEvent(Long eventId);
 
-    int sendImmediateNotification(Long eventId, String title, String body);
+    /**
+     * Запланировать напоминания для мероприятия и всех его подмероприятий.
+     * Мероприятия без времени начала пропускаются.
+     *
+     * @param settings набор напоминаний; null — все стандартные
+     * @return количество созданных уведомлений
+     */
+    int scheduleNotificationsForSubtree(Long rootId, EventNotificationSettingsDto settings);
 
-    Page<NotificationResponseDto> getNotificationsForUser(Long userId, Pageable pageable);
+    /**
+     * Отменить ожидающие уведомления мероприятия и всех его подмероприятий
+     *
+     * @return количество отменённых уведомлений
+     */
+    int cancelNotificationsForSubtree(Long rootId);
+
+    FanoutJobDto sendImmediateNotification(Long eventId, String title, String body);
+
+    /**
+     * Журнал уведомлений пользователя от новых к старым, постранично по курсору
+     *
+     * @param cursor nextCursor предыдущей страницы или null для первой
+     */
+    CursorPageDto<NotificationResponseDto> getNotificationsForUser(Long userId, String cursor, Integer limit);
+
+    UnreadNotificationsDto countUnread(Long userId);
+
+    /**
+     * Отметить уведомления прочитанными
+     *
+     * @param notificationIds уведомления; null — все непрочитанные уведомления пользователя
+     * @return количество отмеченных уведомлений
+     */
+    int markNotificationsRead(Long userId, List<Long> notificationIds);
 
     List<NotificationResponseDto> getNotificationsForEvent(Long eventId);
 
     NotificationStatsDto getStatsForEvent(Long eventId);
 
-    int notifyEventUpdated(Long eventId);
+    /**
+     * Запланировать объединённое уведомление участников об изменении мероприятия
+     *
+     * @return ожидающее уведомление, в которое вошло это изменение
+     */
+    NotificationResponseDto notifyEventUpdated(Long eventId);
 
-    int notifyEventCancelled(Long eventId);
+    FanoutJobDto notifyEventCancelled(Long eventId);
 }
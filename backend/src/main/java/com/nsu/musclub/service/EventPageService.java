@@ -0,0 +1,24 @@
+package com.nsu.musclub.service;
+
+import com.nsu.musclub.dto.event.EventFullDto;
+
+import java.util.Collection;
+
+/**
+ * Данные страницы мероприятия одним запросом
+ */
+public interface EventPageService {
+
+    /**
+     * Мероприятие с выбранными разделами
+     *
+     * @param include разделы members, timeline, program, tree (без учёта регистра); null или пусто — все
+     * @param depth   глубина дерева подмероприятий
+     */
+    EventFullDto getFull(Long eventId, Collection<String> include, int depth);
+
+    /**
+     * ETag ответа {@link #getFull}: меняется при изменении мероприятия или, если запрошено дерево, любого его узла
+     */
+    String getFullVersion(Long eventId, Collection<String> include, int depth);
+}
@@ -1,20 +1,63 @@
 package com.nsu.musclub.service;
 
+import com.nsu.musclub.dto.event.EventCardDto;
 import com.nsu.musclub.dto.event.EventCreateDto;
+import com.nsu.musclub.dto.event.EventMemberImportDto;
+import com.nsu.musclub.dto.event.EventMemberImportResultDto;
 import com.nsu.musclub.dto.event.EventMemberResponseDto;
 import com.nsu.musclub.dto.event.EventMemberUpsertDto;
 import com.nsu.musclub.dto.event.EventResponseDto;
+import com.nsu.musclub.dto.event.EventSubtreeStatsDto;
 import com.nsu.musclub.dto.event.EventTreeNodeDto;
+import com.nsu.musclub.dto.page.CursorPageDto;
 
 import java.util.List;
 
 public interface EventRelationService {
     List<EventMemberResponseDto> listMembers(Long eventId);
+
+    /**
+     * Участники мероприятия в порядке добавления с keyset-пагинацией
+     *
+     * @param role   только участники с этой ролью; null — все
+     * @param search подстрока имени пользователя; null — без поиска
+     * @param cursor курсор предыдущей страницы или null для первой
+     * @param limit  размер страницы; null — по умолчанию
+     */
+    CursorPageDto<EventMemberResponseDto> listMembers(Long eventId, String role, String search, String cursor, Integer limit);
+
     EventMemberResponseDto upsertMember(Long eventId, EventMemberUpsertDto dto);
     void removeMember(Long eventId, Long userId);
 
+    /**
+     * Добавить участников списком или сменить им роль. Ошибочные строки пропускаются,
+     * остальные записываются одним запросом.
+     *
+     * @return итог по каждой строке в порядке запроса
+     */
+    EventMemberImportResultDto importMembers(Long eventId, EventMemberImportDto dto);
+
     EventResponseDto createSubEvent(Long parentId, EventCreateDto dto);
     void attachChild(Long parentId, Long childId);
     void detachChild(Long parentId, Long childId);
     EventTreeNodeDto getTree(Long eventId, int depth);
+
+    /**
+     * Отпечаток дерева мероприятия той же глубины, что и {@link #getTree(Long, int)}
+     */
+    String getTreeVersion(Long eventId, int depth);
+
+    /**
+     * Все подмероприятия по уровням
+     *
+     * @param depth наибольшая глубина относительно мероприятия; null — всё поддерево
+     */
+    List<EventCardDto> getDescendants(Long eventId, Integer depth);
+
+    /**
+     * Предки мероприятия от корня дерева к непосредственному родителю
+     */
+    List<EventCardDto> getAncestors(Long eventId);
+
+    EventSubtreeStatsDto getSubtreeStats(Long eventId);
 }
@@ -1,6 +1,8 @@
 package com.nsu.musclub.service;
 
+import com.nsu.musclub.domain.EventStatus;
 import com.nsu.musclub.dto.event.*;
+import com.nsu.musclub.dto.page.CursorPageDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -9,9 +11,40 @@ public interface EventService {
 
     EventResponseDto get(Long id);
 
-    Page<EventResponseDto> list(Pageable pageable);
+    /**
+     * Текущая версия мероприятия: меняется при изменении мероприятия, его участников, таймплана и программы
+     */
+    long getVersion(Long id);
+
+    default Page<EventResponseDto> list(Pageable pageable) {
+        return list(new EventFilterDto(), pageable);
+    }
+
+    Page<EventResponseDto> list(EventFilterDto filter, Pageable pageable);
+
+    /**
+     * Лента карточек мероприятий с keyset-пагинацией
+     *
+     * @param cursor курсор предыдущей страницы или null для первой
+     * @param limit  размер страницы; null — по умолчанию
+     */
+    CursorPageDto<EventCardDto> feed(String cursor, Integer limit);
 
     EventResponseDto update(Long id, EventUpdateDto dto);
 
     void delete(Long id);
+
+    /**
+     * Установить статус мероприятию и всем его подмероприятиям одним запросом
+     *
+     * @return количество мероприятий, статус которых изменился
+     */
+    int updateSubtreeStatus(Long rootId, EventStatus status);
+
+    /**
+     * Удалить мероприятие вместе со всеми подмероприятиями одним запросом
+     *
+     * @return количество удалённых мероприятий
+     */
+    int deleteSubtree(Long rootId);
 }
@@ -0,0 +1,15 @@
+package com.nsu.musclub.service;
+
+import com.nsu.musclub.dto.push.FanoutJobDto;
+import com.nsu.musclub.dto.push.PushMessageDto;
+
+public interface NotificationFanoutService {
+
+    /**
+     * Поставить уведомление мероприятия в очередь на рассылку участникам.
+     * Рассылка начинается после фиксации текущей транзакции.
+     */
+    FanoutJobDto submit(Long notificationId, Long eventId, PushMessageDto message);
+
+    FanoutJobDto getJob(String jobId);
+}
@@ -0,0 +1,13 @@
+package com.nsu.musclub.service;
+
+import com.nsu.musclub.dto.push.NotificationReceiptDto;
+
+public interface NotificationReceiptService {
+
+    /**
+     * Принять подтверждение показа или клика; запись выполняется асинхронно пачками
+     *
+     * @return false, если буфер переполнен и подтверждение отброшено
+     */
+    boolean record(NotificationReceiptDto receipt);
+}
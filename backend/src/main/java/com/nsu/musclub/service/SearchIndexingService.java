@@ -3,6 +3,8 @@ package com.nsu.musclub.service;
 import com.nsu.musclub.domain.Event;
 import com.nsu.musclub.domain.User;
 
+import java.util.Collection;
+
 public interface SearchIndexingService {
     void indexEvent(Event event);
 
@@ -10,6 +12,8 @@ public interface SearchIndexingService {
 
     void removeEvent(Long eventId);
 
+    void removeEvents(Collection<Long> eventIds);
+
     void removeUser(Long userId);
 
     void rebuildIndex();
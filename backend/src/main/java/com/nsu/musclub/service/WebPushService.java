@@ -1,7 +1,12 @@
 package com.nsu.musclub.service;
 
-import com.nsu.musclub.domain.PushSubscription;
+import com.nsu.musclub.dto.push.ActivePushSubscription;
+import com.nsu.musclub.dto.push.EncodedPushMessage;
+import com.nsu.musclub.dto.push.PushDeliveryResult;
 import com.nsu.musclub.dto.push.PushMessageDto;
+import com.nsu.musclub.dto.push.PushOriginHealthDto;
+
+import java.util.List;
 
 /**
  * Сервис отправки Web Push уведомлений
@@ -15,7 +20,24 @@ public interface WebPushService {
      * @param message содержимое уведомления
      * @return true если отправлено успешно
      */
-    boolean sendPushNotification(PushSubscription subscription, PushMessageDto message);
+    boolean sendPushNotification(ActivePushSubscription subscription, PushMessageDto message);
+
+    /**
+     * Подготовить содержимое уведомления для отправки. Сообщение сериализуется один раз
+     * и может быть отправлено на любое число подписок.
+     *
+     * @param message содержимое уведомления (не изменяется)
+     */
+    EncodedPushMessage encode(PushMessageDto message);
+
+    /**
+     * Отправить подготовленное push-уведомление на конкретную подписку
+     *
+     * @param subscription подписка пользователя
+     * @param message подготовленное содержимое уведомления
+     * @return результат отправки с классификацией ошибки (временная / постоянная)
+     */
+    PushDeliveryResult sendPushNotification(ActivePushSubscription subscription, EncodedPushMessage message);
 
     /**
      * Отправить push-уведомление всем подпискам пользователя
@@ -30,4 +52,9 @@ public interface WebPushService {
      * Получить VAPID публичный ключ для клиента
      */
     String getVapidPublicKey();
+
+    /**
+     * Состояние push-сервисов: задержки, доля ошибок и состояние circuit breaker
+     */
+    List<PushOriginHealthDto> getOriginHealth();
 }
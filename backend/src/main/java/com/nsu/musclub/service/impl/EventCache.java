@@ -0,0 +1,162 @@
+package com.nsu.musclub.service.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Кэш чтения мероприятий: eventId → мероприятие, его версия, участники, таймплан и программа.
+ * Размер ограничен {@code events.cache.max-entries}, при переполнении вытесняются давно не читавшиеся
+ * мероприятия. Записи сбрасываются сервисами, изменяющими мероприятие, сразу и после фиксации транзакции,
+ * а на всех узлах — по каналу {@value #CHANNEL}, в который пишет триггер V21 при любом изменении версии
+ * мероприятия (в том числе из пакетных операций и при изменении пользователей).
+ * Загрузка, параллельная инвалидации, в кэш не попадает; после переподключения слушателя кэш
+ * очищается целиком, а время жизни записи ограничено {@code events.cache.ttl-seconds}.
+ * <p>
+ * Кэшированные значения общие для всех читателей и не должны изменяться.
+ */
+@Component
+public class EventCache {
+
+    private static final Logger log = LoggerFactory.getLogger(EventCache.class);
+
+    /**
+     * Канал Postgres с идентификатором изменённого или удалённого мероприятия
+     */
+    public static final String CHANNEL = "event_changed";
+
+    public enum Section {
+        EVENT, VERSION, MEMBERS, TIMELINE, PROGRAM
+    }
+
+    private final Map<Long, Entry> cache;
+
+    /**
+     * Увеличивается при каждой инвалидации; загрузка, начатая до неё, не кэшируется
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final long ttlMillis;
+
+    public EventCache(PgNotificationListener listener,
+                      @Value("${events.cache.max-entries:1000}") int maxEntries,
+                      @Value("${events.cache.ttl-seconds:300}") long ttlSeconds) {
+        int capacity = Math.max(1, maxEntries);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+        this.ttlMillis = ttlSeconds * 1000;
+
+        listener.subscribe(CHANNEL, this::onRemoteChange);
+        listener.onReconnect(this::invalidateAll);
+    }
+
+    /**
+     * Значение раздела мероприятия из кэша или из {@code loader}.
+     * Внутри пишущей транзакции кэш не заполняется: она может увидеть ещё не зафиксированные данные.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(Long eventId, Section section, Supplier<T> loader) {
+        long now = System.currentTimeMillis();
+        synchronized (cache) {
+            Entry entry = cache.get(eventId);
+            if (entry != null && entry.expiresAt() > now && entry.values().containsKey(section)) {
+                return (T) entry.values().get(section);
+            }
+        }
+
+        long loadGeneration = generation.get();
+        T value = loader.get();
+        if (value instanceof List<?> list) {
+            value = (T) List.copyOf(list);
+        }
+        if (isWritingTransaction()) {
+            return value;
+        }
+        synchronized (cache) {
+            if (generation.get() == loadGeneration) {
+                Entry entry = cache.get(eventId);
+                if (entry == null || entry.expiresAt() <= now) {
+                    entry = new Entry(new EnumMap<>(Section.class), now + ttlMillis);
+                    cache.put(eventId, entry);
+                }
+                entry.values().put(section, value);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Сбросить записи мероприятий сейчас и после фиксации текущей транзакции.
+     * Остальные узлы получают изменение через триггер БД.
+     */
+    public void invalidate(Long... eventIds) {
+        invalidate(List.of(eventIds));
+    }
+
+    public void invalidate(Collection<Long> eventIds) {
+        List<Long> ids = List.copyOf(eventIds);
+        evict(ids);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Читатель мог загрузить старое состояние до фиксации — сбрасываем ещё раз после неё
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(ids);
+                }
+            });
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (cache) {
+            generation.incrementAndGet();
+            cache.clear();
+        }
+        log.debug("Кэш мероприятий очищен");
+    }
+
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private void evict(List<Long> eventIds) {
+        synchronized (cache) {
+            generation.incrementAndGet();
+            eventIds.forEach(cache::remove);
+        }
+    }
+
+    private void onRemoteChange(String payload) {
+        try {
+            evict(List.of(Long.parseLong(payload.trim())));
+        } catch (RuntimeException e) {
+            log.warn("Некорректное сообщение канала {}: {}", CHANNEL, payload);
+            invalidateAll();
+        }
+    }
+
+    private static boolean isWritingTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    private record Entry(Map<Section, Object> values, long expiresAt) {
+    }
+}
@@ -2,26 +2,35 @@ package com.nsu.musclub.service.impl;
 
 import com.nsu.musclub.config.PushNotificationConfig;
 import com.nsu.musclub.domain.Event;
-import com.nsu.musclub.domain.EventMember;
 import com.nsu.musclub.domain.EventNotification;
 import com.nsu.musclub.domain.EventNotification.NotificationType;
 import com.nsu.musclub.domain.EventNotification.Status;
-import com.nsu.musclub.domain.User;
+import com.nsu.musclub.dto.page.CursorPageDto;
+import com.nsu.musclub.dto.page.KeysetCursor;
 import com.nsu.musclub.dto.push.EventNotificationSettingsDto;
+import com.nsu.musclub.dto.push.FanoutJobDto;
 import com.nsu.musclub.dto.push.NotificationResponseDto;
 import com.nsu.musclub.dto.push.NotificationStatsDto;
 import com.nsu.musclub.dto.push.PushMessageDto;
+import com.nsu.musclub.dto.push.UnreadNotificationsDto;
 import com.nsu.musclub.exception.BadRequestException;
 import com.nsu.musclub.exception.ResourceNotFoundException;
-import com.nsu.musclub.repository.EventMemberRepository;
+import com.nsu.musclub.repository.EventNotificationBatchRepository;
+import com.nsu.musclub.repository.EventNotificationBatchRepository.PendingKey;
+import com.nsu.musclub.repository.EventNotificationClaimRepository.UpcomingNotification;
 import com.nsu.musclub.repository.EventNotificationRepository;
 import com.nsu.musclub.repository.EventRepository;
+import com.nsu.musclub.repository.NotificationInboxRepository;
+import com.nsu.musclub.repository.NotificationInboxRepository.InboxRow;
+import com.nsu.musclub.repository.NotificationStatsRepository;
+import com.nsu.musclub.repository.PgNotifyPublisher;
 import com.nsu.musclub.service.EventNotificationService;
-import com.nsu.musclub.service.WebPushService;
+import com.nsu.musclub.service.NotificationFanoutService;
+import com.nsu.musclub.service.impl.NotificationTimer.NotificationsCancelled;
+import com.nsu.musclub.service.impl.NotificationTimer.NotificationsScheduled;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -30,6 +39,7 @@ import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 
 @Service
 @Transactional
@@ -38,31 +48,47 @@ public class EventNotificationServiceImpl implements EventNotificationService {
     private static final Logger log = LoggerFactory.getLogger(EventNotificationServiceImpl.class);
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("d MMMM yyyy, HH:mm", new Locale("ru"));
 
+    private static final int DEFAULT_INBOX_PAGE_SIZE = 20;
+    private static final int MAX_INBOX_PAGE_SIZE = 100;
+
+    /**
+     * Точное число непрочитанных сверх этого значения клиенту не нужно («99+»)
+     */
+    private static final int UNREAD_COUNT_CAP = 100;
+
     private final EventNotificationRepository notificationRepository;
+    private final EventNotificationBatchRepository batchRepository;
+    private final NotificationInboxRepository inboxRepository;
+    private final NotificationStatsRepository statsRepository;
     private final EventRepository eventRepository;
-    private final EventMemberRepository eventMemberRepository;
-    private final WebPushService webPushService;
+    private final NotificationFanoutService fanoutService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PgNotifyPublisher notifyPublisher;
     private final PushNotificationConfig config;
 
     public EventNotificationServiceImpl(EventNotificationRepository notificationRepository,
+                                        EventNotificationBatchRepository batchRepository,
+                                        NotificationInboxRepository inboxRepository,
+                                        NotificationStatsRepository statsRepository,
                                         EventRepository eventRepository,
-                                        EventMemberRepository eventMemberRepository,
-                                        WebPushService webPushService,
+                                        NotificationFanoutService fanoutService,
+                                        ApplicationEventPublisher eventPublisher,
+                                        PgNotifyPublisher notifyPublisher,
                                         PushNotificationConfig config) {
         this.notificationRepository = notificationRepository;
+        this.batchRepository = batchRepository;
+        this.inboxRepository = inboxRepository;
+        this.statsRepository = statsRepository;
         this.eventRepository = eventRepository;
-        this.eventMemberRepository = eventMemberRepository;
-        this.webPushService = webPushService;
+        this.fanoutService = fanoutService;
+        this.eventPublisher = eventPublisher;
+        this.notifyPublisher = notifyPublisher;
         this.config = config;
     }
 
     @Override
     public int scheduleNotificationsForEvent(Long eventId) {
-        EventNotificationSettingsDto defaultSettings = new EventNotificationSettingsDto();
-        defaultSettings.setReminder24h(true);
-        defaultSettings.setReminder2h(true);
-        defaultSettings.setReminder15min(true);
-        return scheduleNotificationsForEvent(eventId, defaultSettings);
+        return scheduleNotificationsForEvent(eventId, defaultSettings());
     }
 
     @Override
@@ -74,93 +100,125 @@ public class EventNotificationServiceImpl implements EventNotificationService {
             throw new BadRequestException("Для планирования уведомлений необходимо указать время начала мероприятия");
         }
 
-        List<EventMember> members = eventMemberRepository.findByEvent_Id(eventId);
-        if (members.isEmpty()) {
-            log.info("Нет участников для мероприятия id={}, уведомления не созданы", eventId);
-            return 0;
-        }
-
         OffsetDateTime now = OffsetDateTime.now();
         List<ReminderConfig> reminders = buildReminderConfigs(event.getStartTime(), now, settings);
 
-        int totalCreated = 0;
-        for (EventMember member : members) {
-            User user = member.getUser();
-            for (ReminderConfig reminder : reminders) {
-                if (!notificationRepository.existsByEventIdAndUserIdAndNotificationTypeAndStatus(
-                        eventId, user.getId(), reminder.type, Status.PENDING)) {
+        List<UpcomingNotification> created = new ArrayList<>();
+        for (ReminderConfig reminder : reminders) {
+            if (!notificationRepository.existsByEventIdAndNotificationTypeAndSendAtAndStatus(
+                    eventId, reminder.type, reminder.sendAt, Status.PENDING)) {
 
-                    EventNotification notification = createNotification(event, user, reminder);
-                    notificationRepository.save(notification);
-                    totalCreated++;
-                }
+                EventNotification notification = notificationRepository.save(createNotification(event, reminder));
+                created.add(new UpcomingNotification(notification.getId(), notification.getNextAttemptAt()));
             }
         }
 
-        log.info("Запланировано {} уведомлений для мероприятия id={}", totalCreated, eventId);
-        return totalCreated;
+        if (!created.isEmpty()) {
+            onScheduled(created, now);
+        }
+        log.info("Запланировано {} уведомлений для мероприятия id={}", created.size(), eventId);
+        return created.size();
     }
 
     @Override
     public int cancelNotificationsForEvent(Long eventId) {
-        int cancelled = notificationRepository.cancelPendingByEventId(eventId);
+        OffsetDateTime now = OffsetDateTime.now();
+        List<Long> pendingIds = notificationRepository.findPendingIdsByEventId(eventId, now);
+        int cancelled = notificationRepository.cancelPendingByEventId(eventId, now);
+        if (!pendingIds.isEmpty()) {
+            eventPublisher.publishEvent(new NotificationsCancelled(pendingIds));
+        }
         log.info("Отменено {} уведомлений для мероприятия id={}", cancelled, eventId);
         return cancelled;
     }
 
+    /**
+     * Подмероприятия и уже ожидающие напоминания поддерева читаются одним запросом каждые,
+     * новые напоминания вставляются пакетами.
+     */
     @Override
-    public int sendImmediateNotification(Long eventId, String title, String body) {
-        Event event = eventRepository.findById(eventId)
-                .orElseThrow(() -> new ResourceNotFoundException("Мероприятие", eventId));
-
-        List<EventMember> members = eventMemberRepository.findByEvent_Id(eventId);
-        if (members.isEmpty()) {
-            return 0;
+    public int scheduleNotificationsForSubtree(Long rootId, EventNotificationSettingsDto settings) {
+        List<Event> subtree = eventRepository.findSubtree(rootId);
+        if (subtree.isEmpty()) {
+            throw new ResourceNotFoundException("Мероприятие", rootId);
         }
+        EventNotificationSettingsDto effectiveSettings = settings != null ? settings : defaultSettings();
 
-        int sentCount = 0;
-        for (EventMember member : members) {
-            PushMessageDto message = PushMessageDto.builder()
-                    .title(title)
-                    .body(body)
-                    .tag("event-" + eventId + "-immediate")
-                    .actionUrl("/events/" + eventId)
-                    .build();
-
-            int sent = webPushService.sendPushToUser(member.getUser().getId(), message);
-            if (sent > 0) {
-                // Сохраняем запись об отправленном уведомлении
-                EventNotification notification = new EventNotification();
-                notification.setEvent(event);
-                notification.setUser(member.getUser());
-                notification.setNotificationType(NotificationType.CUSTOM);
-                notification.setTitle(title);
-                notification.setBody(body);
-                notification.setActionUrl("/events/" + eventId);
-                notification.setSendAt(OffsetDateTime.now());
-                notification.setSentAt(OffsetDateTime.now());
-                notification.setStatus(Status.SENT);
-                notificationRepository.save(notification);
-
-                sentCount++;
+        OffsetDateTime now = OffsetDateTime.now();
+        Set<PendingKey> pending = batchRepository.findPendingKeys(rootId);
+        List<EventNotification> notifications = new ArrayList<>();
+        for (Event event : subtree) {
+            if (event.getStartTime() == null) {
+                continue;
+            }
+            for (ReminderConfig reminder : buildReminderConfigs(event.getStartTime(), now, effectiveSettings)) {
+                if (pending.add(new PendingKey(event.getId(), reminder.type, reminder.sendAt.toInstant()))) {
+                    notifications.add(createNotification(event, reminder));
+                }
             }
         }
 
-        log.info("Отправлено {} немедленных уведомлений для мероприятия id={}", sentCount, eventId);
-        return sentCount;
+        List<UpcomingNotification> created = batchRepository.insertAll(notifications);
+        if (!created.isEmpty()) {
+            onScheduled(created, now);
+        }
+        log.info("Запланировано {} уведомлений для {} мероприятий поддерева id={}", created.size(), subtree.size(), rootId);
+        return created.size();
+    }
+
+    @Override
+    public int cancelNotificationsForSubtree(Long rootId) {
+        if (!eventRepository.existsById(rootId)) {
+            throw new ResourceNotFoundException("Мероприятие", rootId);
+        }
+        List<Long> cancelledIds = batchRepository.cancelPending(rootId);
+        if (!cancelledIds.isEmpty()) {
+            eventPublisher.publishEvent(new NotificationsCancelled(cancelledIds));
+        }
+        log.info("Отменено {} уведомлений поддерева мероприятия id={}", cancelledIds.size(), rootId);
+        return cancelledIds.size();
+    }
+
+    @Override
+    public FanoutJobDto sendImmediateNotification(Long eventId, String title, String body) {
+        Event event = eventRepository.findById(eventId)
+                .orElseThrow(() -> new ResourceNotFoundException("Мероприятие", eventId));
+
+        PushMessageDto message = PushMessageDto.builder()
+                .title(title)
+                .body(body)
+                .tag("event-" + eventId + "-immediate")
+                .actionUrl("/events/" + eventId)
+                .build();
+
+        return sendNow(event, title, body, NotificationType.CUSTOM, message);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Page<NotificationResponseDto> getNotificationsForUser(Long userId, Pageable pageable) {
-        return notificationRepository.findByUserIdOrderBySendAtDesc(userId, pageable)
-                .map(this::toResponseDto);
+    public CursorPageDto<NotificationResponseDto> getNotificationsForUser(Long userId, String cursor, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_INBOX_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_INBOX_PAGE_SIZE));
+        List<InboxRow> rows = inboxRepository.findPage(userId, KeysetCursor.decode(cursor), pageSize + 1);
+        CursorPageDto<InboxRow> page = CursorPageDto.of(rows, pageSize, InboxRow::position);
+        return new CursorPageDto<>(page.getItems().stream().map(InboxRow::notification).toList(), page.getNextCursor());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public UnreadNotificationsDto countUnread(Long userId) {
+        long count = inboxRepository.countUnread(userId, UNREAD_COUNT_CAP);
+        return new UnreadNotificationsDto(count, count >= UNREAD_COUNT_CAP);
+    }
+
+    @Override
+    public int markNotificationsRead(Long userId, List<Long> notificationIds) {
+        return inboxRepository.markRead(userId, notificationIds);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<NotificationResponseDto> getNotificationsForEvent(Long eventId) {
-        return notificationRepository.findByEventIdOrderBySendAtDesc(eventId)
+        return notificationRepository.findWithEventByEventId(eventId)
                 .stream()
                 .map(this::toResponseDto)
                 .toList();
@@ -169,46 +227,66 @@ public class EventNotificationServiceImpl implements EventNotificationService {
     @Override
     @Transactional(readOnly = true)
     public NotificationStatsDto getStatsForEvent(Long eventId) {
-        List<Object[]> stats = notificationRepository.countByEventIdGroupByStatus(eventId);
-
-        NotificationStatsDto dto = new NotificationStatsDto();
-        long total = 0;
-
-        for (Object[] row : stats) {
-            Status status = (Status) row[0];
-            long count = (Long) row[1];
-            total += count;
-
-            switch (status) {
-                case PENDING -> dto.setPending(count);
-                case SENT -> dto.setSent(count);
-                case FAILED -> dto.setFailed(count);
-                case CANCELLED -> dto.setCancelled(count);
-            }
-        }
-
-        dto.setTotal(total);
-        return dto;
+        // Счётчики поддерживаются триггерами при создании, отмене и доставке уведомлений
+        return statsRepository.findByEventId(eventId);
     }
 
+    /**
+     * Изменения мероприятия объединяются: вызов создаёт ожидающее уведомление EVENT_UPDATED через
+     * {@code push.event-update-coalesce-seconds} или переносит уже ожидающее на это время, но не дальше
+     * {@code push.event-update-max-delay-seconds} от его создания. Рассылает уведомление планировщик.
+     */
     @Override
-    public int notifyEventUpdated(Long eventId) {
-        Event event = eventRepository.findById(eventId)
+    public NotificationResponseDto notifyEventUpdated(Long eventId) {
+        // Блокировка мероприятия не даёт параллельным вызовам создать два ожидающих уведомления
+        Event event = eventRepository.findByIdForUpdate(eventId)
                 .orElseThrow(() -> new ResourceNotFoundException("Мероприятие", eventId));
 
         String title = "Мероприятие обновлено";
         String body = String.format("Информация о мероприятии \"%s\" была изменена. Проверьте актуальные данные.",
                 event.getTitle());
 
-        return sendImmediateNotificationWithType(event, title, body, NotificationType.EVENT_UPDATED);
+        OffsetDateTime now = OffsetDateTime.now();
+        OffsetDateTime sendAt = now.plusSeconds(config.getEventUpdateCoalesceSeconds());
+        List<EventNotification> upcoming =
+                notificationRepository.findUpcomingByEventIdAndType(eventId, NotificationType.EVENT_UPDATED, now);
+        if (!upcoming.isEmpty()) {
+            EventNotification pending = upcoming.get(0);
+            OffsetDateTime deadline = pending.getCreatedAt().plusSeconds(config.getEventUpdateMaxDelaySeconds());
+            OffsetDateTime rescheduled = sendAt.isAfter(deadline) ? deadline : sendAt;
+            if (rescheduled.isBefore(pending.getSendAt())) {
+                rescheduled = pending.getSendAt();
+            }
+            if (notificationRepository.reschedulePending(pending.getId(), rescheduled, title, body, now) > 0) {
+                onScheduled(List.of(new UpcomingNotification(pending.getId(), rescheduled)), now);
+                log.debug("Уведомление об изменении мероприятия id={} перенесено на {}", eventId, rescheduled);
+                NotificationResponseDto dto = toResponseDto(pending);
+                dto.setSendAt(rescheduled);
+                dto.setTitle(title);
+                dto.setBody(body);
+                return dto;
+            }
+        }
+
+        EventNotification notification = new EventNotification();
+        notification.setEvent(event);
+        notification.setNotificationType(NotificationType.EVENT_UPDATED);
+        notification.setTitle(title);
+        notification.setBody(body);
+        notification.setActionUrl("/events/" + eventId);
+        notification.setSendAt(sendAt);
+        notification = notificationRepository.save(notification);
+        onScheduled(List.of(new UpcomingNotification(notification.getId(), notification.getNextAttemptAt())), now);
+        log.info("Запланировано уведомление об изменении мероприятия id={} на {}", eventId, sendAt);
+        return toResponseDto(notification);
     }
 
     @Override
-    public int notifyEventCancelled(Long eventId) {
+    public FanoutJobDto notifyEventCancelled(Long eventId) {
         Event event = eventRepository.findById(eventId)
                 .orElseThrow(() -> new ResourceNotFoundException("Мероприятие", eventId));
 
-        // Отменяем все pending уведомления
+        // Отменяем ожидающие уведомления; уже идущие рассылки (в том числе прежнее уведомление об отмене) дойдут
         cancelNotificationsForEvent(eventId);
 
         String title = "Мероприятие отменено";
@@ -219,6 +297,14 @@ public class EventNotificationServiceImpl implements EventNotificationService {
 
     // === Приватные методы ===
 
+    private static EventNotificationSettingsDto defaultSettings() {
+        EventNotificationSettingsDto settings = new EventNotificationSettingsDto();
+        settings.setReminder24h(true);
+        settings.setReminder2h(true);
+        settings.setReminder15min(true);
+        return settings;
+    }
+
     private List<ReminderConfig> buildReminderConfigs(OffsetDateTime eventStart, OffsetDateTime now,
                                                        EventNotificationSettingsDto settings) {
         List<ReminderConfig> reminders = new ArrayList<>();
@@ -258,14 +344,30 @@ public class EventNotificationServiceImpl implements EventNotificationService {
         return reminders;
     }
 
-    private EventNotification createNotification(Event event, User user, ReminderConfig reminder) {
+    private void onScheduled(List<UpcomingNotification> notifications, OffsetDateTime now) {
+        eventPublisher.publishEvent(new NotificationsScheduled(notifications));
+        notifyDueSoon(notifications, now);
+    }
+
+    /**
+     * Сообщить таймерам всех узлов об уведомлениях, срок которых наступит до их очередной дозагрузки.
+     * NOTIFY доставляется только после фиксации транзакции.
+     */
+    private void notifyDueSoon(List<UpcomingNotification> created, OffsetDateTime now) {
+        OffsetDateTime horizon = now.plusSeconds(config.getTimerPreloadWindowSeconds());
+        List<UpcomingNotification> dueSoon = created.stream()
+                .filter(notification -> notification.nextAttemptAt().isBefore(horizon))
+                .toList();
+        NotificationTimer.encode(dueSoon).forEach(payload -> notifyPublisher.publish(NotificationTimer.CHANNEL, payload));
+    }
+
+    private EventNotification createNotification(Event event, ReminderConfig reminder) {
         EventNotification notification = new EventNotification();
         notification.setEvent(event);
-        notification.setUser(user);
         notification.setNotificationType(reminder.type);
         notification.setSendAt(reminder.sendAt);
         notification.setTitle(buildNotificationTitle(event, reminder));
-        notification.setBody(buildNotificationBody(event, user, reminder));
+        notification.setBody(buildNotificationBody(event, reminder));
         notification.setActionUrl("/events/" + event.getId());
         return notification;
     }
@@ -274,7 +376,7 @@ public class EventNotificationServiceImpl implements EventNotificationService {
         return String.format("Напоминание: %s", event.getTitle());
     }
 
-    private String buildNotificationBody(Event event, User user, ReminderConfig reminder) {
+    private String buildNotificationBody(Event event, ReminderConfig reminder) {
         String venue = event.getVenue() != null ? event.getVenue() : "место уточняется";
         String formattedDate = event.getStartTime().format(DATE_FORMATTER);
 
@@ -282,41 +384,41 @@ public class EventNotificationServiceImpl implements EventNotificationService {
                 reminder.timeDescription, formattedDate, venue);
     }
 
-    private int sendImmediateNotificationWithType(Event event, String title, String body, NotificationType type) {
-        List<EventMember> members = eventMemberRepository.findByEvent_Id(event.getId());
-        if (members.isEmpty()) {
-            return 0;
-        }
+    private FanoutJobDto sendImmediateNotificationWithType(Event event, String title, String body, NotificationType type) {
+        PushMessageDto message = PushMessageDto.builder()
+                .title(title)
+                .body(body)
+                .tag("event-" + event.getId() + "-" + type.name().toLowerCase())
+                .actionUrl("/events/" + event.getId())
+                .requireInteraction(type == NotificationType.EVENT_CANCELLED)
+                .build();
 
-        int sentCount = 0;
-        for (EventMember member : members) {
-            PushMessageDto message = PushMessageDto.builder()
-                    .title(title)
-                    .body(body)
-                    .tag("event-" + event.getId() + "-" + type.name().toLowerCase())
-                    .actionUrl("/events/" + event.getId())
-                    .requireInteraction(type == NotificationType.EVENT_CANCELLED)
-                    .build();
-
-            int sent = webPushService.sendPushToUser(member.getUser().getId(), message);
-            if (sent > 0) {
-                EventNotification notification = new EventNotification();
-                notification.setEvent(event);
-                notification.setUser(member.getUser());
-                notification.setNotificationType(type);
-                notification.setTitle(title);
-                notification.setBody(body);
-                notification.setActionUrl("/events/" + event.getId());
-                notification.setSendAt(OffsetDateTime.now());
-                notification.setSentAt(OffsetDateTime.now());
-                notification.setStatus(Status.SENT);
-                notificationRepository.save(notification);
-
-                sentCount++;
-            }
-        }
+        return sendNow(event, title, body, type, message);
+    }
 
-        return sentCount;
+    /**
+     * Создать уведомление с немедленной отправкой и поставить его рассылку в очередь.
+     * Уведомление остаётся PENDING, но сразу взято в аренду на {@code push.claim-lease-seconds},
+     * как при захвате планировщиком: пока рассылка идёт, другие узлы его не трогают.
+     * Статус SENT проставляет задача рассылки по завершении; если узел упадёт или задача потеряется,
+     * после окончания аренды уведомление дошлёт обычный механизм захвата и повторов.
+     */
+    private FanoutJobDto sendNow(Event event, String title, String body, NotificationType type, PushMessageDto message) {
+        OffsetDateTime now = OffsetDateTime.now();
+        EventNotification notification = new EventNotification();
+        notification.setEvent(event);
+        notification.setNotificationType(type);
+        notification.setTitle(title);
+        notification.setBody(body);
+        notification.setActionUrl("/events/" + event.getId());
+        notification.setSendAt(now);
+        notification.setNextAttemptAt(now.plusSeconds(config.getClaimLeaseSeconds()));
+        notification.setLeasedUntil(notification.getNextAttemptAt());
+        notification.setStatus(Status.PENDING);
+        notification = notificationRepository.save(notification);
+
+        message.setNotificationId(notification.getId());
+        return fanoutService.submit(notification.getId(), event.getId(), message);
     }
 
     private NotificationResponseDto toResponseDto(EventNotification notification) {
@@ -324,7 +426,6 @@ public class EventNotificationServiceImpl implements EventNotificationService {
         dto.setId(notification.getId());
         dto.setEventId(notification.getEvent().getId());
         dto.setEventTitle(notification.getEvent().getTitle());
-        dto.setUserId(notification.getUser().getId());
         dto.setSendAt(notification.getSendAt());
         dto.setSentAt(notification.getSentAt());
         dto.setStatus(notification.getStatus());
@@ -0,0 +1,90 @@
+package com.nsu.musclub.service.impl;
+
+import com.nsu.musclub.dto.event.EventFullDto;
+import com.nsu.musclub.exception.BadRequestException;
+import com.nsu.musclub.service.EventPageService;
+import com.nsu.musclub.service.EventProgramService;
+import com.nsu.musclub.service.EventRelationService;
+import com.nsu.musclub.service.EventService;
+import com.nsu.musclub.service.EventTimelineService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Сборка страницы мероприятия в одной транзакции. Разделы читаются через кэш {@link EventCache};
+ * при промахе проверка существования мероприятия в каждом сервисе обращается к БД только один раз —
+ * далее мероприятие берётся из контекста персистентности. Число запросов не зависит от количества
+ * участников, элементов и подмероприятий: по одному на раздел.
+ */
+@Service
+@Transactional(readOnly = true)
+public class EventPageServiceImpl implements EventPageService {
+
+    private enum Section {
+        MEMBERS, TIMELINE, PROGRAM, TREE
+    }
+
+    private final EventService eventService;
+    private final EventRelationService relations;
+    private final EventTimelineService timelineService;
+    private final EventProgramService programService;
+
+    public EventPageServiceImpl(EventService eventService,
+                                EventRelationService relations,
+                                EventTimelineService timelineService,
+                                EventProgramService programService) {
+        this.eventService = eventService;
+        this.relations = relations;
+        this.timelineService = timelineService;
+        this.programService = programService;
+    }
+
+    @Override
+    public EventFullDto getFull(Long eventId, Collection<String> include, int depth) {
+        Set<Section> sections = parse(include);
+        EventFullDto dto = new EventFullDto();
+        dto.setEvent(eventService.get(eventId));
+        if (sections.contains(Section.MEMBERS)) {
+            dto.setMembers(relations.listMembers(eventId));
+        }
+        if (sections.contains(Section.TIMELINE)) {
+            dto.setTimeline(timelineService.list(eventId));
+        }
+        if (sections.contains(Section.PROGRAM)) {
+            dto.setProgram(programService.list(eventId));
+        }
+        if (sections.contains(Section.TREE)) {
+            dto.setTree(relations.getTree(eventId, depth));
+        }
+        return dto;
+    }
+
+    @Override
+    public String getFullVersion(Long eventId, Collection<String> include, int depth) {
+        String version = "f" + eventId + "-" + eventService.getVersion(eventId);
+        if (parse(include).contains(Section.TREE)) {
+            version += "-" + relations.getTreeVersion(eventId, depth);
+        }
+        return version;
+    }
+
+    private static Set<Section> parse(Collection<String> include) {
+        if (include == null || include.isEmpty()) {
+            return EnumSet.allOf(Section.class);
+        }
+        Set<Section> sections = EnumSet.noneOf(Section.class);
+        for (String item : include) {
+            try {
+                sections.add(Section.valueOf(item.trim().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Неизвестный раздел страницы мероприятия: " + item, "INVALID_INCLUDE");
+            }
+        }
+        return sections;
+    }
+}
@@ -25,10 +25,12 @@ public class EventPosterAiServiceImpl implements EventPosterAiService {
 
     private final EventRepository eventRepository;
     private final AiTextClient aiTextClient;
+    private final EventCache eventCache;
 
-    public EventPosterAiServiceImpl(EventRepository eventRepository, AiTextClient aiTextClient) {
+    public EventPosterAiServiceImpl(EventRepository eventRepository, AiTextClient aiTextClient, EventCache eventCache) {
         this.eventRepository = eventRepository;
         this.aiTextClient = aiTextClient;
+        this.eventCache = eventCache;
     }
 
     @Override
@@ -83,6 +85,7 @@ public class EventPosterAiServiceImpl implements EventPosterAiService {
         if (saveToEvent) {
             event.setAiDescription(description);
             eventRepository.save(event);
+            eventCache.invalidate(eventId);
         }
 
         return description;
@@ -21,22 +21,27 @@ import java.util.Set;
 public class EventProgramServiceImpl implements EventProgramService {
     private final EventRepository events;
     private final EventProgramItemRepository programItems;
+    private final EventCache cache;
 
-    public EventProgramServiceImpl(EventRepository events, EventProgramItemRepository programItems) {
+    public EventProgramServiceImpl(EventRepository events, EventProgramItemRepository programItems, EventCache cache) {
         this.events = events;
         this.programItems = programItems;
+        this.cache = cache;
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<EventProgramItemResponseDto> list(Long eventId) {
-        ensureEvent(eventId);
-        return programItems.findByEvent_IdOrderByPositionAsc(eventId).stream().map(this::toDto).toList();
+        return cache.get(eventId, EventCache.Section.PROGRAM, () -> {
+            ensureEvent(eventId);
+            return programItems.findByEvent_IdOrderByPositionAsc(eventId).stream().map(this::toDto).toList();
+        });
     }
 
     @Override
     public EventProgramItemResponseDto create(Long eventId, EventProgramItemCreateDto dto) {
         var event = ensureEvent(eventId);
+        cache.invalidate(eventId);
         EventProgramItem item = new EventProgramItem();
         item.setEvent(event);
         item.setTitle(dto.getTitle().trim());
@@ -51,6 +56,7 @@ public class EventProgramServiceImpl implements EventProgramService {
     @Override
     public EventProgramItemResponseDto update(Long eventId, Long itemId, EventProgramItemUpdateDto dto) {
         ensureEvent(eventId);
+        cache.invalidate(eventId);
         EventProgramItem item = programItems.findByIdAndEvent_Id(itemId, eventId)
                 .orElseThrow(() -> new ResourceNotFoundException("Элемент программы", itemId));
         item.setTitle(dto.getTitle().trim());
@@ -64,6 +70,7 @@ public class EventProgramServiceImpl implements EventProgramService {
     @Override
     public void delete(Long eventId, Long itemId) {
         ensureEvent(eventId);
+        cache.invalidate(eventId);
         EventProgramItem item = programItems.findByIdAndEvent_Id(itemId, eventId)
                 .orElseThrow(() -> new ResourceNotFoundException("Элемент программы", itemId));
         int removedPos = item.getPosition();
@@ -81,6 +88,7 @@ public class EventProgramServiceImpl implements EventProgramService {
     @Override
     public List<EventProgramItemResponseDto> reorder(Long eventId, List<Long> itemIds) {
         ensureEvent(eventId);
+        cache.invalidate(eventId);
         if (itemIds == null) {
             throw new BadRequestException("Список reorder не должен быть null", "INVALID_REORDER");
         }
@@ -4,9 +4,17 @@ import com.nsu.musclub.domain.Event;
 import com.nsu.musclub.domain.EventMember;
 import com.nsu.musclub.domain.User;
 import com.nsu.musclub.dto.event.*;
+import com.nsu.musclub.dto.page.CursorPageDto;
+import com.nsu.musclub.dto.page.KeysetCursor;
 import com.nsu.musclub.mapper.EventMapper;
+import com.nsu.musclub.repository.EventMemberBulkRepository;
+import com.nsu.musclub.repository.EventMemberBulkRepository.UpsertedMember;
+import com.nsu.musclub.repository.EventMemberBulkRepository.UserRef;
+import com.nsu.musclub.repository.EventMemberPageRepository;
 import com.nsu.musclub.repository.EventMemberRepository;
 import com.nsu.musclub.repository.EventRepository;
+import com.nsu.musclub.repository.EventTreeRepository;
+import com.nsu.musclub.repository.EventVersionRepository;
 import com.nsu.musclub.repository.UserRepository;
 import com.nsu.musclub.service.EventRelationService;
 import org.springframework.http.HttpStatus;
@@ -15,26 +23,59 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @Transactional
 public class EventRelationServiceImpl implements EventRelationService {
+    /**
+     * Предельная глубина отдаваемого дерева
+     */
+    private static final int MAX_TREE_DEPTH = 32;
+    private static final int DEFAULT_MEMBERS_PAGE_SIZE = 50;
+    private static final int MAX_MEMBERS_PAGE_SIZE = 200;
+
     private final EventRepository events;
     private final UserRepository users;
     private final EventMemberRepository members;
+    private final EventMemberPageRepository memberPages;
+    private final EventMemberBulkRepository bulkMembers;
+    private final EventVersionRepository versions;
+    private final EventTreeRepository tree;
+    private final EventCache cache;
 
-    public EventRelationServiceImpl(EventRepository events, UserRepository users, EventMemberRepository members) {
+    public EventRelationServiceImpl(EventRepository events,
+                                    UserRepository users,
+                                    EventMemberRepository members,
+                                    EventMemberPageRepository memberPages,
+                                    EventMemberBulkRepository bulkMembers,
+                                    EventVersionRepository versions,
+                                    EventTreeRepository tree,
+                                    EventCache cache) {
         this.events = events;
         this.users = users;
         this.members = members;
+        this.memberPages = memberPages;
+        this.bulkMembers = bulkMembers;
+        this.versions = versions;
+        this.tree = tree;
+        this.cache = cache;
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<EventMemberResponseDto> listMembers(Long eventId) {
+        return cache.get(eventId, EventCache.Section.MEMBERS, () -> loadMembers(eventId));
+    }
+
+    private List<EventMemberResponseDto> loadMembers(Long eventId) {
         ensureEvent(eventId);
-        return members.findByEvent_Id(eventId).stream().map(em -> {
+        return members.findWithUserByEventId(eventId).stream().map(em -> {
             EventMemberResponseDto dto = new EventMemberResponseDto();
             dto.setUserId(em.getUser().getId());
             dto.setUsername(em.getUser().getUsername());
@@ -45,6 +86,24 @@ public class EventRelationServiceImpl implements EventRelationService {
         }).toList();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<EventMemberResponseDto> listMembers(Long eventId, String role, String search,
+                                                             String cursor, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_MEMBERS_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_MEMBERS_PAGE_SIZE));
+        List<EventMemberResponseDto> rows = memberPages.findPage(eventId, blankToNull(role), blankToNull(search),
+                KeysetCursor.decode(cursor), pageSize + 1);
+        // Существование мероприятия проверяется, только если страница пуста
+        if (rows.isEmpty() && !events.existsById(eventId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Event not found");
+        }
+        return CursorPageDto.of(rows, pageSize, dto -> KeysetCursor.of(dto.getAddedAt(), dto.getUserId()));
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
     @Override
     public EventMemberResponseDto upsertMember(Long eventId, EventMemberUpsertDto dto) {
         Event event = ensureEvent(eventId);
@@ -69,7 +128,9 @@ public class EventRelationServiceImpl implements EventRelationService {
         }
 
         em.setRole(role.trim());
-        var saved = members.save(em);
+        // Сразу в БД: постраничный список и статистика поддерева читают участников через JDBC
+        var saved = members.saveAndFlush(em);
+        cache.invalidate(eventId);
 
         // Используем уже загруженные объекты user и event для избежания проблем с lazy loading
         var out = new EventMemberResponseDto();
@@ -88,6 +149,126 @@ public class EventRelationServiceImpl implements EventRelationService {
         if (!members.existsById(pk))
             throw new ResponseStatusException(HttpStatus.NOT_FOUND);
         members.deleteById(pk);
+        members.flush();
+        cache.invalidate(eventId);
+    }
+
+    @Override
+    public EventMemberImportResultDto importMembers(Long eventId, EventMemberImportDto dto) {
+        ensureEvent(eventId);
+        List<EventMemberImportItemDto> items = dto.getMembers();
+
+        Set<Long> requestedIds = new HashSet<>();
+        Set<String> requestedEmails = new HashSet<>();
+        for (EventMemberImportItemDto item : items) {
+            if (item != null && item.getUserId() != null) {
+                requestedIds.add(item.getUserId());
+            }
+            if (item != null && blankToNull(item.getEmail()) != null) {
+                requestedEmails.add(blankToNull(item.getEmail()));
+            }
+        }
+        Map<Long, String> emailById = new HashMap<>();
+        Map<String, Long> idByEmail = new HashMap<>();
+        for (UserRef user : bulkMembers.findUsers(requestedIds, requestedEmails)) {
+            emailById.put(user.id(), user.email());
+            // Email сравниваются без учёта регистра, как и при поиске пользователя по email
+            idByEmail.putIfAbsent(user.email().toLowerCase(Locale.ROOT), user.id());
+        }
+
+        List<EventMemberImportRowDto> results = new ArrayList<>(items.size());
+        Map<Long, Integer> rowByUser = new HashMap<>();
+        List<Long> userIds = new ArrayList<>();
+        List<String> roles = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            EventMemberImportRowDto row = new EventMemberImportRowDto();
+            row.setIndex(i);
+            results.add(row);
+            String error = resolveImportRow(items.get(i), row, emailById, idByEmail);
+            if (error == null) {
+                Integer first = rowByUser.putIfAbsent(row.getUserId(), i);
+                if (first != null) {
+                    error = "Duplicate of row " + first;
+                }
+            }
+            if (error != null) {
+                row.setStatus(EventMemberImportRowDto.Status.FAILED);
+                row.setError(error);
+                continue;
+            }
+            userIds.add(row.getUserId());
+            roles.add(row.getRole());
+        }
+
+        Map<Long, Boolean> written = new HashMap<>();
+        if (!userIds.isEmpty()) {
+            for (UpsertedMember member : bulkMembers.upsert(eventId, userIds, roles)) {
+                written.put(member.userId(), member.inserted());
+            }
+        }
+        if (!written.isEmpty()) {
+            cache.invalidate(eventId);
+        }
+
+        EventMemberImportResultDto result = new EventMemberImportResultDto();
+        result.setEventId(eventId);
+        for (EventMemberImportRowDto row : results) {
+            if (row.getStatus() == null) {
+                Boolean inserted = written.get(row.getUserId());
+                row.setStatus(inserted == null ? EventMemberImportRowDto.Status.UNCHANGED
+                        : inserted ? EventMemberImportRowDto.Status.CREATED
+                        : EventMemberImportRowDto.Status.UPDATED);
+            }
+            switch (row.getStatus()) {
+                case CREATED -> result.setCreated(result.getCreated() + 1);
+                case UPDATED -> result.setUpdated(result.getUpdated() + 1);
+                case UNCHANGED -> result.setUnchanged(result.getUnchanged() + 1);
+                case FAILED -> result.setFailed(result.getFailed() + 1);
+            }
+        }
+        result.setResults(results);
+        return result;
+    }
+
+    /**
+     * Проверить строку импорта и найти её пользователя
+     *
+     * @return текст ошибки или null, если строка корректна
+     */
+    private static String resolveImportRow(EventMemberImportItemDto item, EventMemberImportRowDto row,
+                                           Map<Long, String> emailById, Map<String, Long> idByEmail) {
+        if (item == null) {
+            return "Row is empty";
+        }
+        String role = blankToNull(item.getRole());
+        if (role == null) {
+            return "Role must not be blank";
+        }
+        if (role.length() > 64) {
+            return "Role is too long";
+        }
+        row.setRole(role);
+
+        Long userId = item.getUserId();
+        String email = blankToNull(item.getEmail());
+        if (userId == null && email == null) {
+            return "Either userId or email is required";
+        }
+        if (userId != null && !emailById.containsKey(userId)) {
+            return "User not found";
+        }
+        if (email != null) {
+            Long userIdByEmail = idByEmail.get(email.toLowerCase(Locale.ROOT));
+            if (userIdByEmail == null) {
+                return "User not found";
+            }
+            if (userId != null && !userId.equals(userIdByEmail)) {
+                return "userId and email belong to different users";
+            }
+            userId = userIdByEmail;
+        }
+        row.setUserId(userId);
+        return null;
     }
 
     @Override
@@ -103,11 +284,13 @@ public class EventRelationServiceImpl implements EventRelationService {
         Event parent = ensureEvent(parentId);
         Event child = ensureEvent(childId);
 
-        if (isAncestors(child, parent))
+        if (tree.isAncestorOrSelf(childId, parentId))
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cycle detected");
 
         child.setParent(parent);
-        events.save(child);
+        // Таблицу замыкания обновляет триггер, а SQL-запросы EventTreeRepository не вызывают flush контекста
+        events.saveAndFlush(child);
+        cache.invalidate(childId);
     }
 
     @Override
@@ -118,40 +301,70 @@ public class EventRelationServiceImpl implements EventRelationService {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Not a direct child");
 
         child.setParent(null);
-        events.save(child);
+        events.saveAndFlush(child);
+        cache.invalidate(childId);
     }
 
     @Override
     @Transactional(readOnly = true)
     public EventTreeNodeDto getTree(Long eventId, int depth) {
-        Event root = ensureEvent(eventId);
-        return buildTree(root, Math.max(1, depth));
+        List<EventTreeRepository.TreeRow> rows = tree.findSubtree(eventId, clampDepth(depth));
+        if (rows.isEmpty())
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Event not found");
+        return buildTree(rows);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public String getTreeVersion(Long eventId, int depth) {
+        return versions.findTreeVersion(eventId, clampDepth(depth))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Event not found"));
     }
 
     private Event ensureEvent(Long id) {
         return events.findById(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Event not found"));
     }
 
-    private boolean isAncestors(Event candidateAncestor, Event node) {
-        for (Event cur = node; cur != null; cur = cur.getParent()) {
-            if (cur.getId().equals(candidateAncestor.getId()))
-                return true;
-        }
-        return false;
+    @Override
+    @Transactional(readOnly = true)
+    public List<EventCardDto> getDescendants(Long eventId, Integer depth) {
+        ensureEvent(eventId);
+        return tree.findDescendants(eventId, depth == null ? Integer.MAX_VALUE : Math.max(1, depth));
     }
 
-    private EventTreeNodeDto buildTree(Event root, int depth) {
-        EventTreeNodeDto dto = new EventTreeNodeDto();
-        dto.setId(root.getId());
-        dto.setTitle(root.getTitle());
-        dto.setStartTime(root.getStartTime());
-        if (depth <= 1)
-            return dto;
-        var children = events.findByParentId(root.getId());
-        List<EventTreeNodeDto> list = new ArrayList<>();
-        for (Event ch : children)
-            list.add(buildTree(ch, depth - 1));
-        dto.setChildren(list);
-        return dto;
+    @Override
+    @Transactional(readOnly = true)
+    public List<EventCardDto> getAncestors(Long eventId) {
+        ensureEvent(eventId);
+        return tree.findAncestors(eventId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public EventSubtreeStatsDto getSubtreeStats(Long eventId) {
+        return tree.findSubtreeStats(eventId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Event not found"));
+    }
+
+    private static int clampDepth(int depth) {
+        return Math.max(1, Math.min(depth, MAX_TREE_DEPTH));
+    }
+
+    private EventTreeNodeDto buildTree(List<EventTreeRepository.TreeRow> rows) {
+        Map<Long, EventTreeNodeDto> nodes = new HashMap<>();
+        EventTreeNodeDto root = null;
+        for (EventTreeRepository.TreeRow row : rows) {
+            EventTreeNodeDto dto = new EventTreeNodeDto();
+            dto.setId(row.id());
+            dto.setTitle(row.title());
+            dto.setStartTime(row.startTime());
+            nodes.put(row.id(), dto);
+            if (row.depth() == 1) {
+                root = dto;
+            } else {
+                nodes.get(row.parentId()).getChildren().add(dto);
+            }
+        }
+        return root;
     }
 }
\ No newline at end of file
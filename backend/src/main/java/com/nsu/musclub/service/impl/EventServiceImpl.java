@@ -1,11 +1,18 @@
 package com.nsu.musclub.service.impl;
 
 import com.nsu.musclub.domain.Event;
+import com.nsu.musclub.domain.EventStatus;
 import com.nsu.musclub.dto.event.*;
+import com.nsu.musclub.dto.page.CursorPageDto;
+import com.nsu.musclub.dto.page.KeysetCursor;
 import com.nsu.musclub.exception.BadRequestException;
 import com.nsu.musclub.exception.ResourceNotFoundException;
 import com.nsu.musclub.mapper.EventMapper;
+import com.nsu.musclub.repository.EventFeedRepository;
 import com.nsu.musclub.repository.EventRepository;
+import com.nsu.musclub.repository.EventSpecifications;
+import com.nsu.musclub.repository.EventTreeRepository;
+import com.nsu.musclub.repository.EventVersionRepository;
 import com.nsu.musclub.service.EventService;
 import com.nsu.musclub.service.SearchIndexingService;
 import org.springframework.data.domain.Page;
@@ -16,16 +23,32 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
+import java.util.List;
 
 @Service
 @Transactional
 public class EventServiceImpl implements EventService {
+    private static final int DEFAULT_FEED_PAGE_SIZE = 20;
+    private static final int MAX_FEED_PAGE_SIZE = 100;
+
     private final EventRepository events;
+    private final EventFeedRepository feed;
+    private final EventVersionRepository versions;
+    private final EventTreeRepository tree;
+    private final EventCache cache;
     private final SearchIndexingService searchIndexingService;
 
     public EventServiceImpl(EventRepository events,
+                            EventFeedRepository feed,
+                            EventVersionRepository versions,
+                            EventTreeRepository tree,
+                            EventCache cache,
                             SearchIndexingService searchIndexingService) {
         this.events = events;
+        this.feed = feed;
+        this.versions = versions;
+        this.tree = tree;
+        this.cache = cache;
         this.searchIndexingService = searchIndexingService;
     }
 
@@ -40,13 +63,23 @@ public class EventServiceImpl implements EventService {
     @Override
     @Transactional(readOnly = true)
     public EventResponseDto get(Long id) {
-        return events.findById(id).map(EventMapper::toDto)
-                .orElseThrow(() -> new ResourceNotFoundException("Мероприятие", id));
+        return cache.get(id, EventCache.Section.EVENT, () -> events.findById(id).map(EventMapper::toDto)
+                .orElseThrow(() -> new ResourceNotFoundException("Мероприятие", id)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long getVersion(Long id) {
+        return cache.get(id, EventCache.Section.VERSION, () -> versions.findVersion(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Мероприятие", id)));
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Page<EventResponseDto> list(Pageable pageable) {
+    public Page<EventResponseDto> list(EventFilterDto filter, Pageable pageable) {
+        if (filter.getFrom() != null && filter.getTo() != null && !filter.getFrom().isBefore(filter.getTo())) {
+            throw new BadRequestException("Начало интервала должно быть раньше его конца");
+        }
         Pageable effectivePageable = pageable;
         if (pageable.getSort().isUnsorted()) {
             effectivePageable = PageRequest.of(
@@ -58,7 +91,15 @@ public class EventServiceImpl implements EventService {
                     )
             );
         }
-        return events.findAll(effectivePageable).map(EventMapper::toDto);
+        return events.findAll(EventSpecifications.matching(filter), effectivePageable).map(EventMapper::toDto);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<EventCardDto> feed(String cursor, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_FEED_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_FEED_PAGE_SIZE));
+        List<EventCardDto> rows = feed.findPage(KeysetCursor.decode(cursor), pageSize + 1);
+        return CursorPageDto.of(rows, pageSize, card -> KeysetCursor.of(card.getStartTime(), card.getId()));
     }
 
     @Override
@@ -68,6 +109,7 @@ public class EventServiceImpl implements EventService {
         validateEventTimes(dto.getStartTime(), dto.getEndTime());
         EventMapper.update(dto, event);
         Event updated = events.save(event);
+        cache.invalidate(id);
         searchIndexingService.indexEvent(updated);
         return EventMapper.toDto(updated);
     }
@@ -78,9 +120,41 @@ public class EventServiceImpl implements EventService {
             throw new ResourceNotFoundException("Мероприятие", id);
         }
         events.deleteById(id);
+        cache.invalidate(id);
         searchIndexingService.removeEvent(id);
     }
 
+    @Override
+    public int updateSubtreeStatus(Long rootId, EventStatus status) {
+        List<Event> subtree = events.findSubtree(rootId);
+        if (subtree.isEmpty()) {
+            throw new ResourceNotFoundException("Мероприятие", rootId);
+        }
+        int updated = events.updateSubtreeStatus(rootId, status.name());
+        List<Long> ids = subtree.stream().map(Event::getId).toList();
+        cache.invalidate(ids);
+        // Сущности отсоединены после UPDATE: статус проставляется только для переиндексации
+        subtree.stream()
+                .filter(event -> event.getStatus() != status)
+                .forEach(event -> {
+                    event.setStatus(status);
+                    searchIndexingService.indexEvent(event);
+                });
+        return updated;
+    }
+
+    @Override
+    public int deleteSubtree(Long rootId) {
+        List<Long> ids = tree.findSubtreeIds(rootId);
+        if (ids.isEmpty()) {
+            throw new ResourceNotFoundException("Мероприятие", rootId);
+        }
+        int deleted = events.deleteSubtree(rootId);
+        cache.invalidate(ids);
+        searchIndexingService.removeEvents(ids);
+        return deleted;
+    }
+
     private void validateEventTimes(OffsetDateTime startTime, OffsetDateTime endTime) {
         if (endTime != null && startTime != null && endTime.isBefore(startTime)) {
             throw new BadRequestException("Время окончания должно быть позже времени начала");
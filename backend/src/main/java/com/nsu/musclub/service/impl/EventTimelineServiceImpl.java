@@ -21,24 +21,29 @@ import java.util.Set;
 public class EventTimelineServiceImpl implements EventTimelineService {
     private final EventRepository events;
     private final EventTimelineItemRepository timelineItems;
+    private final EventCache cache;
 
-    public EventTimelineServiceImpl(EventRepository events, EventTimelineItemRepository timelineItems) {
+    public EventTimelineServiceImpl(EventRepository events, EventTimelineItemRepository timelineItems, EventCache cache) {
         this.events = events;
         this.timelineItems = timelineItems;
+        this.cache = cache;
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<EventTimelineItemResponseDto> list(Long eventId) {
-        ensureEvent(eventId);
-        return timelineItems.findByEvent_IdOrderByPositionAsc(eventId).stream()
-                .map(this::toDto)
-                .toList();
+        return cache.get(eventId, EventCache.Section.TIMELINE, () -> {
+            ensureEvent(eventId);
+            return timelineItems.findByEvent_IdOrderByPositionAsc(eventId).stream()
+                    .map(this::toDto)
+                    .toList();
+        });
     }
 
     @Override
     public EventTimelineItemResponseDto create(Long eventId, EventTimelineItemCreateDto dto) {
         var event = ensureEvent(eventId);
+        cache.invalidate(eventId);
         EventTimelineItem item = new EventTimelineItem();
         item.setEvent(event);
         item.setPlannedTime(dto.getPlannedTime());
@@ -50,6 +55,7 @@ public class EventTimelineServiceImpl implements EventTimelineService {
     @Override
     public EventTimelineItemResponseDto update(Long eventId, Long itemId, EventTimelineItemUpdateDto dto) {
         ensureEvent(eventId);
+        cache.invalidate(eventId);
         EventTimelineItem item = timelineItems.findByIdAndEvent_Id(itemId, eventId)
                 .orElseThrow(() -> new ResourceNotFoundException("Элемент таймплана", itemId));
         item.setPlannedTime(dto.getPlannedTime());
@@ -60,6 +66,7 @@ public class EventTimelineServiceImpl implements EventTimelineService {
     @Override
     public void delete(Long eventId, Long itemId) {
         ensureEvent(eventId);
+        cache.invalidate(eventId);
         EventTimelineItem item = timelineItems.findByIdAndEvent_Id(itemId, eventId)
                 .orElseThrow(() -> new ResourceNotFoundException("Элемент таймплана", itemId));
         int removedPos = item.getPosition();
@@ -77,6 +84,7 @@ public class EventTimelineServiceImpl implements EventTimelineService {
     @Override
     public List<EventTimelineItemResponseDto> reorder(Long eventId, List<Long> itemIds) {
         ensureEvent(eventId);
+        cache.invalidate(eventId);
         if (itemIds == null) {
             throw new BadRequestException("Список reorder не должен быть null", "INVALID_REORDER");
         }
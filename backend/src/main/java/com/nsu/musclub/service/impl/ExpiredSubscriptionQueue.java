@@ -0,0 +1,106 @@
+package com.nsu.musclub.service.impl;
+
+import com.nsu.musclub.config.PushNotificationConfig;
+import com.nsu.musclub.dto.push.ActivePushSubscription;
+import com.nsu.musclub.repository.PushSubscriptionRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Очередь подписок, endpoint которых ответил 404/410.
+ * Потоки доставки только добавляют идентификатор подписки, деактивация выполняется периодически
+ * пакетными UPDATE вне цикла рассылки. Повторные сообщения об одной подписке схлопываются.
+ * Вместе с деактивацией сбрасываются записи владельцев подписок в {@link PushSubscriptionRegistry}.
+ */
+@Component
+public class ExpiredSubscriptionQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpiredSubscriptionQueue.class);
+
+    /**
+     * Идентификатор подписки → идентификатор её владельца
+     */
+    private final Map<Long, Long> pending = new ConcurrentHashMap<>();
+    private final PushSubscriptionRepository subscriptionRepository;
+    private final PushSubscriptionRegistry subscriptionRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final PushNotificationConfig config;
+
+    public ExpiredSubscriptionQueue(PushSubscriptionRepository subscriptionRepository,
+                                    PushSubscriptionRegistry subscriptionRegistry,
+                                    TransactionTemplate transactionTemplate,
+                                    PushNotificationConfig config) {
+        this.subscriptionRepository = subscriptionRepository;
+        this.subscriptionRegistry = subscriptionRegistry;
+        this.transactionTemplate = transactionTemplate;
+        this.config = config;
+    }
+
+    public void enqueue(ActivePushSubscription subscription) {
+        if (subscription.id() != null) {
+            pending.put(subscription.id(), subscription.userId());
+        }
+    }
+
+    public int size() {
+        return pending.size();
+    }
+
+    /**
+     * Деактивировать накопленные подписки пакетами по {@code push.expired-subscription-batch-size}
+     *
+     * @return количество деактивированных подписок
+     */
+    @Scheduled(fixedDelayString = "${push.expired-subscription-flush-interval:1000}")
+    public int flush() {
+        int batchSize = Math.max(1, config.getExpiredSubscriptionBatchSize());
+        int deactivated = 0;
+        Map<Long, Long> batch;
+        while (!(batch = drain(batchSize)).isEmpty()) {
+            Map<Long, Long> subscriptions = batch;
+            try {
+                Integer updated = transactionTemplate.execute(tx -> {
+                    int count = subscriptionRepository.deactivateByIds(subscriptions.keySet(), OffsetDateTime.now());
+                    subscriptionRegistry.invalidate(Set.copyOf(subscriptions.values()));
+                    return count;
+                });
+                deactivated += updated != null ? updated : 0;
+            } catch (Exception e) {
+                log.error("Не удалось деактивировать {} истёкших подписок: {}", subscriptions.size(), e.getMessage());
+                pending.putAll(subscriptions);
+                break;
+            }
+        }
+        if (deactivated > 0) {
+            log.info("Deactivated {} expired push subscription(s)", deactivated);
+        }
+        return deactivated;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private Map<Long, Long> drain(int limit) {
+        Map<Long, Long> batch = new HashMap<>();
+        Iterator<Map.Entry<Long, Long>> iterator = pending.entrySet().iterator();
+        while (batch.size() < limit && iterator.hasNext()) {
+            Map.Entry<Long, Long> entry = iterator.next();
+            batch.put(entry.getKey(), entry.getValue());
+            iterator.remove();
+        }
+        return batch;
+    }
+}
@@ -0,0 +1,197 @@
+package com.nsu.musclub.service.impl;
+
+import com.nsu.musclub.domain.EventNotification;
+import com.nsu.musclub.domain.EventNotification.Status;
+import com.nsu.musclub.dto.push.ActivePushSubscription;
+import com.nsu.musclub.dto.push.EncodedPushMessage;
+import com.nsu.musclub.dto.push.PushDeliveryResult;
+import com.nsu.musclub.dto.push.PushMessageDto;
+import com.nsu.musclub.repository.EventMemberRepository;
+import com.nsu.musclub.repository.NotificationDeliveryBatchRepository;
+import com.nsu.musclub.repository.NotificationDeliveryBatchRepository.DeliveryRecord;
+import com.nsu.musclub.service.WebPushService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Рассылка topic-уведомления участникам мероприятия.
+ * Список получателей берётся из event_members в момент отправки, поэтому изменения
+ * состава участников после планирования учитываются автоматически.
+ * Подписки получателей берутся из кэша {@link PushSubscriptionRegistry}, содержимое сериализуется один раз на рассылку,
+ * доставка выполняется параллельно, а журнал доставок пишется одним batch-запросом.
+ */
+@Component
+public class NotificationDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private final EventMemberRepository eventMemberRepository;
+    private final PushSubscriptionRegistry subscriptionRegistry;
+    private final NotificationDeliveryBatchRepository deliveryBatchRepository;
+    private final WebPushService webPushService;
+    private final Executor deliveryExecutor;
+
+    public NotificationDispatcher(EventMemberRepository eventMemberRepository,
+                                  PushSubscriptionRegistry subscriptionRegistry,
+                                  NotificationDeliveryBatchRepository deliveryBatchRepository,
+                                  WebPushService webPushService,
+                                  @Qualifier("pushDeliveryExecutor") Executor deliveryExecutor) {
+        this.eventMemberRepository = eventMemberRepository;
+        this.subscriptionRegistry = subscriptionRegistry;
+        this.deliveryBatchRepository = deliveryBatchRepository;
+        this.webPushService = webPushService;
+        this.deliveryExecutor = deliveryExecutor;
+    }
+
+    /**
+     * Отправить уведомление всем текущим участникам мероприятия и записать результат в журнал доставок
+     */
+    public DispatchResult dispatch(EventNotification notification, PushMessageDto message) {
+        return dispatch(notification.getId(), notification.getEvent().getId(), message, DispatchListener.NONE);
+    }
+
+    /**
+     * Отправить уведомление всем текущим участникам мероприятия, сообщая о прогрессе в {@code listener}.
+     * При повторной попытке пропускаются пользователи, которым уведомление уже доставлено
+     * или доставка которым завершилась постоянной ошибкой.
+     */
+    public DispatchResult dispatch(Long notificationId, Long eventId, PushMessageDto message,
+                                   DispatchListener listener) {
+        Set<Long> settled = deliveryBatchRepository.findSettledUserIds(notificationId);
+        List<Long> recipients = eventMemberRepository.findUserIdsByEventId(eventId)
+                .stream()
+                .filter(userId -> !settled.contains(userId))
+                .toList();
+
+        listener.onStart(recipients.size());
+        if (recipients.isEmpty()) {
+            log.debug("Нет получателей для уведомления id={} (мероприятие id={})", notificationId, eventId);
+            return new DispatchResult(0, 0, 0, 0, Duration.ZERO);
+        }
+
+        Map<Long, List<ActivePushSubscription>> subscriptionsByUser = subscriptionRegistry.getActive(recipients);
+        EncodedPushMessage encoded = webPushService.encode(message);
+
+        List<CompletableFuture<UserOutcome>> futures = new ArrayList<>(recipients.size());
+        for (Long userId : recipients) {
+            List<ActivePushSubscription> subscriptions = subscriptionsByUser.getOrDefault(userId, List.of());
+            if (subscriptions.isEmpty()) {
+                futures.add(CompletableFuture.completedFuture(
+                        outcome(notificationId, userId, false, false, false, Duration.ZERO,
+                                "Нет активных подписок для пользователя", listener)));
+            } else {
+                futures.add(CompletableFuture.supplyAsync(
+                        () -> deliver(notificationId, userId, subscriptions, encoded, listener), deliveryExecutor));
+            }
+        }
+
+        List<UserOutcome> outcomes = futures.stream()
+                .map(CompletableFuture::join)
+                .toList();
+        deliveryBatchRepository.upsertAll(outcomes.stream().map(UserOutcome::record).toList());
+
+        int sentCount = 0;
+        int retryableCount = 0;
+        int deferredCount = 0;
+        Duration retryAfter = Duration.ZERO;
+        for (UserOutcome outcome : outcomes) {
+            if (outcome.record().status() == Status.SENT) {
+                sentCount++;
+            } else if (outcome.record().retryable()) {
+                if (outcome.deferred()) {
+                    deferredCount++;
+                } else {
+                    retryableCount++;
+                }
+                if (outcome.retryAfter().compareTo(retryAfter) > 0) {
+                    retryAfter = outcome.retryAfter();
+                }
+            }
+        }
+        int failedCount = outcomes.size() - sentCount;
+        log.debug("Уведомление id={} разослано: доставлено={}, не доставлено={} (из них временно={}, отложено={})",
+                notificationId, sentCount, failedCount, retryableCount, deferredCount);
+        return new DispatchResult(sentCount, failedCount, retryableCount, deferredCount, retryAfter);
+    }
+
+    /**
+     * Доставить уведомление на все устройства пользователя. Пользователь считается получившим уведомление,
+     * если доставка удалась хотя бы на одно устройство; иначе ошибка временная, если временной была хотя бы одна.
+     * Если запросы не отправлялись только из-за разомкнутой цепи push-сервиса, доставка считается отложенной.
+     */
+    private UserOutcome deliver(Long notificationId, Long userId, List<ActivePushSubscription> subscriptions,
+                                EncodedPushMessage message, DispatchListener listener) {
+        boolean delivered = false;
+        boolean retryable = false;
+        boolean deferred = false;
+        Duration retryAfter = Duration.ZERO;
+        String lastError = null;
+        for (ActivePushSubscription subscription : subscriptions) {
+            PushDeliveryResult result = webPushService.sendPushNotification(subscription, message);
+            if (result.isDelivered()) {
+                delivered = true;
+            } else {
+                lastError = result.getErrorMessage();
+                if (result.isRetryable() || result.isDeferred()) {
+                    retryable |= result.isRetryable();
+                    deferred |= result.isDeferred();
+                    if (result.getRetryAfter().compareTo(retryAfter) > 0) {
+                        retryAfter = result.getRetryAfter();
+                    }
+                }
+            }
+        }
+        String error = lastError != null ? lastError : "Не удалось доставить уведомление ни на одно устройство";
+        return outcome(notificationId, userId, delivered, retryable, deferred, retryAfter, error, listener);
+    }
+
+    private UserOutcome outcome(Long notificationId, Long userId, boolean delivered, boolean retryable,
+                                boolean deferred, Duration retryAfter, String failureMessage,
+                                DispatchListener listener) {
+        listener.onDelivered(delivered);
+        DeliveryRecord record = new DeliveryRecord(notificationId, userId,
+                delivered ? Status.SENT : Status.FAILED,
+                OffsetDateTime.now(),
+                delivered ? null : failureMessage,
+                !delivered && (retryable || deferred));
+        // Отложенной считается доставка, по которой не было ни одной настоящей попытки с временной ошибкой
+        return new UserOutcome(record, !delivered && deferred && !retryable, retryAfter);
+    }
+
+    /**
+     * Итог рассылки: количество пользователей, которым уведомление доставлено / не доставлено,
+     * сколько из недоставленных можно повторить, сколько отложено из-за разомкнутой цепи push-сервиса
+     * (запрос им не отправлялся) и минимальная задержка следующей попытки
+     */
+    public record DispatchResult(int sent, int failed, int retryable, int deferred, Duration retryAfter) {
+    }
+
+    private record UserOutcome(DeliveryRecord record, boolean deferred, Duration retryAfter) {
+    }
+
+    /**
+     * Наблюдатель за ходом рассылки. Вызывается из потоков доставки, реализация должна быть потокобезопасной.
+     */
+    public interface DispatchListener {
+
+        DispatchListener NONE = new DispatchListener() {
+        };
+
+        default void onStart(int recipients) {
+        }
+
+        default void onDelivered(boolean success) {
+        }
+    }
+}
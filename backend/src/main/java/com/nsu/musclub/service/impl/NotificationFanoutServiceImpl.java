@@ -0,0 +1,185 @@
+package com.nsu.musclub.service.impl;
+
+import com.nsu.musclub.config.PushNotificationConfig;
+import com.nsu.musclub.dto.push.FanoutJobDto;
+import com.nsu.musclub.dto.push.FanoutJobDto.State;
+import com.nsu.musclub.dto.push.PushMessageDto;
+import com.nsu.musclub.exception.ResourceNotFoundException;
+import com.nsu.musclub.service.NotificationFanoutService;
+import com.nsu.musclub.service.impl.NotificationDispatcher.DispatchListener;
+import com.nsu.musclub.service.impl.NotificationDispatcher.DispatchResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Асинхронная массовая рассылка уведомлений.
+ * Запрос только регистрирует задачу и сразу возвращает её идентификатор, рассылка выполняется
+ * в отдельном пуле потоков. Состояние задач хранится в памяти и очищается через
+ * {@code push.fanout-job-retention-minutes} после завершения. Надёжность обеспечивает не задача, а уведомление:
+ * до её завершения оно остаётся PENDING под арендой, и потерянную задачу дошлёт планировщик.
+ */
+@Service
+public class NotificationFanoutServiceImpl implements NotificationFanoutService {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationFanoutServiceImpl.class);
+
+    private final NotificationDispatcher dispatcher;
+    private final NotificationRetryPolicy retryPolicy;
+    private final Executor fanoutExecutor;
+    private final PushNotificationConfig config;
+
+    private final Map<String, FanoutJob> jobs = new ConcurrentHashMap<>();
+
+    public NotificationFanoutServiceImpl(NotificationDispatcher dispatcher,
+                                         NotificationRetryPolicy retryPolicy,
+                                         @Qualifier("pushFanoutExecutor") Executor fanoutExecutor,
+                                         PushNotificationConfig config) {
+        this.dispatcher = dispatcher;
+        this.retryPolicy = retryPolicy;
+        this.fanoutExecutor = fanoutExecutor;
+        this.config = config;
+    }
+
+    @Override
+    public FanoutJobDto submit(Long notificationId, Long eventId, PushMessageDto message) {
+        FanoutJob job = new FanoutJob(UUID.randomUUID().toString(), eventId, notificationId);
+        jobs.put(job.id, job);
+
+        Runnable start = () -> fanoutExecutor.execute(() -> run(job, message));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Уведомление должно быть видно потокам рассылки, поэтому стартуем только после коммита
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    start.run();
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        job.fail("Транзакция создания уведомления отменена");
+                    }
+                }
+            });
+        } else {
+            start.run();
+        }
+
+        log.info("Задача рассылки {} поставлена в очередь (уведомление id={}, мероприятие id={})",
+                job.id, notificationId, eventId);
+        return job.toDto();
+    }
+
+    @Override
+    public FanoutJobDto getJob(String jobId) {
+        FanoutJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Задача рассылки", jobId);
+        }
+        return job.toDto();
+    }
+
+    /**
+     * Удаление информации о давно завершённых задачах (каждые 10 минут)
+     */
+    @Scheduled(fixedDelay = 600000)
+    public void evictFinishedJobs() {
+        OffsetDateTime threshold = OffsetDateTime.now().minusMinutes(config.getFanoutJobRetentionMinutes());
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(threshold));
+    }
+
+    private void run(FanoutJob job, PushMessageDto message) {
+        job.state = State.RUNNING;
+        job.startedAt = OffsetDateTime.now();
+        try {
+            DispatchResult result = dispatcher.dispatch(job.notificationId, job.eventId, message, job);
+            // Получатели с временными ошибками будут досланы планировщиком по расписанию повторов
+            retryPolicy.recordResult(job.notificationId, 0, result);
+            job.complete();
+            log.info("Задача рассылки {} завершена: доставлено={}, не доставлено={}, будет повторено={}",
+                    job.id, result.sent(), result.failed(), result.retryable());
+        } catch (Exception e) {
+            log.error("Задача рассылки {} завершилась с ошибкой", job.id, e);
+            job.fail(e.getMessage());
+            try {
+                retryPolicy.recordFailure(job.notificationId, 0, e.getMessage());
+            } catch (Exception updateEx) {
+                log.error("Не удалось сохранить статус уведомления id={}: {}", job.notificationId, updateEx.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Состояние задачи рассылки. Счётчики обновляются из потоков доставки.
+     */
+    private static final class FanoutJob implements DispatchListener {
+
+        private final String id;
+        private final Long eventId;
+        private final Long notificationId;
+        private final OffsetDateTime createdAt = OffsetDateTime.now();
+        private final AtomicInteger total = new AtomicInteger();
+        private final AtomicInteger sent = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+
+        private volatile State state = State.QUEUED;
+        private volatile String errorMessage;
+        private volatile OffsetDateTime startedAt;
+        private volatile OffsetDateTime finishedAt;
+
+        private FanoutJob(String id, Long eventId, Long notificationId) {
+            this.id = id;
+            this.eventId = eventId;
+            this.notificationId = notificationId;
+        }
+
+        @Override
+        public void onStart(int recipients) {
+            total.set(recipients);
+        }
+
+        @Override
+        public void onDelivered(boolean success) {
+            (success ? sent : failed).incrementAndGet();
+        }
+
+        private void complete() {
+            finishedAt = OffsetDateTime.now();
+            state = State.COMPLETED;
+        }
+
+        private void fail(String message) {
+            errorMessage = message;
+            finishedAt = OffsetDateTime.now();
+            state = State.FAILED;
+        }
+
+        private FanoutJobDto toDto() {
+            FanoutJobDto dto = new FanoutJobDto();
+            dto.setJobId(id);
+            dto.setEventId(eventId);
+            dto.setNotificationId(notificationId);
+            dto.setState(state);
+            dto.setTotal(total.get());
+            dto.setSent(sent.get());
+            dto.setFailed(failed.get());
+            dto.setErrorMessage(errorMessage);
+            dto.setCreatedAt(createdAt);
+            dto.setStartedAt(startedAt);
+            dto.setFinishedAt(finishedAt);
+            return dto;
+        }
+    }
+}
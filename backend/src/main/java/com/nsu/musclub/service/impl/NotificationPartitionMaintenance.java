@@ -0,0 +1,125 @@
+package com.nsu.musclub.service.impl;
+
+import com.nsu.musclub.config.PushNotificationConfig;
+import com.nsu.musclub.repository.EventNotificationPartitionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+
+/**
+ * Обслуживание секций event_notifications: заблаговременное создание секций будущих месяцев
+ * и очистка старых уведомлений. Секция, целиком вышедшая за срок хранения, удаляется вместе
+ * с журналом доставок её уведомлений; если в ней остались ожидающие уведомления,
+ * завершённые удаляются небольшими пачками, каждая в своей транзакции.
+ */
+@Component
+public class NotificationPartitionMaintenance {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationPartitionMaintenance.class);
+
+    private final EventNotificationPartitionRepository partitionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final PushNotificationConfig config;
+
+    public NotificationPartitionMaintenance(EventNotificationPartitionRepository partitionRepository,
+                                            TransactionTemplate transactionTemplate,
+                                            PushNotificationConfig config) {
+        this.partitionRepository = partitionRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.config = config;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        createUpcomingPartitions();
+    }
+
+    /**
+     * Очистка старых уведомлений и подготовка секций (ежедневно в 3:00)
+     */
+    @Scheduled(cron = "0 0 3 * * *")
+    public void maintain() {
+        createUpcomingPartitions();
+        OffsetDateTime threshold = OffsetDateTime.now(ZoneOffset.UTC).minusDays(config.getNotificationRetentionDays());
+        dropExpiredPartitions(threshold);
+        deleteExpiredNotifications(threshold);
+    }
+
+    void createUpcomingPartitions() {
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        for (int i = 0; i <= config.getPartitionMonthsAhead(); i++) {
+            if (partitionRepository.ensurePartition(current.plusMonths(i))) {
+                log.info("Создана секция уведомлений за {}", current.plusMonths(i));
+            }
+        }
+    }
+
+    /**
+     * Удалить секции, все уведомления которых старше {@code threshold}
+     */
+    public void dropExpiredPartitions(OffsetDateTime threshold) {
+        int chunkSize = Math.max(1, config.getRetentionDeleteChunkSize());
+        for (YearMonth month : partitionRepository.findPartitionMonths()) {
+            OffsetDateTime partitionEnd = month.plusMonths(1).atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC);
+            if (partitionEnd.isAfter(threshold)) {
+                break;
+            }
+            if (partitionRepository.hasPending(month)) {
+                log.warn("Секция уведомлений за {} содержит ожидающие уведомления и не будет удалена", month);
+                continue;
+            }
+            // Основная часть журнала удаляется пачками в отдельных транзакциях, чтобы не держать блокировку секции
+            int deliveries = deleteDeliveries(month, chunkSize);
+            Integer remaining = transactionTemplate.execute(tx -> {
+                // Повторная проверка под блокировкой: уведомление могло вернуться в очередь после первой
+                partitionRepository.lockPartition(month);
+                if (partitionRepository.hasPending(month)) {
+                    return null;
+                }
+                int rest = deleteDeliveries(month, chunkSize);
+                partitionRepository.dropPartition(month);
+                return rest;
+            });
+            if (remaining == null) {
+                log.warn("В секции уведомлений за {} появились ожидающие уведомления, удаление отложено", month);
+                continue;
+            }
+            log.info("Удалена секция уведомлений за {} (записей журнала доставок: {})", month, deliveries + remaining);
+        }
+    }
+
+    private int deleteDeliveries(YearMonth month, int chunkSize) {
+        int total = 0;
+        int deleted;
+        do {
+            deleted = partitionRepository.deleteDeliveriesChunk(month, chunkSize);
+            total += deleted;
+        } while (deleted == chunkSize);
+        return total;
+    }
+
+    /**
+     * Удалить пачками завершённые уведомления, оставшиеся после удаления секций
+     */
+    void deleteExpiredNotifications(OffsetDateTime threshold) {
+        int chunkSize = Math.max(1, config.getRetentionDeleteChunkSize());
+        int total = 0;
+        int deleted;
+        do {
+            deleted = partitionRepository.deleteExpiredChunk(threshold, chunkSize);
+            total += deleted;
+        } while (deleted == chunkSize);
+
+        if (total > 0) {
+            log.info("Deleted {} old notifications (older than {} days)", total, config.getNotificationRetentionDays());
+        }
+    }
+}
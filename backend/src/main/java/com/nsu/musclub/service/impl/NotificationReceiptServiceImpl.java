@@ -0,0 +1,174 @@
+package com.nsu.musclub.service.impl;
+
+import com.nsu.musclub.config.PushNotificationConfig;
+import com.nsu.musclub.dto.push.NotificationReceiptDto;
+import com.nsu.musclub.repository.NotificationReceiptRepository;
+import com.nsu.musclub.repository.NotificationReceiptRepository.Receipt;
+import com.nsu.musclub.repository.NotificationReceiptRepository.ReceiptKey;
+import com.nsu.musclub.service.NotificationReceiptService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Приём подтверждений от service worker через ограниченную очередь ({@code push.receipt-buffer-capacity}).
+ * Запрос только кладёт подтверждение в очередь, запись в журнал доставок выполняется периодически
+ * batch-запросами. При переполнении новые подтверждения отбрасываются, уже принятые не вытесняются.
+ * <p>
+ * Эндпоинт открыт без токена, поэтому подтверждение засчитывается, только если вместе с endpoint
+ * прислан секрет auth той же активной подписки: его знает лишь браузер, владеющий подпиской.
+ * <p>
+ * Подтверждение может прийти раньше, чем рассылка запишет журнал доставок, поэтому ненайденное
+ * подтверждение возвращается в очередь, но только если пара endpoint и auth принадлежит активной подписке,
+ * не больше {@code push.receipt-max-attempts} раз и пока не пройдёт {@code push.receipt-pending-seconds}.
+ * Подтверждения с неизвестной подпиской или чужим auth отбрасываются при первом промахе,
+ * чтобы выдуманные подтверждения не занимали очередь.
+ */
+@Service
+public class NotificationReceiptServiceImpl implements NotificationReceiptService {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationReceiptServiceImpl.class);
+
+    private final BlockingQueue<Receipt> buffer;
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong discarded = new AtomicLong();
+    private final NotificationReceiptRepository receiptRepository;
+    private final PushNotificationConfig config;
+    private final LongSupplier clock;
+
+    @Autowired
+    public NotificationReceiptServiceImpl(NotificationReceiptRepository receiptRepository,
+                                          PushNotificationConfig config) {
+        this(receiptRepository, config, System::currentTimeMillis);
+    }
+
+    public NotificationReceiptServiceImpl(NotificationReceiptRepository receiptRepository,
+                                          PushNotificationConfig config,
+                                          LongSupplier clock) {
+        this.receiptRepository = receiptRepository;
+        this.config = config;
+        this.clock = clock;
+        this.buffer = new ArrayBlockingQueue<>(Math.max(1, config.getReceiptBufferCapacity()));
+    }
+
+    @Override
+    public boolean record(NotificationReceiptDto receipt) {
+        long receivedAt = clock.getAsLong();
+        // Время события задаёт клиент: оно не может быть позже получения сервером
+        OffsetDateTime serverTime = OffsetDateTime.ofInstant(Instant.ofEpochMilli(receivedAt), ZoneOffset.UTC);
+        OffsetDateTime occurredAt = receipt.getOccurredAt();
+        if (occurredAt == null || occurredAt.isAfter(serverTime)) {
+            occurredAt = serverTime;
+        }
+        boolean accepted = buffer.offer(new Receipt(receipt.getNotificationId(), receipt.getEndpoint(),
+                receipt.getAuth(), receipt.getType(), occurredAt, receivedAt, 0));
+        if (!accepted) {
+            dropped.incrementAndGet();
+        }
+        return accepted;
+    }
+
+    public int size() {
+        return buffer.size();
+    }
+
+    /**
+     * Количество подтверждений, отброшенных из-за переполнения очереди
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Количество подтверждений, для которых так и не нашлась запись доставки
+     */
+    public long getDiscarded() {
+        return discarded.get();
+    }
+
+    /**
+     * Записать накопленные подтверждения пачками по {@code push.receipt-batch-size}
+     *
+     * @return количество записанных подтверждений
+     */
+    @Scheduled(fixedDelayString = "${push.receipt-flush-interval:1000}")
+    public int flush() {
+        int batchSize = Math.max(1, config.getReceiptBatchSize());
+        // За один проход обрабатывается не больше, чем было в очереди: возвращённые записи ждут следующего
+        int remaining = buffer.size();
+        int applied = 0;
+        List<Receipt> retry = new ArrayList<>();
+        while (remaining > 0) {
+            List<Receipt> batch = new ArrayList<>(Math.min(batchSize, remaining));
+            buffer.drainTo(batch, Math.min(batchSize, remaining));
+            if (batch.isEmpty()) {
+                break;
+            }
+            remaining -= batch.size();
+            try {
+                Set<ReceiptKey> matched = receiptRepository.applyAll(batch);
+                List<Receipt> missed = new ArrayList<>();
+                for (Receipt receipt : batch) {
+                    if (matched.contains(receipt.key())) {
+                        applied++;
+                    } else {
+                        missed.add(receipt);
+                    }
+                }
+                if (!missed.isEmpty()) {
+                    Set<ReceiptKey> active = receiptRepository.findActiveSubscriptions(
+                            missed.stream().map(receipt -> receipt.key().subscription()).distinct().toList());
+                    for (Receipt receipt : missed) {
+                        if (active.contains(receipt.key().subscription())) {
+                            retryLater(receipt, retry);
+                        } else {
+                            discarded.incrementAndGet();
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                log.error("Не удалось записать {} подтверждений уведомлений: {}", batch.size(), e.getMessage());
+                batch.forEach(receipt -> retryLater(receipt, retry));
+                break;
+            }
+        }
+        retry.forEach(receipt -> {
+            if (!buffer.offer(receipt)) {
+                dropped.incrementAndGet();
+            }
+        });
+        if (applied > 0) {
+            log.debug("Записано {} подтверждений уведомлений", applied);
+        }
+        return applied;
+    }
+
+    private void retryLater(Receipt receipt, List<Receipt> retry) {
+        long expiredBefore = clock.getAsLong() - config.getReceiptPendingSeconds() * 1000;
+        Receipt next = receipt.nextAttempt();
+        if (next.attempts() >= config.getReceiptMaxAttempts() || receipt.receivedAt() <= expiredBefore) {
+            discarded.incrementAndGet();
+            return;
+        }
+        retry.add(next);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+}
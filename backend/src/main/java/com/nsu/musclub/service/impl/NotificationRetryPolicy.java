@@ -0,0 +1,139 @@
+package com.nsu.musclub.service.impl;
+
+import com.nsu.musclub.config.PushNotificationConfig;
+import com.nsu.musclub.domain.EventNotification.Status;
+import com.nsu.musclub.repository.EventNotificationClaimRepository.UpcomingNotification;
+import com.nsu.musclub.repository.EventNotificationRepository;
+import com.nsu.musclub.service.impl.NotificationDispatcher.DispatchResult;
+import com.nsu.musclub.service.impl.NotificationTimer.NotificationsScheduled;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Политика повторных попыток отправки уведомлений.
+ * Задержка растёт экспоненциально от {@code push.retry-base-delay-seconds} до {@code push.retry-max-delay-seconds}
+ * со случайным разбросом (половина задержки), чтобы повторы разных уведомлений не собирались в одну волну.
+ * Если push-сервис передал Retry-After, следующая попытка будет не раньше указанного им срока.
+ * Доставки, отложенные из-за разомкнутой цепи push-сервиса, переносятся на время её восстановления
+ * и попыток не расходуют: запрос получателям не отправлялся.
+ */
+@Component
+public class NotificationRetryPolicy {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationRetryPolicy.class);
+
+    /**
+     * Минимальная задержка отложенной попытки, чтобы не захватывать уведомление в цикле
+     */
+    private static final Duration MIN_DEFERRAL = Duration.ofSeconds(1);
+
+    private final PushNotificationConfig config;
+    private final EventNotificationRepository notificationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public NotificationRetryPolicy(PushNotificationConfig config,
+                                   EventNotificationRepository notificationRepository,
+                                   TransactionTemplate transactionTemplate,
+                                   ApplicationEventPublisher eventPublisher) {
+        this.config = config;
+        this.notificationRepository = notificationRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Задержка перед следующей попыткой
+     *
+     * @param retryCount сколько повторных попыток уже было
+     * @param retryAfter минимальная задержка, запрошенная push-сервисом
+     */
+    public Duration backoff(int retryCount, Duration retryAfter) {
+        long base = Math.max(1, config.getRetryBaseDelaySeconds());
+        long cap = Math.max(base, config.getRetryMaxDelaySeconds());
+        long exponential = Math.min(cap, base << Math.min(Math.max(retryCount, 0), 30));
+        long jittered = exponential / 2 + ThreadLocalRandom.current().nextLong(exponential / 2 + 1);
+
+        Duration delay = Duration.ofSeconds(jittered);
+        return retryAfter != null && retryAfter.compareTo(delay) > 0 ? retryAfter : delay;
+    }
+
+    public boolean canRetry(int retryCount) {
+        return retryCount < config.getMaxRetries();
+    }
+
+    /**
+     * Зафиксировать итог рассылки: если часть получателей не получила уведомление из-за временной ошибки
+     * и попытки не исчерпаны — запланировать повтор; если часть получателей отложена из-за разомкнутой цепи —
+     * перенести попытку на время восстановления, не расходуя повторы; иначе отметить уведомление отправленным
+     */
+    public void recordResult(Long notificationId, int retryCount, DispatchResult result) {
+        if (result.retryable() > 0 && canRetry(retryCount)) {
+            scheduleRetry(notificationId, retryCount, result.retryAfter(),
+                    String.format("Временная ошибка доставки для %d получателей", result.retryable()));
+            return;
+        }
+        if (result.deferred() > 0) {
+            defer(notificationId, result.retryAfter(),
+                    String.format("Доставка %d получателям отложена: push-сервис недоступен", result.deferred()));
+            return;
+        }
+
+        String error = result.retryable() > 0
+                ? String.format("Не доставлено %d получателям после %d попыток", result.retryable(), retryCount + 1)
+                : null;
+        transactionTemplate.executeWithoutResult(tx ->
+                notificationRepository.updateOutcome(notificationId, Status.SENT, OffsetDateTime.now(), error));
+    }
+
+    /**
+     * Зафиксировать сбой рассылки целиком (ошибка БД, недоступность сервиса и т.п.)
+     */
+    public void recordFailure(Long notificationId, int retryCount, String errorMessage) {
+        if (canRetry(retryCount)) {
+            scheduleRetry(notificationId, retryCount, Duration.ZERO, errorMessage);
+            return;
+        }
+
+        log.warn("Уведомление id={} не отправлено после {} попыток: {}", notificationId, retryCount + 1, errorMessage);
+        transactionTemplate.executeWithoutResult(tx ->
+                notificationRepository.updateOutcome(notificationId, Status.FAILED, OffsetDateTime.now(), errorMessage));
+    }
+
+    private void defer(Long notificationId, Duration until, String errorMessage) {
+        Duration delay = until != null && until.compareTo(MIN_DEFERRAL) > 0 ? until : MIN_DEFERRAL;
+        OffsetDateTime nextAttemptAt = OffsetDateTime.now().plus(delay);
+        Integer updated = transactionTemplate.execute(tx ->
+                notificationRepository.deferAttempt(notificationId, nextAttemptAt, errorMessage));
+        if (updated == null || updated == 0) {
+            // Уведомление отменено во время рассылки
+            return;
+        }
+        eventPublisher.publishEvent(new NotificationsScheduled(
+                List.of(new UpcomingNotification(notificationId, nextAttemptAt))));
+        log.info("Уведомление id={}: попытка отложена на {} с до восстановления push-сервиса",
+                notificationId, delay.toSeconds());
+    }
+
+    private void scheduleRetry(Long notificationId, int retryCount, Duration retryAfter, String errorMessage) {
+        Duration delay = backoff(retryCount, retryAfter);
+        OffsetDateTime nextAttemptAt = OffsetDateTime.now().plus(delay);
+        Integer updated = transactionTemplate.execute(tx ->
+                notificationRepository.scheduleRetry(notificationId, nextAttemptAt, errorMessage));
+        if (updated == null || updated == 0) {
+            // Уведомление отменено во время рассылки
+            return;
+        }
+        eventPublisher.publishEvent(new NotificationsScheduled(
+                List.of(new UpcomingNotification(notificationId, nextAttemptAt))));
+        log.info("Уведомление id={}: повторная попытка #{} через {} с", notificationId, retryCount + 1, delay.toSeconds());
+    }
+}
@@ -0,0 +1,246 @@
+package com.nsu.musclub.service.impl;
+
+import com.nsu.musclub.config.PushNotificationConfig;
+import com.nsu.musclub.repository.EventNotificationClaimRepository;
+import com.nsu.musclub.repository.EventNotificationClaimRepository.UpcomingNotification;
+import com.nsu.musclub.repository.PgNotifyPublisher;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Отправка уведомлений точно в срок.
+ * Уведомления, очередная попытка которых наступит в пределах {@code push.timer-preload-window-seconds},
+ * держатся в памяти в {@link TimingWheel} и захватываются в момент наступления срока.
+ * Колесо периодически дозагружается из БД и обновляется событиями планирования и отмены;
+ * о близких по времени уведомлениях, созданных на других узлах, таймер узнаёт из канала
+ * {@value #CHANNEL} (LISTEN/NOTIFY). Периодический опрос {@link PushNotificationScheduler}
+ * остаётся страховкой на случай рассинхронизации.
+ */
+@Component
+public class NotificationTimer {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationTimer.class);
+
+    /**
+     * Канал Postgres с сообщениями о запланированных уведомлениях, формат: {@code id@epochMillis,...}
+     */
+    public static final String CHANNEL = "notification_scheduled";
+
+    private static final int WHEEL_SIZE = 512;
+    private static final long POLL_TIMEOUT_MS = 1000;
+
+    private final EventNotificationClaimRepository claimRepository;
+    private final PushNotificationScheduler scheduler;
+    private final PushNotificationConfig config;
+    private final Executor dispatchExecutor;
+    private final TimingWheel<Long> wheel;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public NotificationTimer(EventNotificationClaimRepository claimRepository,
+                             PushNotificationScheduler scheduler,
+                             PushNotificationConfig config,
+                             PgNotificationListener listener,
+                             @Qualifier("pushTimerExecutor") Executor dispatchExecutor) {
+        this.claimRepository = claimRepository;
+        this.scheduler = scheduler;
+        this.config = config;
+        this.dispatchExecutor = dispatchExecutor;
+        this.wheel = new TimingWheel<>(Math.max(1, config.getTimerTickMs()), WHEEL_SIZE);
+
+        listener.subscribe(CHANNEL, this::onRemoteScheduled);
+        // Пока соединения не было, сообщения могли быть пропущены — догоняем по БД
+        listener.onReconnect(this::preload);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!config.isTimerEnabled()) {
+            log.info("Таймер уведомлений отключён, отправка только по периодическому опросу");
+            return;
+        }
+        running = true;
+        worker = new Thread(this::runLoop, "push-timer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    /**
+     * Загрузить в колесо уведомления, срок которых наступит в ближайшее окно
+     */
+    @Scheduled(fixedDelayString = "${push.timer-preload-interval:60000}")
+    public void preload() {
+        if (!running) {
+            return;
+        }
+        // Не попавшие в лимит уведомления подхватятся следующей дозагрузкой или опросом
+        List<UpcomingNotification> upcoming =
+                claimRepository.findUpcoming(horizon(), Math.max(1, config.getTimerPreloadLimit()));
+        upcoming.forEach(this::track);
+        log.debug("Таймер уведомлений: загружено {}, в колесе {}", upcoming.size(), wheel.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScheduled(NotificationsScheduled event) {
+        if (running) {
+            event.notifications().forEach(this::track);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCancelled(NotificationsCancelled event) {
+        event.notificationIds().forEach(wheel::cancel);
+    }
+
+    public int size() {
+        return wheel.size();
+    }
+
+    /**
+     * Сообщение из канала {@value #CHANNEL}. Если таймер отключён, уже наступившие уведомления
+     * отправляются сразу, остальные дождутся периодического опроса.
+     */
+    private void onRemoteScheduled(String payload) {
+        List<UpcomingNotification> notifications = decode(payload);
+        if (running) {
+            notifications.forEach(this::track);
+            return;
+        }
+        OffsetDateTime now = OffsetDateTime.now();
+        List<Long> due = notifications.stream()
+                .filter(notification -> !notification.nextAttemptAt().isAfter(now))
+                .map(UpcomingNotification::id)
+                .toList();
+        if (!due.isEmpty()) {
+            fire(due);
+        }
+    }
+
+    /**
+     * Упаковать уведомления в сообщения канала {@value #CHANNEL} с учётом ограничения размера NOTIFY
+     */
+    public static List<String> encode(List<UpcomingNotification> notifications) {
+        List<String> payloads = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (UpcomingNotification notification : notifications) {
+            String item = notification.id() + "@" + notification.nextAttemptAt().toInstant().toEpochMilli();
+            if (current.length() > 0 && current.length() + item.length() + 1 > PgNotifyPublisher.MAX_PAYLOAD_LENGTH) {
+                payloads.add(current.toString());
+                current.setLength(0);
+            }
+            if (current.length() > 0) {
+                current.append(',');
+            }
+            current.append(item);
+        }
+        if (current.length() > 0) {
+            payloads.add(current.toString());
+        }
+        return payloads;
+    }
+
+    public static List<UpcomingNotification> decode(String payload) {
+        List<UpcomingNotification> notifications = new ArrayList<>();
+        if (payload == null || payload.isBlank()) {
+            return notifications;
+        }
+        for (String item : payload.split(",")) {
+            int separator = item.indexOf('@');
+            if (separator <= 0) {
+                log.warn("Некорректный элемент сообщения канала {}: {}", CHANNEL, item);
+                continue;
+            }
+            try {
+                long id = Long.parseLong(item.substring(0, separator));
+                long epochMillis = Long.parseLong(item.substring(separator + 1));
+                notifications.add(new UpcomingNotification(id,
+                        OffsetDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC)));
+            } catch (NumberFormatException e) {
+                log.warn("Некорректный элемент сообщения канала {}: {}", CHANNEL, item);
+            }
+        }
+        return notifications;
+    }
+
+    private void track(UpcomingNotification notification) {
+        OffsetDateTime nextAttemptAt = notification.nextAttemptAt();
+        if (nextAttemptAt.isAfter(horizon())) {
+            // Подхватится при очередной дозагрузке
+            return;
+        }
+        if (!wheel.schedule(notification.id(), nextAttemptAt.toInstant().toEpochMilli())) {
+            fire(List.of(notification.id()));
+        }
+    }
+
+    private OffsetDateTime horizon() {
+        return OffsetDateTime.now().plusSeconds(config.getTimerPreloadWindowSeconds());
+    }
+
+    private void fire(List<Long> notificationIds) {
+        try {
+            dispatchExecutor.execute(() -> {
+                try {
+                    scheduler.processDue(notificationIds);
+                } catch (Exception e) {
+                    // Уведомления останутся PENDING и будут подхвачены периодическим опросом
+                    log.error("Ошибка отправки уведомлений по таймеру {}", notificationIds, e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("Очередь отправки по таймеру переполнена, {} уведомлений дождутся периодического опроса",
+                    notificationIds.size());
+        }
+    }
+
+    private void runLoop() {
+        while (running) {
+            try {
+                List<Long> due = wheel.poll(POLL_TIMEOUT_MS);
+                if (!due.isEmpty()) {
+                    fire(due);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Ошибка в потоке таймера уведомлений", e);
+            }
+        }
+    }
+
+    /**
+     * Уведомления запланированы или перенесены (новое время очередной попытки)
+     */
+    public record NotificationsScheduled(List<UpcomingNotification> notifications) {
+    }
+
+    /**
+     * Уведомления отменены
+     */
+    public record NotificationsCancelled(List<Long> notificationIds) {
+    }
+}
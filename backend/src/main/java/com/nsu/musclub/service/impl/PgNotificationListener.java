@@ -0,0 +1,176 @@
+package com.nsu.musclub.service.impl;
+
+import com.nsu.musclub.config.PushNotificationConfig;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Приём сообщений из каналов Postgres (LISTEN).
+ * Держит отдельное соединение вне пула и при его потере переподключается с растущей задержкой;
+ * после переподключения вызываются обработчики {@link #onReconnect(Runnable)}, чтобы подписчики
+ * могли догнать пропущенные сообщения из БД. Пока соединения нет, работа продолжается по опросу.
+ */
+@Component
+public class PgNotificationListener {
+
+    private static final Logger log = LoggerFactory.getLogger(PgNotificationListener.class);
+
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]*");
+    private static final int POLL_TIMEOUT_MS = 1000;
+    private static final long HEALTH_CHECK_INTERVAL_MS = 30000;
+    private static final long INITIAL_RECONNECT_DELAY_MS = 1000;
+    private static final long MAX_RECONNECT_DELAY_MS = 60000;
+
+    private final DataSourceProperties dataSourceProperties;
+    private final PushNotificationConfig config;
+    private final Map<String, List<Consumer<String>>> handlers = new ConcurrentHashMap<>();
+    private final List<Runnable> reconnectHandlers = new CopyOnWriteArrayList<>();
+
+    private volatile boolean running;
+    private volatile boolean connected;
+    private Thread worker;
+
+    public PgNotificationListener(DataSourceProperties dataSourceProperties, PushNotificationConfig config) {
+        this.dataSourceProperties = dataSourceProperties;
+        this.config = config;
+    }
+
+    /**
+     * Подписаться на канал. Подписки регистрируются при инициализации бинов, до старта слушателя.
+     */
+    public void subscribe(String channel, Consumer<String> handler) {
+        if (!CHANNEL_NAME.matcher(channel).matches()) {
+            throw new IllegalArgumentException("Invalid channel name: " + channel);
+        }
+        handlers.computeIfAbsent(channel, key -> new CopyOnWriteArrayList<>()).add(handler);
+    }
+
+    /**
+     * Обработчик, вызываемый после восстановления потерянного соединения
+     */
+    public void onReconnect(Runnable handler) {
+        reconnectHandlers.add(handler);
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!config.isListenEnabled() || handlers.isEmpty()) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::runLoop, "pg-listener");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    private void runLoop() {
+        long reconnectDelay = INITIAL_RECONNECT_DELAY_MS;
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                listen(connection);
+                connected = true;
+                reconnectDelay = INITIAL_RECONNECT_DELAY_MS;
+                log.info("Подписка на каналы Postgres {} установлена", handlers.keySet());
+                if (reconnecting) {
+                    reconnectHandlers.forEach(this::runSafely);
+                }
+                receive(connection);
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Соединение LISTEN потеряно ({}), повтор через {} мс", e.getMessage(), reconnectDelay);
+            }
+
+            connected = false;
+            reconnecting = true;
+            try {
+                Thread.sleep(reconnectDelay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            reconnectDelay = Math.min(reconnectDelay * 2, MAX_RECONNECT_DELAY_MS);
+        }
+    }
+
+    private void listen(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (String channel : handlers.keySet()) {
+                statement.execute("LISTEN " + channel);
+            }
+        }
+    }
+
+    private void receive(Connection connection) throws SQLException {
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        long lastCheck = System.currentTimeMillis();
+        while (running) {
+            PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+            if (notifications != null) {
+                for (PGNotification notification : notifications) {
+                    dispatch(notification.getName(), notification.getParameter());
+                }
+            }
+
+            // Оборванное без FIN соединение getNotifications не замечает — проверяем его явно
+            long now = System.currentTimeMillis();
+            if (now - lastCheck >= HEALTH_CHECK_INTERVAL_MS) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SELECT 1");
+                }
+                lastCheck = now;
+            }
+        }
+    }
+
+    private void dispatch(String channel, String payload) {
+        for (Consumer<String> handler : handlers.getOrDefault(channel, List.of())) {
+            try {
+                handler.accept(payload);
+            } catch (Exception e) {
+                log.error("Ошибка обработки сообщения канала {}: {}", channel, e.getMessage(), e);
+            }
+        }
+    }
+
+    private void runSafely(Runnable handler) {
+        try {
+            handler.run();
+        } catch (Exception e) {
+            log.error("Ошибка обработчика переподключения LISTEN", e);
+        }
+    }
+}
@@ -3,18 +3,18 @@ package com.nsu.musclub.service.impl;
 import com.nsu.musclub.config.PushNotificationConfig;
 import com.nsu.musclub.domain.EventNotification;
 import com.nsu.musclub.domain.EventNotification.Status;
-import com.nsu.musclub.domain.PushSubscription;
 import com.nsu.musclub.dto.push.PushMessageDto;
+import com.nsu.musclub.repository.EventNotificationClaimRepository;
 import com.nsu.musclub.repository.EventNotificationRepository;
-import com.nsu.musclub.repository.PushSubscriptionRepository;
-import com.nsu.musclub.service.WebPushService;
+import com.nsu.musclub.service.impl.NotificationDispatcher.DispatchResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.time.OffsetDateTime;
+import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
 
 @Component
@@ -23,136 +23,86 @@ public class PushNotificationScheduler {
     private static final Logger log = LoggerFactory.getLogger(PushNotificationScheduler.class);
 
     private final EventNotificationRepository notificationRepository;
-    private final PushSubscriptionRepository subscriptionRepository;
-    private final WebPushService webPushService;
+    private final EventNotificationClaimRepository claimRepository;
+    private final NotificationDispatcher dispatcher;
+    private final NotificationRetryPolicy retryPolicy;
+    private final TransactionTemplate transactionTemplate;
     private final PushNotificationConfig config;
 
     public PushNotificationScheduler(EventNotificationRepository notificationRepository,
-                                     PushSubscriptionRepository subscriptionRepository,
-                                     WebPushService webPushService,
+                                     EventNotificationClaimRepository claimRepository,
+                                     NotificationDispatcher dispatcher,
+                                     NotificationRetryPolicy retryPolicy,
+                                     TransactionTemplate transactionTemplate,
                                      PushNotificationConfig config) {
         this.notificationRepository = notificationRepository;
-        this.subscriptionRepository = subscriptionRepository;
-        this.webPushService = webPushService;
+        this.claimRepository = claimRepository;
+        this.dispatcher = dispatcher;
+        this.retryPolicy = retryPolicy;
+        this.transactionTemplate = transactionTemplate;
         this.config = config;
     }
 
     /**
-     * Обработка pending уведомлений каждые 30 секунд
+     * Обработка уведомлений, время отправки (или повторной попытки) которых наступило.
+     * Уведомления захватываются пачками, пока очередь не опустеет. В штатном режиме уведомления
+     * отправляет {@link NotificationTimer}, опрос подхватывает пропущенные им (после рестарта, при отключённом
+     * таймере, переполнении его очереди или лимита дозагрузки), поэтому интервал опроса определяет
+     * наибольшую задержку в этих случаях и остаётся коротким.
      */
     @Scheduled(fixedDelayString = "${push.scheduler-interval:30000}")
-    @Transactional
     public void processPendingNotifications() {
-        OffsetDateTime now = OffsetDateTime.now();
-        List<EventNotification> pendingNotifications =
-                notificationRepository.findByStatusAndSendAtLessThanEqual(Status.PENDING, now);
-
-        if (pendingNotifications.isEmpty()) {
-            return;
-        }
-
-        log.info("Processing {} pending push notifications", pendingNotifications.size());
-
-        int sentCount = 0;
-        int failedCount = 0;
-
-        for (EventNotification notification : pendingNotifications) {
-            try {
-                boolean success = sendPushNotification(notification);
-
-                if (success) {
-                    notification.setStatus(Status.SENT);
-                    notification.setSentAt(OffsetDateTime.now());
-                    sentCount++;
-                } else {
-                    handleFailedNotification(notification, "Нет активных подписок для пользователя");
-                    failedCount++;
-                }
-            } catch (Exception e) {
-                log.error("Error processing notification id={}", notification.getId(), e);
-                handleFailedNotification(notification, e.getMessage());
-                failedCount++;
+        int batchSize = Math.max(1, config.getClaimBatchSize());
+        Duration lease = Duration.ofSeconds(config.getClaimLeaseSeconds());
+
+        List<Long> claimed;
+        do {
+            claimed = claimRepository.claimDue(batchSize, lease);
+            if (!claimed.isEmpty()) {
+                log.info("Processing {} due push notifications", claimed.size());
             }
-        }
-
-        log.info("Push notification processing complete: sent={}, failed={}", sentCount, failedCount);
+            claimed.forEach(this::processClaimed);
+        } while (claimed.size() == batchSize);
     }
 
     /**
-     * Повторная отправка неудачных уведомлений (каждые 5 минут)
+     * Обработать уведомления, срок которых наступил по таймеру.
+     * Уведомления, уже захваченные другим узлом или отменённые, пропускаются.
      */
-    @Scheduled(fixedDelay = 300000) // 5 минут
-    @Transactional
-    public void retryFailedNotifications() {
-        List<EventNotification> failedNotifications =
-                notificationRepository.findFailedForRetry(config.getMaxRetries());
-
-        if (failedNotifications.isEmpty()) {
-            return;
-        }
-
-        log.info("Retrying {} failed push notifications", failedNotifications.size());
-
-        for (EventNotification notification : failedNotifications) {
-            notification.incrementRetryCount();
-            notification.setStatus(Status.PENDING); // Возвращаем в очередь
-            notification.setErrorMessage(null);
-        }
+    public void processDue(Collection<Long> notificationIds) {
+        Duration lease = Duration.ofSeconds(config.getClaimLeaseSeconds());
+        claimRepository.claimDueByIds(notificationIds, lease).forEach(this::processClaimed);
     }
 
     /**
-     * Очистка старых уведомлений (ежедневно в 3:00)
+     * Разослать захваченное уведомление и зафиксировать итог: успех или повтор с задержкой
      */
-    @Scheduled(cron = "0 0 3 * * *")
-    @Transactional
-    public void cleanupOldNotifications() {
-        OffsetDateTime threshold = OffsetDateTime.now().minusDays(config.getNotificationRetentionDays());
-        int deleted = notificationRepository.deleteOldNotifications(threshold);
-
-        if (deleted > 0) {
-            log.info("Deleted {} old notifications (older than {} days)",
-                    deleted, config.getNotificationRetentionDays());
+    private void processClaimed(Long notificationId) {
+        EventNotification notification = transactionTemplate.execute(tx ->
+                notificationRepository.findById(notificationId).orElse(null));
+        if (notification == null || notification.getStatus() != Status.PENDING) {
+            // Уведомление отменено после захвата
+            return;
         }
-    }
-
-    /**
-     * Отправить push-уведомление пользователю
-     */
-    private boolean sendPushNotification(EventNotification notification) {
-        Long userId = notification.getUser().getId();
-        List<PushSubscription> subscriptions = subscriptionRepository.findByUserIdAndActiveTrue(userId);
 
-        if (subscriptions.isEmpty()) {
-            log.debug("No active subscriptions for user id={}", userId);
-            return false;
+        try {
+            DispatchResult result = dispatcher.dispatch(notification, toPushMessage(notification));
+            retryPolicy.recordResult(notificationId, notification.getRetryCount(), result);
+            log.debug("Notification id={} processed: delivered={}, undelivered={}, retryable={}",
+                    notificationId, result.sent(), result.failed(), result.retryable());
+        } catch (Exception e) {
+            log.error("Error processing notification id={}", notificationId, e);
+            retryPolicy.recordFailure(notificationId, notification.getRetryCount(), e.getMessage());
         }
+    }
 
-        PushMessageDto message = PushMessageDto.builder()
+    private PushMessageDto toPushMessage(EventNotification notification) {
+        return PushMessageDto.builder()
                 .title(notification.getTitle())
                 .body(notification.getBody())
                 .tag("event-" + notification.getEvent().getId() + "-" + notification.getNotificationType().name())
                 .actionUrl(notification.getActionUrl())
+                .notificationId(notification.getId())
                 .build();
-
-        boolean atLeastOneSent = false;
-        for (PushSubscription subscription : subscriptions) {
-            if (webPushService.sendPushNotification(subscription, message)) {
-                atLeastOneSent = true;
-            }
-        }
-
-        return atLeastOneSent;
-    }
-
-    private void handleFailedNotification(EventNotification notification, String errorMessage) {
-        notification.incrementRetryCount();
-        notification.setErrorMessage(errorMessage);
-
-        if (notification.getRetryCount() >= config.getMaxRetries()) {
-            notification.setStatus(Status.FAILED);
-            log.warn("Notification id={} failed after {} retries",
-                    notification.getId(), notification.getRetryCount());
-        }
-        // Иначе останется PENDING для следующей попытки
     }
 }
@@ -0,0 +1,235 @@
+package com.nsu.musclub.service.impl;
+
+import com.nsu.musclub.config.PushNotificationConfig;
+import com.nsu.musclub.dto.push.PushOriginHealthDto;
+import com.nsu.musclub.dto.push.PushOriginHealthDto.State;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Учёт задержек и ошибок доставки по push-сервисам (origin endpoint-а) и circuit breaker для каждого из них.
+ * Если доля ошибок в скользящем окне последних запросов превышает порог, доставка на этот push-сервис
+ * приостанавливается на паузу, растущую экспоненциально при повторных срабатываниях;
+ * уведомления его получателям откладываются механизмом повторных попыток, остальные доставляются как обычно.
+ * По окончании паузы пропускается один пробный запрос: успех закрывает circuit breaker, ошибка открывает снова.
+ */
+@Component
+public class PushOriginHealthTracker {
+
+    private static final Logger log = LoggerFactory.getLogger(PushOriginHealthTracker.class);
+
+    /**
+     * Коэффициент сглаживания времени ответа
+     */
+    private static final double LATENCY_ALPHA = 0.2;
+
+    private final Map<String, OriginCircuit> circuits = new ConcurrentHashMap<>();
+    private final PushNotificationConfig config;
+
+    public PushOriginHealthTracker(PushNotificationConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Origin push-сервиса (схема, хост и порт endpoint-а)
+     */
+    public static String originOf(String endpoint) {
+        URI uri = URI.create(endpoint);
+        String origin = uri.getScheme() + "://" + uri.getHost();
+        return uri.getPort() == -1 ? origin : origin + ":" + uri.getPort();
+    }
+
+    /**
+     * Можно ли отправить запрос на push-сервис
+     *
+     * @return {@link Duration#ZERO}, если запрос разрешён, иначе рекомендуемая задержка до следующей попытки
+     */
+    public Duration acquire(String origin) {
+        return acquire(origin, Instant.now());
+    }
+
+    public Duration acquire(String origin, Instant now) {
+        return circuit(origin).acquire(now);
+    }
+
+    /**
+     * Зафиксировать результат запроса к push-сервису
+     *
+     * @param failure ошибка на стороне push-сервиса (таймаут, 429, 5xx) или слишком медленный ответ
+     */
+    public void record(String origin, boolean failure, long latencyMs, String error) {
+        record(origin, failure, latencyMs, error, Instant.now());
+    }
+
+    public void record(String origin, boolean failure, long latencyMs, String error, Instant now) {
+        boolean slow = latencyMs >= config.getCircuitSlowCallMs();
+        if (!failure && slow) {
+            error = "Slow response: " + latencyMs + " ms";
+        }
+        circuit(origin).record(failure || slow, latencyMs, error, now);
+    }
+
+    /**
+     * Вернуть разрешение, полученное {@link #acquire}, если запрос так и не был выполнен
+     */
+    public void release(String origin) {
+        circuit(origin).release();
+    }
+
+    public List<PushOriginHealthDto> getHealth() {
+        return circuits.values().stream()
+                .map(OriginCircuit::toDto)
+                .sorted(Comparator.comparing(PushOriginHealthDto::getOrigin))
+                .toList();
+    }
+
+    private OriginCircuit circuit(String origin) {
+        return circuits.computeIfAbsent(origin, OriginCircuit::new);
+    }
+
+    private class OriginCircuit {
+
+        private final String origin;
+
+        /**
+         * Скользящее окно результатов последних запросов: true — ошибка
+         */
+        private final boolean[] window = new boolean[Math.max(1, config.getCircuitWindowSize())];
+        private int windowNext;
+        private int windowCount;
+        private int windowFailures;
+
+        private long requests;
+        private long failures;
+        private double averageLatencyMs;
+
+        private State state = State.CLOSED;
+        private Instant openUntil;
+        private int consecutiveOpens;
+        private boolean probeInFlight;
+        private Instant lastFailureAt;
+        private String lastError;
+
+        OriginCircuit(String origin) {
+            this.origin = origin;
+        }
+
+        synchronized Duration acquire(Instant now) {
+            if (state == State.OPEN) {
+                if (now.isBefore(openUntil)) {
+                    return Duration.between(now, openUntil);
+                }
+                state = State.HALF_OPEN;
+                probeInFlight = false;
+            }
+            if (state == State.HALF_OPEN) {
+                if (probeInFlight) {
+                    return Duration.ofSeconds(config.getCircuitOpenSeconds());
+                }
+                probeInFlight = true;
+            }
+            return Duration.ZERO;
+        }
+
+        synchronized void release() {
+            if (state == State.HALF_OPEN) {
+                probeInFlight = false;
+            }
+        }
+
+        synchronized void record(boolean failure, long latencyMs, String error, Instant now) {
+            requests++;
+            averageLatencyMs = requests == 1
+                    ? latencyMs
+                    : LATENCY_ALPHA * latencyMs + (1 - LATENCY_ALPHA) * averageLatencyMs;
+            if (failure) {
+                failures++;
+                lastFailureAt = now;
+                lastError = error;
+            }
+
+            if (state == State.HALF_OPEN) {
+                probeInFlight = false;
+                if (failure) {
+                    open(now);
+                } else {
+                    log.info("Push-сервис {} снова доступен, circuit breaker закрыт", origin);
+                    state = State.CLOSED;
+                    consecutiveOpens = 0;
+                    resetWindow();
+                }
+                return;
+            }
+            if (state == State.OPEN) {
+                // Запрос был начат до открытия circuit breaker
+                return;
+            }
+
+            if (windowCount == window.length) {
+                if (window[windowNext]) {
+                    windowFailures--;
+                }
+            } else {
+                windowCount++;
+            }
+            window[windowNext] = failure;
+            if (failure) {
+                windowFailures++;
+            }
+            windowNext = (windowNext + 1) % window.length;
+
+            if (windowCount >= config.getCircuitMinimumRequests()
+                    && errorRate() >= config.getCircuitFailureRateThreshold()) {
+                open(now);
+            }
+        }
+
+        private void open(Instant now) {
+            consecutiveOpens++;
+            long base = Math.max(1, config.getCircuitOpenSeconds());
+            long pause = Math.min(Math.max(base, config.getCircuitMaxOpenSeconds()),
+                    base << Math.min(consecutiveOpens - 1, 20));
+            state = State.OPEN;
+            openUntil = now.plusSeconds(pause);
+            resetWindow();
+            log.warn("Push-сервис {} недоступен (последняя ошибка: {}), доставка приостановлена на {} с",
+                    origin, lastError, pause);
+        }
+
+        private void resetWindow() {
+            windowNext = 0;
+            windowCount = 0;
+            windowFailures = 0;
+        }
+
+        private double errorRate() {
+            return windowCount == 0 ? 0 : (double) windowFailures / windowCount;
+        }
+
+        synchronized PushOriginHealthDto toDto() {
+            PushOriginHealthDto dto = new PushOriginHealthDto();
+            dto.setOrigin(origin);
+            dto.setState(state);
+            dto.setRequests(requests);
+            dto.setFailures(failures);
+            dto.setErrorRate(errorRate());
+            dto.setAverageLatencyMs(averageLatencyMs);
+            dto.setConsecutiveOpens(consecutiveOpens);
+            dto.setOpenUntil(state == State.OPEN ? OffsetDateTime.ofInstant(openUntil, ZoneOffset.UTC) : null);
+            dto.setLastFailureAt(lastFailureAt != null ? OffsetDateTime.ofInstant(lastFailureAt, ZoneOffset.UTC) : null);
+            dto.setLastError(lastError);
+            return dto;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.nsu.musclub.service.impl;
+
+import com.nsu.musclub.config.PushNotificationConfig;
+import com.nsu.musclub.dto.push.ActivePushSubscription;
+import com.nsu.musclub.repository.PgNotifyPublisher;
+import com.nsu.musclub.repository.PushSubscriptionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Кэш активных push-подписок: userId → неизменяемый список {@link ActivePushSubscription}.
+ * Изменения подписок инвалидируют записи после фиксации транзакции на этом узле и через канал
+ * {@value #CHANNEL} (LISTEN/NOTIFY) на остальных. Запись, загруженная параллельно с инвалидацией,
+ * в кэш не попадает; после переподключения слушателя кэш очищается целиком, а время жизни записи
+ * ограничено {@code push.subscription-cache-ttl-seconds} на случай пропущенных сообщений.
+ */
+@Component
+public class PushSubscriptionRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(PushSubscriptionRegistry.class);
+
+    /**
+     * Канал Postgres с идентификаторами пользователей, подписки которых изменились ({@code *} — все)
+     */
+    public static final String CHANNEL = "push_subscription_changed";
+
+    private static final String ALL = "*";
+
+    /**
+     * Максимальный размер IN-списка при загрузке подписок
+     */
+    private static final int QUERY_CHUNK = 1000;
+
+    private final Map<Long, Entry> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Увеличивается при каждой инвалидации; загрузка, начатая до неё, не кэшируется
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final PushSubscriptionRepository subscriptionRepository;
+    private final PgNotifyPublisher notifyPublisher;
+    private final PushNotificationConfig config;
+
+    public PushSubscriptionRegistry(PushSubscriptionRepository subscriptionRepository,
+                                    PgNotifyPublisher notifyPublisher,
+                                    PgNotificationListener listener,
+                                    PushNotificationConfig config) {
+        this.subscriptionRepository = subscriptionRepository;
+        this.notifyPublisher = notifyPublisher;
+        this.config = config;
+
+        listener.subscribe(CHANNEL, this::onRemoteChange);
+        listener.onReconnect(this::invalidateAll);
+    }
+
+    /**
+     * Активные подписки пользователя
+     */
+    public List<ActivePushSubscription> getActive(Long userId) {
+        return getActive(List.of(userId)).getOrDefault(userId, List.of());
+    }
+
+    /**
+     * Активные подписки пользователей; пользователи без подписок в результат не попадают
+     */
+    public Map<Long, List<ActivePushSubscription>> getActive(Collection<Long> userIds) {
+        long now = System.currentTimeMillis();
+        Map<Long, List<ActivePushSubscription>> result = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long userId : userIds) {
+            Entry entry = cache.get(userId);
+            if (entry != null && entry.expiresAt() > now) {
+                if (!entry.subscriptions().isEmpty()) {
+                    result.put(userId, entry.subscriptions());
+                }
+            } else {
+                missing.add(userId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            result.putAll(load(missing, now));
+        }
+        return result;
+    }
+
+    /**
+     * Сбросить записи пользователей после фиксации текущей транзакции на всех узлах.
+     * Должен вызываться в транзакции, изменяющей подписки.
+     */
+    public void invalidate(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(userIds);
+        evict(ids);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Читатель мог загрузить старое состояние до фиксации — сбрасываем ещё раз после неё
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(ids);
+                }
+            });
+        }
+        String payload = ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+        notifyPublisher.publish(CHANNEL, payload.length() <= PgNotifyPublisher.MAX_PAYLOAD_LENGTH ? payload : ALL);
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.clear();
+        log.debug("Кэш push-подписок очищен");
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    private Map<Long, List<ActivePushSubscription>> load(List<Long> userIds, long now) {
+        long loadGeneration = generation.get();
+        Map<Long, List<ActivePushSubscription>> loaded = new HashMap<>();
+        for (int from = 0; from < userIds.size(); from += QUERY_CHUNK) {
+            List<Long> chunk = userIds.subList(from, Math.min(from + QUERY_CHUNK, userIds.size()));
+            subscriptionRepository.findActiveByUserIds(chunk).stream()
+                    .map(ActivePushSubscription::of)
+                    .forEach(subscription -> loaded.computeIfAbsent(subscription.userId(), id -> new ArrayList<>())
+                            .add(subscription));
+        }
+        loaded.replaceAll((userId, subscriptions) -> List.copyOf(subscriptions));
+
+        long expiresAt = now + config.getSubscriptionCacheTtlSeconds() * 1000;
+        for (Long userId : userIds) {
+            cache.put(userId, new Entry(loaded.getOrDefault(userId, List.of()), expiresAt));
+        }
+        if (generation.get() != loadGeneration) {
+            // Параллельная инвалидация: загруженные данные могли устареть
+            userIds.forEach(cache::remove);
+        }
+        trim();
+        return loaded;
+    }
+
+    private void evict(Collection<Long> userIds) {
+        generation.incrementAndGet();
+        userIds.forEach(cache::remove);
+    }
+
+    private void onRemoteChange(String payload) {
+        if (payload == null || payload.isBlank() || ALL.equals(payload)) {
+            invalidateAll();
+            return;
+        }
+        List<Long> userIds = new ArrayList<>();
+        for (String item : payload.split(",")) {
+            try {
+                userIds.add(Long.parseLong(item.trim()));
+            } catch (NumberFormatException e) {
+                log.warn("Некорректный элемент сообщения канала {}: {}", CHANNEL, item);
+            }
+        }
+        evict(userIds);
+    }
+
+    /**
+     * Ограничить размер кэша: при переполнении вытесняются произвольные записи
+     */
+    private void trim() {
+        int excess = cache.size() - Math.max(1, config.getSubscriptionCacheMaxUsers());
+        Iterator<Long> iterator = cache.keySet().iterator();
+        while (excess-- > 0 && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private record Entry(List<ActivePushSubscription> subscriptions, long expiresAt) {
+    }
+}
@@ -13,8 +13,10 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -28,11 +30,14 @@ public class PushSubscriptionServiceImpl implements PushSubscriptionService {
 
     private final PushSubscriptionRepository subscriptionRepository;
     private final UserRepository userRepository;
+    private final PushSubscriptionRegistry subscriptionRegistry;
 
     public PushSubscriptionServiceImpl(PushSubscriptionRepository subscriptionRepository,
-                                       UserRepository userRepository) {
+                                       UserRepository userRepository,
+                                       PushSubscriptionRegistry subscriptionRegistry) {
         this.subscriptionRepository = subscriptionRepository;
         this.userRepository = userRepository;
+        this.subscriptionRegistry = subscriptionRegistry;
     }
 
     @Override
@@ -44,9 +49,13 @@ public class PushSubscriptionServiceImpl implements PushSubscriptionService {
         Optional<PushSubscription> existingSubscription = subscriptionRepository.findByEndpoint(dto.getEndpoint());
 
         PushSubscription subscription;
+        Set<Long> affectedUsers = new HashSet<>();
+        affectedUsers.add(user.getId());
         if (existingSubscription.isPresent()) {
             // Обновляем существующую подписку
             subscription = existingSubscription.get();
+            // Подписка могла принадлежать другому пользователю того же браузера
+            affectedUsers.add(subscription.getUser().getId());
             subscription.setUser(user);
             subscription.setP256dhKey(dto.getP256dh());
             subscription.setAuthKey(dto.getAuth());
@@ -65,11 +74,14 @@ public class PushSubscriptionServiceImpl implements PushSubscriptionService {
         }
 
         subscription = subscriptionRepository.save(subscription);
+        subscriptionRegistry.invalidate(affectedUsers);
         return toResponseDto(subscription);
     }
 
     @Override
     public void unsubscribe(String endpoint) {
+        subscriptionRepository.findByEndpoint(endpoint)
+                .ifPresent(subscription -> subscriptionRegistry.invalidate(List.of(subscription.getUser().getId())));
         subscriptionRepository.deactivateByEndpoint(endpoint);
         log.info("Deactivated push subscription with endpoint: {}...",
                 endpoint.substring(0, Math.min(50, endpoint.length())));
@@ -78,6 +90,7 @@ public class PushSubscriptionServiceImpl implements PushSubscriptionService {
     @Override
     public void unsubscribeAllForUser(Long userId) {
         subscriptionRepository.deactivateAllByUserId(userId);
+        subscriptionRegistry.invalidate(List.of(userId));
         log.info("Deactivated all push subscriptions for user id={}", userId);
     }
 
@@ -93,13 +106,13 @@ public class PushSubscriptionServiceImpl implements PushSubscriptionService {
     @Override
     @Transactional(readOnly = true)
     public boolean isUserSubscribed(Long userId) {
-        return subscriptionRepository.countByUserIdAndActiveTrue(userId) > 0;
+        return !subscriptionRegistry.getActive(userId).isEmpty();
     }
 
     @Override
     @Transactional(readOnly = true)
     public long getSubscriptionCount(Long userId) {
-        return subscriptionRepository.countByUserIdAndActiveTrue(userId);
+        return subscriptionRegistry.getActive(userId).size();
     }
 
     private PushSubscriptionResponseDto toResponseDto(PushSubscription subscription) {
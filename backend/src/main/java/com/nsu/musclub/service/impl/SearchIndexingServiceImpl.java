@@ -14,6 +14,7 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 @Service
@@ -68,6 +69,13 @@ public class SearchIndexingServiceImpl implements SearchIndexingService {
         }
     }
 
+    @Override
+    public void removeEvents(Collection<Long> eventIds) {
+        if (eventIds != null) {
+            searchRepository.deleteDocuments(SearchEntityType.EVENT, eventIds);
+        }
+    }
+
     @Override
     public void removeUser(Long userId) {
         if (userId != null) {
@@ -0,0 +1,233 @@
+package com.nsu.musclub.service.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Иерархическое колесо таймеров.
+ * Нижний уровень делит время на тики по {@code tickMs}, каждый следующий уровень покрывает полный оборот
+ * предыдущего; уровни создаются по мере необходимости. Непустые корзины помещаются в {@link DelayQueue},
+ * поэтому поток-обработчик спит до ближайшей корзины, а не опрашивает колесо на каждом тике.
+ * Ключ срабатывает не раньше своего срока и не позже чем через один тик после него.
+ *
+ * @param <K> ключ таймера (повторное планирование того же ключа заменяет срок)
+ */
+public class TimingWheel<K> {
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final LongSupplier clock;
+    private final DelayQueue<Bucket<K>> delayQueue = new DelayQueue<>();
+    private final Map<K, Entry<K>> entries = new HashMap<>();
+    private final Level root;
+
+    public TimingWheel(long tickMs, int wheelSize) {
+        this(tickMs, wheelSize, System::currentTimeMillis);
+    }
+
+    /**
+     * @param clock источник текущего времени (epoch millis)
+     */
+    public TimingWheel(long tickMs, int wheelSize, LongSupplier clock) {
+        if (tickMs <= 0 || wheelSize <= 1) {
+            throw new IllegalArgumentException("tickMs must be positive and wheelSize greater than 1");
+        }
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.clock = clock;
+        this.root = new Level(tickMs, clock.getAsLong());
+    }
+
+    /**
+     * Запланировать срабатывание ключа
+     *
+     * @param deadlineMs момент срабатывания (epoch millis)
+     * @return false, если срок уже наступил — ключ в колесо не добавлен и обрабатывать его нужно сразу
+     */
+    public synchronized boolean schedule(K key, long deadlineMs) {
+        removeEntry(key);
+        // Округляем вверх до границы тика, чтобы ключ не сработал раньше срока
+        long fireAt = Math.floorDiv(deadlineMs + tickMs - 1, tickMs) * tickMs;
+        Entry<K> entry = new Entry<>(key, fireAt);
+        if (!root.add(entry)) {
+            return false;
+        }
+        entries.put(key, entry);
+        return true;
+    }
+
+    /**
+     * Отменить таймер ключа
+     *
+     * @return true, если ключ был запланирован
+     */
+    public synchronized boolean cancel(K key) {
+        return removeEntry(key);
+    }
+
+    public synchronized boolean contains(K key) {
+        return entries.containsKey(key);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Дождаться ближайшей корзины (не дольше {@code timeoutMs}) и вернуть ключи, срок которых наступил
+     */
+    public List<K> poll(long timeoutMs) throws InterruptedException {
+        Bucket<K> bucket = delayQueue.poll(timeoutMs, TimeUnit.MILLISECONDS);
+        List<K> expired = new ArrayList<>();
+        if (bucket == null) {
+            return expired;
+        }
+        synchronized (this) {
+            while (bucket != null) {
+                root.advanceClock(bucket.getExpiration());
+                for (Entry<K> entry : bucket.drain()) {
+                    // Записи верхних уровней переезжают на нижние, истёкшие — возвращаются вызывающему
+                    if (!root.add(entry)) {
+                        entries.remove(entry.key);
+                        expired.add(entry.key);
+                    }
+                }
+                bucket = delayQueue.poll();
+            }
+        }
+        return expired;
+    }
+
+    private boolean removeEntry(K key) {
+        Entry<K> entry = entries.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        if (entry.bucket != null) {
+            entry.bucket.remove(entry);
+        }
+        return true;
+    }
+
+    /**
+     * Уровень колеса: {@code wheelSize} корзин по {@code tickMs} миллисекунд
+     */
+    private final class Level {
+
+        private final long tickMs;
+        private final long interval;
+        private final List<Bucket<K>> buckets;
+        private long currentTime;
+        private Level overflow;
+
+        private Level(long tickMs, long startMs) {
+            this.tickMs = tickMs;
+            this.interval = tickMs * wheelSize;
+            this.currentTime = startMs - Math.floorMod(startMs, tickMs);
+            this.buckets = new ArrayList<>(wheelSize);
+            for (int i = 0; i < wheelSize; i++) {
+                buckets.add(new Bucket<>(clock));
+            }
+        }
+
+        private boolean add(Entry<K> entry) {
+            long fireAt = entry.fireAt;
+            if (fireAt < currentTime + tickMs) {
+                return false;
+            }
+            if (fireAt < currentTime + interval) {
+                long virtualId = Math.floorDiv(fireAt, tickMs);
+                Bucket<K> bucket = buckets.get((int) Math.floorMod(virtualId, (long) wheelSize));
+                bucket.add(entry);
+                if (bucket.setExpiration(virtualId * tickMs)) {
+                    delayQueue.offer(bucket);
+                }
+                return true;
+            }
+            if (overflow == null) {
+                overflow = new Level(interval, currentTime);
+            }
+            return overflow.add(entry);
+        }
+
+        private void advanceClock(long timeMs) {
+            if (timeMs >= currentTime + tickMs) {
+                currentTime = timeMs - Math.floorMod(timeMs, tickMs);
+                if (overflow != null) {
+                    overflow.advanceClock(currentTime);
+                }
+            }
+        }
+    }
+
+    private static final class Entry<K> {
+
+        private final K key;
+        private final long fireAt;
+        private Bucket<K> bucket;
+
+        private Entry(K key, long fireAt) {
+            this.key = key;
+            this.fireAt = fireAt;
+        }
+    }
+
+    private static final class Bucket<K> implements Delayed {
+
+        private final LongSupplier clock;
+        private final AtomicLong expiration = new AtomicLong(-1);
+        private final Set<Entry<K>> entries = new LinkedHashSet<>();
+
+        private Bucket(LongSupplier clock) {
+            this.clock = clock;
+        }
+
+        private void add(Entry<K> entry) {
+            entry.bucket = this;
+            entries.add(entry);
+        }
+
+        private void remove(Entry<K> entry) {
+            entries.remove(entry);
+            entry.bucket = null;
+        }
+
+        private List<Entry<K>> drain() {
+            List<Entry<K>> drained = new ArrayList<>(entries);
+            entries.clear();
+            drained.forEach(entry -> entry.bucket = null);
+            expiration.set(-1);
+            return drained;
+        }
+
+        /**
+         * @return true, если срок корзины изменился и её нужно заново поставить в очередь
+         */
+        private boolean setExpiration(long expirationMs) {
+            return expiration.getAndSet(expirationMs) != expirationMs;
+        }
+
+        private long getExpiration() {
+            return expiration.get();
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(Math.max(expiration.get() - clock.getAsLong(), 0), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(expiration.get(), ((Bucket<?>) other).expiration.get());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.nsu.musclub.service.impl;
+
+import nl.martijndwars.webpush.Base64Encoder;
+import org.jose4j.jws.AlgorithmIdentifiers;
+import org.jose4j.jws.JsonWebSignature;
+import org.jose4j.jwt.JwtClaims;
+import org.jose4j.jwt.NumericDate;
+import org.jose4j.lang.JoseException;
+
+import java.net.URI;
+import java.security.PrivateKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Кэш заголовков VAPID-авторизации (RFC 8292).
+ * JWT подписывается один раз на push-сервис (audience = origin endpoint) и переиспользуется
+ * до момента незадолго до истечения срока действия.
+ */
+public class VapidAuthorizationCache {
+
+    /**
+     * Срок действия токена (push-сервисы принимают не более 24 часов)
+     */
+    public static final Duration TOKEN_TTL = Duration.ofHours(12);
+
+    /**
+     * За сколько до истечения токен перевыпускается
+     */
+    public static final Duration REFRESH_MARGIN = Duration.ofHours(1);
+
+    private final PrivateKey privateKey;
+    private final String publicKey;
+    private final String subject;
+    private final Map<String, CachedHeader> headers = new ConcurrentHashMap<>();
+
+    public VapidAuthorizationCache(PrivateKey privateKey, String publicKey, String subject) {
+        this.privateKey = privateKey;
+        this.publicKey = Base64Encoder.encodeUrlWithoutPadding(Base64Encoder.decode(publicKey));
+        this.subject = subject;
+    }
+
+    /**
+     * Значение заголовка Authorization для endpoint подписки
+     */
+    public String authorizationHeader(String endpoint) {
+        String audience = audienceOf(endpoint);
+        Instant now = Instant.now();
+        CachedHeader cached = headers.get(audience);
+        if (cached != null && now.isBefore(cached.refreshAt())) {
+            return cached.value();
+        }
+        return headers.compute(audience, (key, current) ->
+                current != null && now.isBefore(current.refreshAt()) ? current : sign(key, now)).value();
+    }
+
+    public int size() {
+        return headers.size();
+    }
+
+    private CachedHeader sign(String audience, Instant now) {
+        Instant expiresAt = now.plus(TOKEN_TTL);
+
+        JwtClaims claims = new JwtClaims();
+        claims.setAudience(audience);
+        claims.setExpirationTime(NumericDate.fromSeconds(expiresAt.getEpochSecond()));
+        if (subject != null) {
+            claims.setSubject(subject);
+        }
+
+        JsonWebSignature jws = new JsonWebSignature();
+        jws.setHeader("typ", "JWT");
+        jws.setPayload(claims.toJson());
+        jws.setKey(privateKey);
+        jws.setAlgorithmHeaderValue(AlgorithmIdentifiers.ECDSA_USING_P256_CURVE_AND_SHA256);
+
+        try {
+            String value = "vapid t=" + jws.getCompactSerialization() + ", k=" + publicKey;
+            return new CachedHeader(value, expiresAt.minus(REFRESH_MARGIN));
+        } catch (JoseException e) {
+            throw new IllegalStateException("Не удалось подписать VAPID-токен для " + audience, e);
+        }
+    }
+
+    private static String audienceOf(String endpoint) {
+        URI uri = URI.create(endpoint);
+        String audience = uri.getScheme() + "://" + uri.getHost();
+        return uri.getPort() == -1 ? audience : audience + ":" + uri.getPort();
+    }
+
+    private record CachedHeader(String value, Instant refreshAt) {
+    }
+}
@@ -1,23 +1,40 @@
 package com.nsu.musclub.service.impl;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.nsu.musclub.config.PushNotificationConfig;
-import com.nsu.musclub.domain.PushSubscription;
+import com.nsu.musclub.dto.push.ActivePushSubscription;
+import com.nsu.musclub.dto.push.EncodedPushMessage;
+import com.nsu.musclub.dto.push.PushDeliveryResult;
 import com.nsu.musclub.dto.push.PushMessageDto;
-import com.nsu.musclub.repository.PushSubscriptionRepository;
+import com.nsu.musclub.dto.push.PushOriginHealthDto;
+import com.nsu.musclub.exception.PushNotificationException;
 import com.nsu.musclub.service.WebPushService;
-import nl.martijndwars.webpush.Notification;
-import nl.martijndwars.webpush.PushService;
-import nl.martijndwars.webpush.Subscription;
+import nl.martijndwars.webpush.AbstractPushService;
+import nl.martijndwars.webpush.Base64Encoder;
+import nl.martijndwars.webpush.Encoding;
+import nl.martijndwars.webpush.Encrypted;
+import nl.martijndwars.webpush.Utils;
+import org.bouncycastle.jce.interfaces.ECPublicKey;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.security.GeneralSecurityException;
 import java.security.Security;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 
 @Service
@@ -25,18 +42,34 @@ public class WebPushServiceImpl implements WebPushService {
 
     private static final Logger log = LoggerFactory.getLogger(WebPushServiceImpl.class);
 
+    /**
+     * Время хранения уведомления push-сервисом, если устройство недоступно (4 недели)
+     */
+    private static final int DEFAULT_TTL_SECONDS = 2419200;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
     private final PushNotificationConfig config;
-    private final PushSubscriptionRepository subscriptionRepository;
+    private final PushSubscriptionRegistry subscriptionRegistry;
     private final ObjectMapper objectMapper;
+    private final ExpiredSubscriptionQueue expiredSubscriptions;
+    private final PushOriginHealthTracker healthTracker;
+    private final HttpClient httpClient;
 
-    private PushService pushService;
+    private VapidAuthorizationCache vapidCache;
 
     public WebPushServiceImpl(PushNotificationConfig config,
-                              PushSubscriptionRepository subscriptionRepository,
-                              ObjectMapper objectMapper) {
+                              PushSubscriptionRegistry subscriptionRegistry,
+                              ObjectMapper objectMapper,
+                              ExpiredSubscriptionQueue expiredSubscriptions,
+                              PushOriginHealthTracker healthTracker) {
         this.config = config;
-        this.subscriptionRepository = subscriptionRepository;
+        this.subscriptionRegistry = subscriptionRegistry;
         this.objectMapper = objectMapper;
+        this.expiredSubscriptions = expiredSubscriptions;
+        this.healthTracker = healthTracker;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(REQUEST_TIMEOUT)
+                .build();
     }
 
     @PostConstruct
@@ -51,10 +84,10 @@ public class WebPushServiceImpl implements WebPushService {
                 log.info("VAPID configuration found. Initializing Web Push Service...");
                 log.debug("VAPID Public Key length: {}", config.getVapidPublicKey().length());
 
-                pushService = new PushService()
-                        .setPublicKey(config.getVapidPublicKey())
-                        .setPrivateKey(config.getVapidPrivateKey())
-                        .setSubject(config.getVapidSubject());
+                vapidCache = new VapidAuthorizationCache(
+                        Utils.loadPrivateKey(config.getVapidPrivateKey()),
+                        config.getVapidPublicKey(),
+                        config.getVapidSubject());
 
                 log.info("Web Push Service initialized successfully");
             } else {
@@ -79,65 +112,107 @@ public class WebPushServiceImpl implements WebPushService {
     }
 
     @Override
-    public boolean sendPushNotification(PushSubscription subscription, PushMessageDto message) {
-        if (pushService == null) {
-            log.error("Push service not initialized - VAPID keys may be missing");
-            return false;
+    public boolean sendPushNotification(ActivePushSubscription subscription, PushMessageDto message) {
+        return sendPushNotification(subscription, encode(message)).isDelivered();
+    }
+
+    @Override
+    public EncodedPushMessage encode(PushMessageDto message) {
+        // Значения по умолчанию подставляются в копию, исходное сообщение может использоваться параллельно
+        ObjectNode json = objectMapper.valueToTree(message);
+        if (message.getIcon() == null) {
+            json.put("icon", config.getNotificationIcon());
+        }
+        if (message.getBadge() == null) {
+            json.put("badge", config.getNotificationBadge());
         }
 
         try {
-            if (subscription == null || subscription.getEndpoint() == null) {
-                log.error("Invalid subscription: null or missing endpoint");
-                return false;
-            }
+            EncodedPushMessage encoded = new EncodedPushMessage(objectMapper.writeValueAsBytes(json));
+            log.debug("Prepared push payload - title: {}, size: {} bytes", message.getTitle(), encoded.size());
+            return encoded;
+        } catch (JsonProcessingException e) {
+            throw new PushNotificationException("Не удалось сериализовать push-уведомление", e);
+        }
+    }
 
-            if (message.getIcon() == null) {
-                message.setIcon(config.getNotificationIcon());
-            }
-            if (message.getBadge() == null) {
-                message.setBadge(config.getNotificationBadge());
-            }
+    @Override
+    public PushDeliveryResult sendPushNotification(ActivePushSubscription subscription, EncodedPushMessage message) {
+        if (vapidCache == null) {
+            // Без VAPID-ключей повтор не поможет — не держим уведомление в очереди попыток
+            log.error("Push service not initialized - VAPID keys may be missing");
+            return PushDeliveryResult.rejected(0, "Push service not initialized");
+        }
 
-            log.debug("Preparing push payload - title: {}, body: {}", message.getTitle(), message.getBody());
-            String payload = objectMapper.writeValueAsString(message);
-            log.debug("Payload size: {} bytes", payload.length());
+        if (subscription == null || subscription.endpoint() == null) {
+            log.error("Invalid subscription: null or missing endpoint");
+            return PushDeliveryResult.rejected(0, "Invalid subscription");
+        }
 
-            Subscription webPushSubscription = new Subscription(
-                    subscription.getEndpoint(),
-                    new Subscription.Keys(subscription.getP256dhKey(), subscription.getAuthKey())
-            );
+        String origin;
+        HttpRequest request;
+        try {
+            String endpoint = resolveEndpoint(subscription.endpoint());
+            origin = PushOriginHealthTracker.originOf(endpoint);
+
+            Encrypted encrypted = AbstractPushService.encrypt(
+                    message.getPayload(),
+                    (ECPublicKey) Utils.loadPublicKey(subscription.p256dhKey()),
+                    Base64Encoder.decode(subscription.authKey()),
+                    Encoding.AES128GCM);
+
+            request = HttpRequest.newBuilder(URI.create(endpoint))
+                    .timeout(REQUEST_TIMEOUT)
+                    .header("TTL", String.valueOf(DEFAULT_TTL_SECONDS))
+                    .header("Content-Type", "application/octet-stream")
+                    .header("Content-Encoding", "aes128gcm")
+                    .header("Authorization", vapidCache.authorizationHeader(endpoint))
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(encrypted.getCiphertext()))
+                    .build();
 
             log.debug("Sending notification to endpoint: {}...",
-                    subscription.getEndpoint().substring(0, Math.min(50, subscription.getEndpoint().length())));
-
-            Notification notification = new Notification(webPushSubscription, payload);
-            pushService.send(notification);
+                    endpoint.substring(0, Math.min(50, endpoint.length())));
+        } catch (Exception e) {
+            // Некорректные ключи или endpoint подписки — повтор не поможет
+            log.error("Failed to prepare push notification for subscription id={}: {} - {}",
+                    subscription.id(), e.getClass().getSimpleName(), e.getMessage());
+            return PushDeliveryResult.rejected(0, e.getMessage());
+        }
 
-            log.info("Push notification sent successfully to subscription id={}", subscription.getId());
-            return true;
+        // Разрешение берётся непосредственно перед запросом: в состоянии HALF_OPEN оно занимает
+        // единственный пробный запрос и должно быть освобождено при любом исходе
+        Duration deferral = healthTracker.acquire(origin);
+        if (!deferral.isZero()) {
+            // Push-сервис недоступен: не ждём таймаута, откладываем доставку (попыткой это не считается)
+            return PushDeliveryResult.deferred(deferral, "Push service " + origin + " is unavailable (circuit open)");
+        }
 
-        } catch (Exception e) {
+        long started = System.nanoTime();
+        PushDeliveryResult result = null;
+        try {
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            result = classify(subscription, response);
+        } catch (IOException e) {
             log.error("Failed to send push notification to subscription id={}: {} - {}",
-                    subscription.getId(), e.getClass().getSimpleName(), e.getMessage());
+                    subscription.id(), e.getClass().getSimpleName(), e.getMessage());
             log.debug("Full error stack trace:", e);
-
-            if (isSubscriptionExpired(e)) {
-                log.warn("Subscription id={} expired, marking as inactive", subscription.getId());
-                try {
-                    subscription.setActive(false);
-                    subscriptionRepository.save(subscription);
-                } catch (Exception saveEx) {
-                    log.error("Failed to deactivate expired subscription id={}: {}",
-                            subscription.getId(), saveEx.getMessage());
-                }
+            result = PushDeliveryResult.retryable(0, Duration.ZERO, e.getClass().getSimpleName() + ": " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Interrupted while sending push notification to subscription id={}", subscription.id());
+            result = PushDeliveryResult.retryable(0, Duration.ZERO, "Interrupted");
+        } finally {
+            if (result != null) {
+                long latencyMs = Duration.ofNanos(System.nanoTime() - started).toMillis();
+                healthTracker.record(origin, result.isRetryable(), latencyMs, result.getErrorMessage());
+            } else {
+                healthTracker.release(origin);
             }
-
-            return false;
         }
+        return result;
     }
 
     @Override
-    @Transactional
     public int sendPushToUser(Long userId, PushMessageDto message) {
         if (userId == null) {
             log.error("Cannot send push: userId is null");
@@ -146,7 +221,7 @@ public class WebPushServiceImpl implements WebPushService {
 
         log.info("Attempting to send push notification to user id={}", userId);
 
-        List<PushSubscription> subscriptions = subscriptionRepository.findByUserIdAndActiveTrue(userId);
+        List<ActivePushSubscription> subscriptions = subscriptionRegistry.getActive(userId);
 
         if (subscriptions.isEmpty()) {
             log.warn("No active subscriptions found for user id={}", userId);
@@ -155,19 +230,20 @@ public class WebPushServiceImpl implements WebPushService {
 
         log.info("Found {} active subscription(s) for user id={}", subscriptions.size(), userId);
 
+        EncodedPushMessage encoded = encode(message);
         int successCount = 0;
         int failureCount = 0;
 
-        for (PushSubscription subscription : subscriptions) {
-            log.debug("Processing subscription id={}", subscription.getId());
+        for (ActivePushSubscription subscription : subscriptions) {
+            log.debug("Processing subscription id={}", subscription.id());
             try {
-                if (sendPushNotification(subscription, message)) {
+                if (sendPushNotification(subscription, encoded).isDelivered()) {
                     successCount++;
                 } else {
                     failureCount++;
                 }
             } catch (Exception e) {
-                log.error("Unexpected error sending to subscription id={}: {}", subscription.getId(), e.getMessage(), e);
+                log.error("Unexpected error sending to subscription id={}: {}", subscription.id(), e.getMessage(), e);
                 failureCount++;
             }
         }
@@ -183,15 +259,72 @@ public class WebPushServiceImpl implements WebPushService {
         return config.getVapidPublicKey();
     }
 
+    @Override
+    public List<PushOriginHealthDto> getOriginHealth() {
+        return healthTracker.getHealth();
+    }
+
+    /**
+     * Устаревшие FCM endpoint-ы принимают VAPID только по пути /wp
+     */
+    private String resolveEndpoint(String endpoint) {
+        if (endpoint.startsWith("https://fcm.googleapis.com")) {
+            return endpoint.replace("fcm/send", "wp");
+        }
+        return endpoint;
+    }
+
+    /**
+     * Классификация ответа push-сервиса (RFC 8030): 404/410 — подписка истекла,
+     * 429/5xx — временная ошибка, прочие 4xx — запрос отклонён
+     */
+    private PushDeliveryResult classify(ActivePushSubscription subscription, HttpResponse<String> response) {
+        int status = response.statusCode();
+        if (status >= 200 && status < 300) {
+            log.info("Push notification sent successfully to subscription id={}", subscription.id());
+            return PushDeliveryResult.delivered(status);
+        }
+
+        String error = "HTTP " + status + (response.body() == null || response.body().isBlank() ? "" : " - " + response.body());
+        log.error("Failed to send push notification to subscription id={}: {}", subscription.id(), error);
+
+        if (isSubscriptionExpired(status)) {
+            log.warn("Subscription id={} expired, queued for deactivation", subscription.id());
+            expiredSubscriptions.enqueue(subscription);
+            return PushDeliveryResult.expired(status, error);
+        }
+        if (status == 429 || status >= 500) {
+            return PushDeliveryResult.retryable(status, parseRetryAfter(response), error);
+        }
+        return PushDeliveryResult.rejected(status, error);
+    }
+
     /**
      * Проверить, истекла ли подписка (например, пользователь отписался в браузере)
      */
-    private boolean isSubscriptionExpired(Exception e) {
-        String message = e.getMessage();
-        if (message == null) return false;
+    private boolean isSubscriptionExpired(int status) {
+        return status == 404 || status == 410;
+    }
 
-        return message.contains("410") ||
-               message.contains("404") ||
-               message.contains("ExpiredSubscription");
+    /**
+     * Заголовок Retry-After: число секунд или HTTP-дата
+     */
+    private Duration parseRetryAfter(HttpResponse<?> response) {
+        return response.headers().firstValue("Retry-After")
+                .map(String::trim)
+                .map(value -> {
+                    try {
+                        return Duration.ofSeconds(Long.parseLong(value));
+                    } catch (NumberFormatException e) {
+                        try {
+                            Instant at = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+                            return Duration.between(Instant.now(), at);
+                        } catch (DateTimeParseException ex) {
+                            return null;
+                        }
+                    }
+                })
+                .filter(delay -> !delay.isNegative())
+                .orElse(Duration.ZERO);
     }
 }
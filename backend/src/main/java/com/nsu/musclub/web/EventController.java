@@ -1,12 +1,19 @@
 package com.nsu.musclub.web;
 
+import com.nsu.musclub.dto.event.EventCardDto;
 import com.nsu.musclub.dto.event.EventCreateDto;
+import com.nsu.musclub.dto.event.EventFilterDto;
+import com.nsu.musclub.dto.event.EventFullDto;
+import com.nsu.musclub.dto.event.EventMemberImportDto;
+import com.nsu.musclub.dto.event.EventMemberImportResultDto;
 import com.nsu.musclub.dto.event.EventMemberResponseDto;
 import com.nsu.musclub.dto.event.EventMemberUpsertDto;
 import com.nsu.musclub.dto.event.EventProgramItemCreateDto;
 import com.nsu.musclub.dto.event.EventProgramItemResponseDto;
 import com.nsu.musclub.dto.event.EventProgramItemUpdateDto;
 import com.nsu.musclub.dto.event.EventResponseDto;
+import com.nsu.musclub.dto.event.EventSubtreeStatsDto;
+import com.nsu.musclub.dto.event.EventSubtreeStatusDto;
 import com.nsu.musclub.dto.event.EventTimelineItemCreateDto;
 import com.nsu.musclub.dto.event.EventTimelineItemResponseDto;
 import com.nsu.musclub.dto.event.EventTimelineItemUpdateDto;
@@ -15,6 +22,11 @@ import com.nsu.musclub.dto.event.EventUpdateDto;
 import com.nsu.musclub.dto.event.PosterDescriptionResponseDto;
 import com.nsu.musclub.dto.event.SocialMediaPostRequestDto;
 import com.nsu.musclub.dto.event.SocialMediaPostResponseDto;
+import com.nsu.musclub.dto.page.CursorPageDto;
+import com.nsu.musclub.dto.push.EventNotificationSettingsDto;
+import com.nsu.musclub.dto.push.FanoutJobDto;
+import com.nsu.musclub.dto.push.NotificationResponseDto;
+import com.nsu.musclub.service.EventPageService;
 import com.nsu.musclub.service.EventPosterAiService;
 import com.nsu.musclub.service.EventProgramService;
 import com.nsu.musclub.service.EventRelationService;
@@ -25,14 +37,18 @@ import jakarta.validation.Valid;
 import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import com.nsu.musclub.service.EventNotificationService;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 @Tag(name = "Events", description = "Operations with musical events, AI-generated poster descriptions, and social media posts")
 @RestController
@@ -46,6 +62,7 @@ public class EventController {
     private final EventNotificationService notificationService;
     private final EventTimelineService timelineService;
     private final EventProgramService programService;
+    private final EventPageService pageService;
 
     public EventController(EventService service,
                            EventRelationService relations,
@@ -53,7 +70,8 @@ public class EventController {
                            SocialMediaPostAiService socialMediaPostAiService,
                            EventNotificationService notificationService,
                            EventTimelineService timelineService,
-                           EventProgramService programService) {
+                           EventProgramService programService,
+                           EventPageService pageService) {
         this.service = service;
         this.relations = relations;
         this.posterAiService = posterAiService;
@@ -61,6 +79,7 @@ public class EventController {
         this.notificationService = notificationService;
         this.timelineService = timelineService;
         this.programService = programService;
+        this.pageService = pageService;
     }
 
     @PostMapping
@@ -69,14 +88,41 @@ public class EventController {
         return service.create(dto);
     }
 
+    @Operation(summary = "Get event", description = "Supports conditional requests: returns 304 when If-None-Match matches the ETag")
     @GetMapping("/{id}")
-    public EventResponseDto get(@PathVariable Long id) {
-        return service.get(id);
+    public ResponseEntity<EventResponseDto> get(@PathVariable Long id, WebRequest request) {
+        return conditional(request, "e" + id + "-" + service.getVersion(id), () -> service.get(id));
     }
 
+    @Operation(summary = "Get event page data",
+            description = "Returns the event together with members, timeline, program and sub-event tree in one response. " +
+                    "Supports conditional requests with If-None-Match")
+    @GetMapping("/{id}/full")
+    public ResponseEntity<EventFullDto> getFull(
+            @PathVariable Long id,
+            @Parameter(description = "Sections to include: members, timeline, program, tree (all by default)")
+            @RequestParam(required = false) List<String> include,
+            @Parameter(description = "Sub-event tree depth") @RequestParam(defaultValue = "3") int depth,
+            WebRequest request) {
+        return conditional(request, pageService.getFullVersion(id, include, depth),
+                () -> pageService.getFull(id, include, depth));
+    }
+
+    @Operation(summary = "List events",
+            description = "Supports filtering by start time window, status, venue, top-level events and sub-events")
     @GetMapping
-    public Page<EventResponseDto> list(@ParameterObject Pageable pageable) {
-        return service.list(pageable);
+    public Page<EventResponseDto> list(@ParameterObject EventFilterDto filter, @ParameterObject Pageable pageable) {
+        return service.list(filter, pageable);
+    }
+
+    @Operation(summary = "Event feed with cursor pagination",
+            description = "Returns list cards ordered by start time (latest first) without total count. " +
+                    "The next page is requested with cursor = nextCursor of the previous page")
+    @GetMapping("/feed")
+    public CursorPageDto<EventCardDto> feed(
+            @Parameter(description = "Cursor of the next page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (up to 100)") @RequestParam(required = false) Integer limit) {
+        return service.feed(cursor, limit);
     }
 
     @PutMapping("/{id}")
@@ -90,9 +136,42 @@ public class EventController {
         service.delete(id);
     }
 
+    @Operation(summary = "Set status of an event and all its sub-events",
+            description = "Updates the whole subtree in one statement and returns the number of events whose status changed")
+    @PutMapping("/{eventId}/subtree/status")
+    public java.util.Map<String, Object> updateSubtreeStatus(@PathVariable Long eventId,
+                                                             @RequestBody @Valid EventSubtreeStatusDto dto) {
+        int count = service.updateSubtreeStatus(eventId, dto.getStatus());
+        return java.util.Map.of(
+                "eventId", eventId,
+                "updatedCount", count
+        );
+    }
+
+    @Operation(summary = "Delete an event with all its sub-events")
+    @DeleteMapping("/{eventId}/subtree")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void deleteSubtree(@PathVariable Long eventId) {
+        service.deleteSubtree(eventId);
+    }
+
     @GetMapping("/{eventId}/members")
-    public List<EventMemberResponseDto> listMembers(@PathVariable Long eventId) {
-        return relations.listMembers(eventId);
+    public ResponseEntity<List<EventMemberResponseDto>> listMembers(@PathVariable Long eventId, WebRequest request) {
+        return conditional(request, "m" + eventId + "-" + service.getVersion(eventId),
+                () -> relations.listMembers(eventId));
+    }
+
+    @Operation(summary = "List event members with cursor pagination",
+            description = "Returns members with user data in order of addition, optionally filtered by role and username. " +
+                    "The next page is requested with cursor = nextCursor of the previous page")
+    @GetMapping("/{eventId}/members/page")
+    public CursorPageDto<EventMemberResponseDto> listMembersPage(
+            @PathVariable Long eventId,
+            @Parameter(description = "Only members with this role") @RequestParam(required = false) String role,
+            @Parameter(description = "Case-insensitive username substring") @RequestParam(required = false) String q,
+            @Parameter(description = "Cursor of the next page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (up to 200)") @RequestParam(required = false) Integer limit) {
+        return relations.listMembers(eventId, role, q, cursor, limit);
     }
 
     @PostMapping("/{eventId}/members")
@@ -101,6 +180,15 @@ public class EventController {
         return relations.upsertMember(eventId, dto);
     }
 
+    @Operation(summary = "Import event members in bulk",
+            description = "Adds members or changes their role by userId or email in one request. " +
+                    "Invalid rows are reported per row and do not prevent the other rows from being written")
+    @PostMapping("/{eventId}/members/import")
+    public EventMemberImportResultDto importMembers(@PathVariable Long eventId,
+                                                    @RequestBody @Valid EventMemberImportDto dto) {
+        return relations.importMembers(eventId, dto);
+    }
+
     @DeleteMapping("/{eventId}/members/{userId}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void removeMember(@PathVariable Long eventId, @PathVariable Long userId) {
@@ -108,8 +196,9 @@ public class EventController {
     }
 
     @GetMapping("/{eventId}/timeline")
-    public List<EventTimelineItemResponseDto> listTimeline(@PathVariable Long eventId) {
-        return timelineService.list(eventId);
+    public ResponseEntity<List<EventTimelineItemResponseDto>> listTimeline(@PathVariable Long eventId, WebRequest request) {
+        return conditional(request, "t" + eventId + "-" + service.getVersion(eventId),
+                () -> timelineService.list(eventId));
     }
 
     @PostMapping("/{eventId}/timeline")
@@ -139,8 +228,9 @@ public class EventController {
     }
 
     @GetMapping("/{eventId}/program")
-    public List<EventProgramItemResponseDto> listProgram(@PathVariable Long eventId) {
-        return programService.list(eventId);
+    public ResponseEntity<List<EventProgramItemResponseDto>> listProgram(@PathVariable Long eventId, WebRequest request) {
+        return conditional(request, "p" + eventId + "-" + service.getVersion(eventId),
+                () -> programService.list(eventId));
     }
 
     @PostMapping("/{eventId}/program")
@@ -188,8 +278,32 @@ public class EventController {
     }
 
     @GetMapping("/{eventId}/tree")
-    public EventTreeNodeDto tree(@PathVariable Long eventId, @RequestParam(defaultValue = "3") int depth) {
-        return relations.getTree(eventId, depth);
+    public ResponseEntity<EventTreeNodeDto> tree(@PathVariable Long eventId,
+                                                 @RequestParam(defaultValue = "3") int depth,
+                                                 WebRequest request) {
+        return conditional(request, relations.getTreeVersion(eventId, depth), () -> relations.getTree(eventId, depth));
+    }
+
+    @Operation(summary = "List sub-events of the whole subtree",
+            description = "Returns sub-events of all levels ordered by depth")
+    @GetMapping("/{eventId}/descendants")
+    public List<EventCardDto> descendants(
+            @PathVariable Long eventId,
+            @Parameter(description = "Maximum depth below the event (whole subtree by default)")
+            @RequestParam(required = false) Integer depth) {
+        return relations.getDescendants(eventId, depth);
+    }
+
+    @Operation(summary = "List ancestors of an event", description = "Returns ancestors from the tree root down to the direct parent")
+    @GetMapping("/{eventId}/ancestors")
+    public List<EventCardDto> ancestors(@PathVariable Long eventId) {
+        return relations.getAncestors(eventId);
+    }
+
+    @Operation(summary = "Subtree summary", description = "Counts events and distinct members across the event and all its sub-events")
+    @GetMapping("/{eventId}/subtree/stats")
+    public EventSubtreeStatsDto subtreeStats(@PathVariable Long eventId) {
+        return relations.getSubtreeStats(eventId);
     }
 
     @Operation(summary = "Generate AI-based poster description", description = """
@@ -243,19 +357,56 @@ public class EventController {
         );
     }
 
-    @Operation(summary = "Notify participants about event update")
+    @Operation(summary = "Schedule push notifications for an event and all its sub-events",
+            description = "Skips sub-events without start time and reminders that are already pending")
+    @PostMapping("/{eventId}/subtree/notifications/schedule")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public java.util.Map<String, Object> scheduleSubtreeNotifications(
+            @PathVariable Long eventId,
+            @RequestBody(required = false) EventNotificationSettingsDto settings) {
+        int count = notificationService.scheduleNotificationsForSubtree(eventId, settings);
+        return java.util.Map.of(
+                "eventId", eventId,
+                "scheduledCount", count,
+                "message", "Notifications scheduled successfully"
+        );
+    }
+
+    @Operation(summary = "Cancel pending notifications of an event and all its sub-events")
+    @DeleteMapping("/{eventId}/subtree/notifications")
+    public java.util.Map<String, Object> cancelSubtreeNotifications(@PathVariable Long eventId) {
+        int count = notificationService.cancelNotificationsForSubtree(eventId);
+        return java.util.Map.of(
+                "eventId", eventId,
+                "cancelledCount", count
+        );
+    }
+
+    @Operation(summary = "Notify participants about event update",
+            description = "Updates made within the coalescing window are merged into one pending notification")
     @PostMapping("/{eventId}/notifications/update")
-    @ResponseStatus(HttpStatus.OK)
-    public java.util.Map<String, Object> notifyEventUpdated(@PathVariable Long eventId) {
-        int count = notificationService.notifyEventUpdated(eventId);
-        return java.util.Map.of("sentCount", count);
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public NotificationResponseDto notifyEventUpdated(@PathVariable Long eventId) {
+        return notificationService.notifyEventUpdated(eventId);
     }
 
     @Operation(summary = "Notify participants about event cancellation")
     @PostMapping("/{eventId}/notifications/cancel")
-    @ResponseStatus(HttpStatus.OK)
-    public java.util.Map<String, Object> notifyEventCancelled(@PathVariable Long eventId) {
-        int count = notificationService.notifyEventCancelled(eventId);
-        return java.util.Map.of("sentCount", count);
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public FanoutJobDto notifyEventCancelled(@PathVariable Long eventId) {
+        return notificationService.notifyEventCancelled(eventId);
+    }
+
+    /**
+     * Условный GET: ETag вычисляется по версии до построения ответа, поэтому при совпадении
+     * If-None-Match ответ 304 отдаётся без чтения вложенных данных.
+     * Версия читается раньше данных: при гонке с записью клиент получит более новые данные
+     * со старым ETag и просто перечитает их при следующем запросе.
+     */
+    private static <T> ResponseEntity<T> conditional(WebRequest request, String etag, Supplier<T> body) {
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(CacheControl.noCache()).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(body.get());
     }
 }
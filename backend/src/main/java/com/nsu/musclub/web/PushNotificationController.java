@@ -1,15 +1,16 @@
 package com.nsu.musclub.web;
 
+import com.nsu.musclub.dto.page.CursorPageDto;
 import com.nsu.musclub.dto.push.*;
 import com.nsu.musclub.service.EventNotificationService;
+import com.nsu.musclub.service.NotificationFanoutService;
+import com.nsu.musclub.service.NotificationReceiptService;
 import com.nsu.musclub.service.PushSubscriptionService;
 import com.nsu.musclub.service.WebPushService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -25,13 +26,19 @@ public class PushNotificationController {
     private final PushSubscriptionService subscriptionService;
     private final EventNotificationService notificationService;
     private final WebPushService webPushService;
+    private final NotificationFanoutService fanoutService;
+    private final NotificationReceiptService receiptService;
 
     public PushNotificationController(PushSubscriptionService subscriptionService,
                                       EventNotificationService notificationService,
-                                      WebPushService webPushService) {
+                                      WebPushService webPushService,
+                                      NotificationFanoutService fanoutService,
+                                      NotificationReceiptService receiptService) {
         this.subscriptionService = subscriptionService;
         this.notificationService = notificationService;
         this.webPushService = webPushService;
+        this.fanoutService = fanoutService;
+        this.receiptService = receiptService;
     }
 
 
@@ -61,6 +68,17 @@ public class PushNotificationController {
         }
     }
 
+    @Operation(summary = "Подтвердить показ или клик уведомления",
+               description = "Вызывается service worker-ом без токена; засчитывается, только если endpoint и auth " +
+                             "совпадают с активной подпиской. Подтверждения записываются асинхронно пачками; " +
+                             "при перегрузке возвращается 503")
+    @PostMapping("/receipts")
+    public ResponseEntity<Void> recordReceipt(@RequestBody @Valid NotificationReceiptDto receipt) {
+        return receiptService.record(receipt)
+                ? ResponseEntity.accepted().build()
+                : ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+    }
+
     @Operation(summary = "Получить подписки пользователя")
     @GetMapping("/subscriptions/{userId}")
     public List<PushSubscriptionResponseDto> getUserSubscriptions(
@@ -187,21 +205,32 @@ public class PushNotificationController {
     }
 
     @Operation(summary = "Отправить немедленное уведомление участникам",
-               description = "Отправляет push-уведомление всем участникам мероприятия прямо сейчас")
+               description = "Ставит в очередь рассылку push-уведомления всем участникам мероприятия. " +
+                             "Возвращает задачу рассылки, прогресс доступен по /api/push/fanout-jobs/{jobId}")
     @PostMapping("/events/{eventId}/send-now")
-    public Map<String, Object> sendImmediateNotification(
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public FanoutJobDto sendImmediateNotification(
             @PathVariable Long eventId,
             @RequestBody Map<String, String> body) {
 
         String title = body.getOrDefault("title", "Уведомление");
         String message = body.getOrDefault("body", "");
 
-        int count = notificationService.sendImmediateNotification(eventId, title, message);
-        return Map.of(
-                "eventId", eventId,
-                "sentCount", count,
-                "message", "Уведомления отправлены"
-        );
+        return notificationService.sendImmediateNotification(eventId, title, message);
+    }
+
+    @Operation(summary = "Получить состояние задачи рассылки",
+               description = "Возвращает прогресс массовой рассылки: число получателей, доставленных и недоставленных")
+    @GetMapping("/fanout-jobs/{jobId}")
+    public FanoutJobDto getFanoutJob(@Parameter(description = "ID задачи рассылки") @PathVariable String jobId) {
+        return fanoutService.getJob(jobId);
+    }
+
+    @Operation(summary = "Получить состояние push-сервисов",
+               description = "Возвращает для каждого push-сервиса долю ошибок, время ответа и состояние circuit breaker")
+    @GetMapping("/origins/health")
+    public List<PushOriginHealthDto> getOriginHealth() {
+        return webPushService.getOriginHealth();
     }
 
     @Operation(summary = "Получить уведомления мероприятия")
@@ -217,11 +246,29 @@ public class PushNotificationController {
     }
 
 
-    @Operation(summary = "Получить уведомления пользователя")
+    @Operation(summary = "Получить уведомления пользователя",
+               description = "Возвращает журнал уведомлений от новых к старым. Следующая страница запрашивается " +
+                             "с параметром cursor, равным nextCursor предыдущей страницы")
     @GetMapping("/users/{userId}/notifications")
-    public Page<NotificationResponseDto> getUserNotifications(
+    public CursorPageDto<NotificationResponseDto> getUserNotifications(
+            @PathVariable Long userId,
+            @Parameter(description = "Курсор следующей страницы") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Размер страницы (до 100)") @RequestParam(required = false) Integer limit) {
+        return notificationService.getNotificationsForUser(userId, cursor, limit);
+    }
+
+    @Operation(summary = "Получить количество непрочитанных уведомлений пользователя")
+    @GetMapping("/users/{userId}/notifications/unread-count")
+    public UnreadNotificationsDto getUnreadCount(@PathVariable Long userId) {
+        return notificationService.countUnread(userId);
+    }
+
+    @Operation(summary = "Отметить уведомления прочитанными",
+               description = "Без тела запроса отмечает прочитанными все уведомления пользователя")
+    @PostMapping("/users/{userId}/notifications/read")
+    public Map<String, Integer> markNotificationsRead(
             @PathVariable Long userId,
-            Pageable pageable) {
-        return notificationService.getNotificationsForUser(userId, pageable);
+            @RequestBody(required = false) List<Long> notificationIds) {
+        return Map.of("marked", notificationService.markNotificationsRead(userId, notificationIds));
     }
 }
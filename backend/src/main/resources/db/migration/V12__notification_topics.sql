@@ -0,0 +1,44 @@
+-- Topic-модель уведомлений: одна запись event_notifications на мероприятие/тип напоминания,
+-- список получателей разворачивается из event_members в момент отправки.
+CREATE TABLE IF NOT EXISTS notification_deliveries
+(
+    id              BIGSERIAL PRIMARY KEY,
+    notification_id BIGINT      NOT NULL REFERENCES event_notifications (id) ON DELETE CASCADE,
+    user_id         BIGINT      NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    status          VARCHAR(32) NOT NULL,
+    delivered_at    TIMESTAMPTZ NOT NULL DEFAULT now(),
+    error_message   TEXT,
+    UNIQUE (notification_id, user_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_notification_deliveries_user_delivered_at
+    ON notification_deliveries (user_id, delivered_at DESC);
+
+-- Уже обработанные персональные уведомления переносим в журнал доставок
+INSERT INTO notification_deliveries (notification_id, user_id, status, delivered_at, error_message)
+SELECT id, user_id, status, coalesce(sent_at, send_at), error_message
+FROM event_notifications
+WHERE status IN ('SENT', 'FAILED');
+
+-- Ожидающие напоминания схлопываем до одной записи на мероприятие/тип/время
+DELETE
+FROM event_notifications n
+    USING event_notifications keep
+WHERE n.status = 'PENDING'
+  AND keep.status = 'PENDING'
+  AND n.event_id = keep.event_id
+  AND n.notification_type = keep.notification_type
+  AND n.send_at = keep.send_at
+  AND n.id > keep.id;
+
+DROP INDEX IF EXISTS idx_event_notifications_user_sendAt;
+
+ALTER TABLE event_notifications
+    DROP COLUMN IF EXISTS user_id;
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_event_notifications_pending_topic
+    ON event_notifications (event_id, notification_type, send_at)
+    WHERE status = 'PENDING';
+
+CREATE INDEX IF NOT EXISTS idx_event_notifications_event_send_at
+    ON event_notifications (event_id, send_at DESC);
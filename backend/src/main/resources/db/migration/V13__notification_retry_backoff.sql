@@ -0,0 +1,31 @@
+-- Повторные попытки с экспоненциальной задержкой: уведомление берётся в работу,
+-- когда наступает next_attempt_at (для первой попытки совпадает с send_at).
+ALTER TABLE event_notifications
+    ADD COLUMN IF NOT EXISTS next_attempt_at TIMESTAMPTZ;
+
+UPDATE event_notifications
+SET next_attempt_at = send_at
+WHERE next_attempt_at IS NULL;
+
+-- Неудачные уведомления с оставшимися попытками раньше возвращались в очередь периодической проверкой
+-- (число попыток — push.max-retries, передаётся плейсхолдером Flyway)
+UPDATE event_notifications
+SET status          = 'PENDING',
+    next_attempt_at = now()
+WHERE status = 'FAILED'
+  AND retry_count < ${maxRetries};
+
+ALTER TABLE event_notifications
+    ALTER COLUMN next_attempt_at SET NOT NULL;
+
+DROP INDEX IF EXISTS idx_event_notifications_status_send_at;
+DROP INDEX IF EXISTS idx_event_notifications_status_sendAt_retry;
+
+-- Индекс для выборки готовых к отправке уведомлений (claim-запрос планировщика)
+CREATE INDEX IF NOT EXISTS idx_event_notifications_pending_next_attempt
+    ON event_notifications (next_attempt_at)
+    WHERE status = 'PENDING';
+
+-- Временная ошибка доставки (429/5xx, сетевой сбой): получатель будет включён в следующую попытку
+ALTER TABLE notification_deliveries
+    ADD COLUMN IF NOT EXISTS retryable BOOLEAN NOT NULL DEFAULT false;
@@ -0,0 +1,129 @@
+-- Секционирование event_notifications по месяцам send_at: горячая секция остаётся небольшой,
+-- а старые уведомления удаляются целыми секциями вместо массового DELETE.
+
+-- Создать месячную секцию, если её нет. Строки этого месяца, попавшие в секцию по умолчанию,
+-- переносятся в новую секцию до её подключения.
+CREATE OR REPLACE FUNCTION ensure_event_notifications_partition(p_month DATE) RETURNS BOOLEAN
+    LANGUAGE plpgsql AS
+$$
+DECLARE
+    v_from      TIMESTAMPTZ := date_trunc('month', p_month::TIMESTAMP) AT TIME ZONE 'UTC';
+    v_to        TIMESTAMPTZ := (date_trunc('month', p_month::TIMESTAMP) + INTERVAL '1 month') AT TIME ZONE 'UTC';
+    v_partition TEXT        := 'event_notifications_p' || to_char(p_month, 'YYYYMM');
+BEGIN
+    IF to_regclass(v_partition) IS NOT NULL THEN
+        RETURN false;
+    END IF;
+
+    EXECUTE format('CREATE TABLE %I (LIKE event_notifications INCLUDING DEFAULTS INCLUDING CONSTRAINTS)',
+                   v_partition);
+    IF to_regclass('event_notifications_default') IS NOT NULL THEN
+        EXECUTE format('WITH moved AS (DELETE FROM event_notifications_default
+                                       WHERE send_at >= $1 AND send_at < $2
+                                       RETURNING *)
+                        INSERT INTO %I SELECT * FROM moved', v_partition)
+            USING v_from, v_to;
+    END IF;
+    EXECUTE format('ALTER TABLE event_notifications ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   v_partition, v_from, v_to);
+    RETURN true;
+END;
+$$;
+
+ALTER TABLE event_notifications
+    RENAME TO event_notifications_legacy;
+
+ALTER TABLE event_notifications_legacy
+    RENAME CONSTRAINT event_notifications_pkey TO event_notifications_legacy_pkey;
+
+DROP INDEX IF EXISTS ux_event_notifications_pending_topic;
+DROP INDEX IF EXISTS idx_event_notifications_event_send_at;
+DROP INDEX IF EXISTS idx_event_notifications_pending_next_attempt;
+
+-- Первичный ключ секционированной таблицы обязан включать ключ секционирования;
+-- уникальность id обеспечивает общая последовательность.
+CREATE TABLE event_notifications
+(
+    id                BIGINT       NOT NULL DEFAULT nextval('event_notifications_id_seq'),
+    event_id          BIGINT       NOT NULL REFERENCES events (id) ON DELETE CASCADE,
+    send_at           TIMESTAMPTZ  NOT NULL,
+    sent_at           TIMESTAMPTZ,
+    status            VARCHAR(32)  NOT NULL DEFAULT 'PENDING',
+    title             TEXT         NOT NULL,
+    body              TEXT         NOT NULL,
+    created_at        TIMESTAMPTZ  NOT NULL DEFAULT now(),
+    notification_type VARCHAR(32)  NOT NULL DEFAULT 'REMINDER_24H',
+    action_url        VARCHAR(500),
+    retry_count       INTEGER      NOT NULL DEFAULT 0,
+    error_message     TEXT,
+    next_attempt_at   TIMESTAMPTZ  NOT NULL,
+    PRIMARY KEY (id, send_at)
+) PARTITION BY RANGE (send_at);
+
+-- Уведомления за пределами созданных секций (например, напоминания о далёких мероприятиях)
+CREATE TABLE event_notifications_default PARTITION OF event_notifications DEFAULT;
+
+DO
+$$
+    DECLARE
+        v_month DATE;
+    BEGIN
+        SELECT date_trunc('month', least(coalesce(min(send_at), now()), now()) AT TIME ZONE 'UTC')::DATE
+        INTO v_month
+        FROM event_notifications_legacy;
+
+        WHILE v_month <= (date_trunc('month', now() AT TIME ZONE 'UTC') + INTERVAL '3 months')::DATE
+            LOOP
+                PERFORM ensure_event_notifications_partition(v_month);
+                v_month := (v_month + INTERVAL '1 month')::DATE;
+            END LOOP;
+    END
+$$;
+
+INSERT INTO event_notifications (id, event_id, send_at, sent_at, status, title, body, created_at,
+                                 notification_type, action_url, retry_count, error_message, next_attempt_at)
+SELECT id, event_id, send_at, sent_at, status, title, body, created_at,
+       notification_type, action_url, retry_count, error_message, next_attempt_at
+FROM event_notifications_legacy;
+
+ALTER SEQUENCE event_notifications_id_seq OWNED BY event_notifications.id;
+
+-- Внешний ключ на секционированную таблицу потребовал бы send_at в журнале доставок,
+-- поэтому каскадное удаление доставок выполняет триггер, а при удалении секции — задача очистки.
+-- Перенос строки между секциями при изменении send_at выполняется как DELETE + INSERT,
+-- такие строки триггер пропускает.
+ALTER TABLE notification_deliveries
+    DROP CONSTRAINT IF EXISTS notification_deliveries_notification_id_fkey;
+
+DROP TABLE event_notifications_legacy;
+
+CREATE INDEX IF NOT EXISTS idx_notification_deliveries_notification
+    ON notification_deliveries (notification_id);
+
+CREATE OR REPLACE FUNCTION delete_event_notification_deliveries() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM event_notifications WHERE id = OLD.id) THEN
+        DELETE FROM notification_deliveries WHERE notification_id = OLD.id;
+    END IF;
+    RETURN OLD;
+END;
+$$;
+
+CREATE TRIGGER trg_event_notifications_delete_deliveries
+    AFTER DELETE
+    ON event_notifications
+    FOR EACH ROW
+EXECUTE FUNCTION delete_event_notification_deliveries();
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_event_notifications_pending_topic
+    ON event_notifications (event_id, notification_type, send_at)
+    WHERE status = 'PENDING';
+
+CREATE INDEX IF NOT EXISTS idx_event_notifications_event_send_at
+    ON event_notifications (event_id, send_at DESC);
+
+CREATE INDEX IF NOT EXISTS idx_event_notifications_pending_next_attempt
+    ON event_notifications (next_attempt_at)
+    WHERE status = 'PENDING';
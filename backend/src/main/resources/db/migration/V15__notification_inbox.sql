@@ -0,0 +1,14 @@
+-- Входящие уведомления пользователя: отметка о прочтении и индексы для постраничного чтения по курсору
+ALTER TABLE notification_deliveries
+    ADD COLUMN IF NOT EXISTS read_at TIMESTAMPTZ;
+
+-- Keyset-пагинация по (delivered_at, id) в порядке убывания
+DROP INDEX IF EXISTS idx_notification_deliveries_user_delivered_at;
+
+CREATE INDEX IF NOT EXISTS idx_notification_deliveries_user_delivered_id
+    ON notification_deliveries (user_id, delivered_at DESC, id DESC);
+
+-- Счётчик непрочитанных читает только этот небольшой частичный индекс
+CREATE INDEX IF NOT EXISTS idx_notification_deliveries_user_unread
+    ON notification_deliveries (user_id)
+    WHERE read_at IS NULL AND status = 'SENT';
@@ -0,0 +1,223 @@
+-- Счётчики уведомлений мероприятия, поддерживаемые триггерами: статистика читается одной строкой
+-- вместо GROUP BY по уведомлениям и журналу доставок.
+--   pending, cancelled — текущее количество уведомлений мероприятия в этих статусах;
+--   sent, failed       — доставки пользователям (накопительно, очистка журнала их не уменьшает);
+--   latency_*          — задержка доставки send_at → delivered_at успешных доставок, мс.
+CREATE TABLE IF NOT EXISTS event_notification_stats
+(
+    event_id       BIGINT PRIMARY KEY REFERENCES events (id) ON DELETE CASCADE,
+    pending        BIGINT      NOT NULL DEFAULT 0,
+    cancelled      BIGINT      NOT NULL DEFAULT 0,
+    sent           BIGINT      NOT NULL DEFAULT 0,
+    failed         BIGINT      NOT NULL DEFAULT 0,
+    latency_count  BIGINT      NOT NULL DEFAULT 0,
+    latency_sum_ms BIGINT      NOT NULL DEFAULT 0,
+    latency_max_ms BIGINT      NOT NULL DEFAULT 0,
+    updated_at     TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+-- Переход уведомления между статусами. Перенос строки между секциями (изменение send_at)
+-- выполняется как DELETE + INSERT, и счётчики возвращаются к прежним значениям.
+-- При удалении обновляется только существующая строка: при каскадном удалении мероприятия
+-- строка статистики к этому моменту уже удалена.
+CREATE OR REPLACE FUNCTION event_notification_stats_on_change() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+DECLARE
+    v_event_id  BIGINT;
+    v_pending   BIGINT := 0;
+    v_cancelled BIGINT := 0;
+BEGIN
+    IF current_setting('musclub.partition_move', true) = 'on' THEN
+        RETURN NULL;
+    END IF;
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        v_event_id := OLD.event_id;
+        v_pending := v_pending - (OLD.status = 'PENDING')::INT;
+        v_cancelled := v_cancelled - (OLD.status = 'CANCELLED')::INT;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        v_event_id := NEW.event_id;
+        v_pending := v_pending + (NEW.status = 'PENDING')::INT;
+        v_cancelled := v_cancelled + (NEW.status = 'CANCELLED')::INT;
+    END IF;
+
+    IF v_pending = 0 AND v_cancelled = 0 THEN
+        RETURN NULL;
+    END IF;
+
+    IF TG_OP = 'DELETE' THEN
+        UPDATE event_notification_stats
+        SET pending    = pending + v_pending,
+            cancelled  = cancelled + v_cancelled,
+            updated_at = now()
+        WHERE event_id = v_event_id;
+    ELSE
+        INSERT INTO event_notification_stats AS s (event_id, pending, cancelled)
+        VALUES (v_event_id, v_pending, v_cancelled)
+        ON CONFLICT (event_id) DO UPDATE
+            SET pending    = s.pending + EXCLUDED.pending,
+                cancelled  = s.cancelled + EXCLUDED.cancelled,
+                updated_at = now();
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER trg_event_notifications_stats
+    AFTER INSERT OR UPDATE OF status OR DELETE
+    ON event_notifications
+    FOR EACH ROW
+EXECUTE FUNCTION event_notification_stats_on_change();
+
+-- Создание секции переносит строки её месяца из секции по умолчанию вне секционированной таблицы;
+-- на время переноса триггеры удаления доставок и статистики отключаются признаком транзакции.
+CREATE OR REPLACE FUNCTION ensure_event_notifications_partition(p_month DATE) RETURNS BOOLEAN
+    LANGUAGE plpgsql AS
+$$
+DECLARE
+    v_from      TIMESTAMPTZ := date_trunc('month', p_month::TIMESTAMP) AT TIME ZONE 'UTC';
+    v_to        TIMESTAMPTZ := (date_trunc('month', p_month::TIMESTAMP) + INTERVAL '1 month') AT TIME ZONE 'UTC';
+    v_partition TEXT        := 'event_notifications_p' || to_char(p_month, 'YYYYMM');
+BEGIN
+    IF to_regclass(v_partition) IS NOT NULL THEN
+        RETURN false;
+    END IF;
+
+    EXECUTE format('CREATE TABLE %I (LIKE event_notifications INCLUDING DEFAULTS INCLUDING CONSTRAINTS)',
+                   v_partition);
+    IF to_regclass('event_notifications_default') IS NOT NULL THEN
+        PERFORM set_config('musclub.partition_move', 'on', true);
+        EXECUTE format('WITH moved AS (DELETE FROM event_notifications_default
+                                       WHERE send_at >= $1 AND send_at < $2
+                                       RETURNING *)
+                        INSERT INTO %I SELECT * FROM moved', v_partition)
+            USING v_from, v_to;
+        PERFORM set_config('musclub.partition_move', 'off', true);
+    END IF;
+    EXECUTE format('ALTER TABLE event_notifications ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   v_partition, v_from, v_to);
+    RETURN true;
+END;
+$$;
+
+CREATE OR REPLACE FUNCTION delete_event_notification_deliveries() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    IF current_setting('musclub.partition_move', true) = 'on' THEN
+        RETURN OLD;
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM event_notifications WHERE id = OLD.id) THEN
+        DELETE FROM notification_deliveries WHERE notification_id = OLD.id;
+    END IF;
+    RETURN OLD;
+END;
+$$;
+
+-- Доставки пишутся пачками, поэтому счётчики обновляются один раз на оператор
+-- по таблицам переходов, одной строкой на мероприятие.
+CREATE OR REPLACE FUNCTION notification_delivery_stats_on_insert() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    INSERT INTO event_notification_stats AS s (event_id, sent, failed, latency_count, latency_sum_ms, latency_max_ms)
+    SELECT d.event_id,
+           count(*) FILTER (WHERE d.status = 'SENT'),
+           count(*) FILTER (WHERE d.status = 'FAILED'),
+           count(*) FILTER (WHERE d.status = 'SENT'),
+           coalesce(sum(d.latency_ms) FILTER (WHERE d.status = 'SENT'), 0),
+           coalesce(max(d.latency_ms) FILTER (WHERE d.status = 'SENT'), 0)
+    FROM (SELECT n.event_id,
+                 nd.status,
+                 greatest(0, (extract(EPOCH FROM nd.delivered_at - n.send_at) * 1000)::BIGINT) AS latency_ms
+          FROM new_deliveries nd
+                   JOIN event_notifications n ON n.id = nd.notification_id) d
+    GROUP BY d.event_id
+    ORDER BY d.event_id
+    ON CONFLICT (event_id) DO UPDATE
+        SET sent           = s.sent + EXCLUDED.sent,
+            failed         = s.failed + EXCLUDED.failed,
+            latency_count  = s.latency_count + EXCLUDED.latency_count,
+            latency_sum_ms = s.latency_sum_ms + EXCLUDED.latency_sum_ms,
+            latency_max_ms = greatest(s.latency_max_ms, EXCLUDED.latency_max_ms),
+            updated_at     = now();
+    RETURN NULL;
+END;
+$$;
+
+-- Повторная попытка перезаписывает статус доставки (FAILED → SENT): учитывается разница,
+-- задержка — только для доставок, впервые ставших успешными.
+CREATE OR REPLACE FUNCTION notification_delivery_stats_on_update() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    INSERT INTO event_notification_stats AS s (event_id, sent, failed, latency_count, latency_sum_ms, latency_max_ms)
+    SELECT d.event_id,
+           sum(d.sent_delta),
+           sum(d.failed_delta),
+           count(*) FILTER (WHERE d.became_sent),
+           coalesce(sum(d.latency_ms) FILTER (WHERE d.became_sent), 0),
+           coalesce(max(d.latency_ms) FILTER (WHERE d.became_sent), 0)
+    FROM (SELECT n.event_id,
+                 (nd.status = 'SENT')::INT - (od.status = 'SENT')::INT                 AS sent_delta,
+                 (nd.status = 'FAILED')::INT - (od.status = 'FAILED')::INT             AS failed_delta,
+                 nd.status = 'SENT' AND od.status <> 'SENT'                            AS became_sent,
+                 greatest(0, (extract(EPOCH FROM nd.delivered_at - n.send_at) * 1000)::BIGINT) AS latency_ms
+          FROM new_deliveries nd
+                   JOIN old_deliveries od ON od.id = nd.id
+                   JOIN event_notifications n ON n.id = nd.notification_id
+          WHERE nd.status <> od.status) d
+    GROUP BY d.event_id
+    ORDER BY d.event_id
+    ON CONFLICT (event_id) DO UPDATE
+        SET sent           = s.sent + EXCLUDED.sent,
+            failed         = s.failed + EXCLUDED.failed,
+            latency_count  = s.latency_count + EXCLUDED.latency_count,
+            latency_sum_ms = s.latency_sum_ms + EXCLUDED.latency_sum_ms,
+            latency_max_ms = greatest(s.latency_max_ms, EXCLUDED.latency_max_ms),
+            updated_at     = now();
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER trg_notification_deliveries_stats_insert
+    AFTER INSERT
+    ON notification_deliveries
+    REFERENCING NEW TABLE AS new_deliveries
+    FOR EACH STATEMENT
+EXECUTE FUNCTION notification_delivery_stats_on_insert();
+
+CREATE TRIGGER trg_notification_deliveries_stats_update
+    AFTER UPDATE
+    ON notification_deliveries
+    REFERENCING OLD TABLE AS old_deliveries NEW TABLE AS new_deliveries
+    FOR EACH STATEMENT
+EXECUTE FUNCTION notification_delivery_stats_on_update();
+
+-- Начальные значения по текущим данным
+INSERT INTO event_notification_stats (event_id, pending, cancelled)
+SELECT event_id,
+       count(*) FILTER (WHERE status = 'PENDING'),
+       count(*) FILTER (WHERE status = 'CANCELLED')
+FROM event_notifications
+GROUP BY event_id;
+
+INSERT INTO event_notification_stats AS s (event_id, sent, failed, latency_count, latency_sum_ms, latency_max_ms)
+SELECT n.event_id,
+       count(*) FILTER (WHERE d.status = 'SENT'),
+       count(*) FILTER (WHERE d.status = 'FAILED'),
+       count(*) FILTER (WHERE d.status = 'SENT'),
+       coalesce(sum(greatest(0, (extract(EPOCH FROM d.delivered_at - n.send_at) * 1000)::BIGINT))
+                FILTER (WHERE d.status = 'SENT'), 0),
+       coalesce(max(greatest(0, (extract(EPOCH FROM d.delivered_at - n.send_at) * 1000)::BIGINT))
+                FILTER (WHERE d.status = 'SENT'), 0)
+FROM notification_deliveries d
+         JOIN event_notifications n ON n.id = d.notification_id
+GROUP BY n.event_id
+ON CONFLICT (event_id) DO UPDATE
+    SET sent           = EXCLUDED.sent,
+        failed         = EXCLUDED.failed,
+        latency_count  = EXCLUDED.latency_count,
+        latency_sum_ms = EXCLUDED.latency_sum_ms,
+        latency_max_ms = EXCLUDED.latency_max_ms;
@@ -0,0 +1,52 @@
+-- Подтверждения от service worker: уведомление показано / по нему кликнули.
+-- Хранятся в журнале доставок (первое подтверждение каждого вида) и учитываются в статистике мероприятия.
+ALTER TABLE notification_deliveries
+    ADD COLUMN IF NOT EXISTS shown_at   TIMESTAMPTZ,
+    ADD COLUMN IF NOT EXISTS clicked_at TIMESTAMPTZ;
+
+ALTER TABLE event_notification_stats
+    ADD COLUMN IF NOT EXISTS shown   BIGINT NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS clicked BIGINT NOT NULL DEFAULT 0;
+
+-- К счётчикам статусов добавляются доставки, впервые получившие shown_at / clicked_at
+CREATE OR REPLACE FUNCTION notification_delivery_stats_on_update() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    INSERT INTO event_notification_stats AS s (event_id, sent, failed, latency_count, latency_sum_ms, latency_max_ms,
+                                               shown, clicked)
+    SELECT d.event_id,
+           sum(d.sent_delta),
+           sum(d.failed_delta),
+           count(*) FILTER (WHERE d.became_sent),
+           coalesce(sum(d.latency_ms) FILTER (WHERE d.became_sent), 0),
+           coalesce(max(d.latency_ms) FILTER (WHERE d.became_sent), 0),
+           count(*) FILTER (WHERE d.became_shown),
+           count(*) FILTER (WHERE d.became_clicked)
+    FROM (SELECT n.event_id,
+                 (nd.status = 'SENT')::INT - (od.status = 'SENT')::INT                 AS sent_delta,
+                 (nd.status = 'FAILED')::INT - (od.status = 'FAILED')::INT             AS failed_delta,
+                 nd.status = 'SENT' AND od.status <> 'SENT'                            AS became_sent,
+                 nd.shown_at IS NOT NULL AND od.shown_at IS NULL                       AS became_shown,
+                 nd.clicked_at IS NOT NULL AND od.clicked_at IS NULL                   AS became_clicked,
+                 greatest(0, (extract(EPOCH FROM nd.delivered_at - n.send_at) * 1000)::BIGINT) AS latency_ms
+          FROM new_deliveries nd
+                   JOIN old_deliveries od ON od.id = nd.id
+                   JOIN event_notifications n ON n.id = nd.notification_id
+          WHERE nd.status <> od.status
+             OR (nd.shown_at IS NOT NULL AND od.shown_at IS NULL)
+             OR (nd.clicked_at IS NOT NULL AND od.clicked_at IS NULL)) d
+    GROUP BY d.event_id
+    ORDER BY d.event_id
+    ON CONFLICT (event_id) DO UPDATE
+        SET sent           = s.sent + EXCLUDED.sent,
+            failed         = s.failed + EXCLUDED.failed,
+            latency_count  = s.latency_count + EXCLUDED.latency_count,
+            latency_sum_ms = s.latency_sum_ms + EXCLUDED.latency_sum_ms,
+            latency_max_ms = greatest(s.latency_max_ms, EXCLUDED.latency_max_ms),
+            shown          = s.shown + EXCLUDED.shown,
+            clicked        = s.clicked + EXCLUDED.clicked,
+            updated_at     = now();
+    RETURN NULL;
+END;
+$$;
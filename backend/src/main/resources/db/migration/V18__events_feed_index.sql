@@ -0,0 +1,7 @@
+-- Индекс ленты мероприятий: порядок совпадает с сортировкой списка (start_time DESC NULLS LAST, id DESC),
+-- поэтому страница читается по индексу без сортировки, а keyset-условие (start_time, id) < (...)
+-- становится условием поиска по индексу. Одноколоночный индекс по start_time им покрывается.
+CREATE INDEX IF NOT EXISTS idx_events_start_time_id
+    ON events (start_time DESC NULLS LAST, id DESC);
+
+DROP INDEX IF EXISTS idx_events_start_time;
@@ -0,0 +1,19 @@
+-- Индексы фильтров списка мероприятий (сортировка списка — start_time DESC NULLS LAST, id DESC)
+
+-- Предстоящие мероприятия: главная страница и календарь
+CREATE INDEX IF NOT EXISTS idx_events_not_started_start_time
+    ON events (start_time DESC NULLS LAST, id DESC)
+    WHERE status = 'NOT_STARTED';
+
+-- Прочие статусы
+CREATE INDEX IF NOT EXISTS idx_events_status_start_time
+    ON events (status, start_time DESC NULLS LAST, id DESC);
+
+-- Мероприятия верхнего уровня
+CREATE INDEX IF NOT EXISTS idx_events_top_level_start_time
+    ON events (start_time DESC NULLS LAST, id DESC)
+    WHERE parent_id IS NULL;
+
+-- Фильтр по площадке без учёта регистра
+CREATE INDEX IF NOT EXISTS idx_events_venue_lower
+    ON events (lower(venue), start_time DESC NULLS LAST);
@@ -0,0 +1,118 @@
+-- Версия мероприятия для условных GET (ETag / If-None-Match).
+-- version растёт при любом изменении строки мероприятия, его участников, таймплана и программы,
+-- а также при смене имени или email участника, поэтому проверка актуальности читает одну строку events.
+ALTER TABLE events
+    ADD COLUMN IF NOT EXISTS version    BIGINT      NOT NULL DEFAULT 1,
+    ADD COLUMN IF NOT EXISTS updated_at TIMESTAMPTZ NOT NULL DEFAULT now();
+
+-- Изменение самого мероприятия. Если версию уже подняли триггеры вложенных таблиц, она не растёт повторно.
+CREATE OR REPLACE FUNCTION events_bump_version() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    IF NEW.version = OLD.version THEN
+        NEW.version := OLD.version + 1;
+    END IF;
+    NEW.updated_at := now();
+    RETURN NEW;
+END;
+$$;
+
+CREATE TRIGGER trg_events_version
+    BEFORE UPDATE
+    ON events
+    FOR EACH ROW
+    WHEN (OLD.* IS DISTINCT FROM NEW.*)
+EXECUTE FUNCTION events_bump_version();
+
+-- Изменения участников, таймплана и программы: одно обновление events на оператор
+-- по таблицам переходов (перестановка элементов не поднимает версию на каждую строку).
+CREATE OR REPLACE FUNCTION event_children_bump_version() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        UPDATE events SET version = version + 1
+        WHERE id IN (SELECT event_id FROM new_rows);
+    ELSIF TG_OP = 'UPDATE' THEN
+        UPDATE events SET version = version + 1
+        WHERE id IN (SELECT event_id FROM new_rows UNION SELECT event_id FROM old_rows);
+    ELSE
+        UPDATE events SET version = version + 1
+        WHERE id IN (SELECT event_id FROM old_rows);
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER trg_event_members_version_insert
+    AFTER INSERT ON event_members
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION event_children_bump_version();
+
+CREATE TRIGGER trg_event_members_version_update
+    AFTER UPDATE ON event_members
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION event_children_bump_version();
+
+CREATE TRIGGER trg_event_members_version_delete
+    AFTER DELETE ON event_members
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION event_children_bump_version();
+
+CREATE TRIGGER trg_event_timeline_items_version_insert
+    AFTER INSERT ON event_timeline_items
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION event_children_bump_version();
+
+CREATE TRIGGER trg_event_timeline_items_version_update
+    AFTER UPDATE ON event_timeline_items
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION event_children_bump_version();
+
+CREATE TRIGGER trg_event_timeline_items_version_delete
+    AFTER DELETE ON event_timeline_items
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION event_children_bump_version();
+
+CREATE TRIGGER trg_event_program_items_version_insert
+    AFTER INSERT ON event_program_items
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION event_children_bump_version();
+
+CREATE TRIGGER trg_event_program_items_version_update
+    AFTER UPDATE ON event_program_items
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION event_children_bump_version();
+
+CREATE TRIGGER trg_event_program_items_version_delete
+    AFTER DELETE ON event_program_items
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION event_children_bump_version();
+
+-- Имя и email участника входят в список участников мероприятия
+CREATE OR REPLACE FUNCTION users_bump_event_version() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    UPDATE events SET version = version + 1
+    WHERE id IN (SELECT event_id FROM event_members WHERE user_id = NEW.id);
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER trg_users_event_version
+    AFTER UPDATE OF username, email
+    ON users
+    FOR EACH ROW
+    WHEN (OLD.username IS DISTINCT FROM NEW.username OR OLD.email IS DISTINCT FROM NEW.email)
+EXECUTE FUNCTION users_bump_event_version();
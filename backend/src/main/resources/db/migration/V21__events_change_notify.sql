@@ -0,0 +1,24 @@
+-- Уведомление узлов об изменении мероприятия для сброса кэша (канал event_changed).
+-- Версия меняется при любом изменении мероприятия и его вложенных данных (V20), поэтому достаточно
+-- триггера на events. Одинаковые сообщения в одной транзакции Postgres доставляет один раз, после фиксации.
+CREATE OR REPLACE FUNCTION events_notify_changed() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    PERFORM pg_notify('event_changed', OLD.id::TEXT);
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER trg_events_notify_changed_update
+    AFTER UPDATE
+    ON events
+    FOR EACH ROW
+    WHEN (OLD.version IS DISTINCT FROM NEW.version)
+EXECUTE FUNCTION events_notify_changed();
+
+CREATE TRIGGER trg_events_notify_changed_delete
+    AFTER DELETE
+    ON events
+    FOR EACH ROW
+EXECUTE FUNCTION events_notify_changed();
@@ -0,0 +1,83 @@
+-- Замыкание иерархии мероприятий: пара (предок, потомок) для каждого пути в дереве, включая сам узел (depth = 0).
+-- Поддерево и цепочка предков читаются одним индексным запросом без рекурсии.
+-- Таблица поддерживается триггерами events, поэтому согласована при создании подмероприятий,
+-- присоединении и отсоединении, а также при удалении родителя (parent_id → NULL).
+CREATE TABLE IF NOT EXISTS event_closure
+(
+    ancestor_id   BIGINT  NOT NULL REFERENCES events (id) ON DELETE CASCADE,
+    descendant_id BIGINT  NOT NULL REFERENCES events (id) ON DELETE CASCADE,
+    depth         INTEGER NOT NULL,
+    PRIMARY KEY (ancestor_id, descendant_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_event_closure_descendant
+    ON event_closure (descendant_id, depth);
+
+CREATE OR REPLACE FUNCTION event_closure_on_insert() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    INSERT INTO event_closure (ancestor_id, descendant_id, depth)
+    VALUES (NEW.id, NEW.id, 0);
+    IF NEW.parent_id IS NOT NULL THEN
+        INSERT INTO event_closure (ancestor_id, descendant_id, depth)
+        SELECT ancestor_id, NEW.id, depth + 1
+        FROM event_closure
+        WHERE descendant_id = NEW.parent_id;
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+-- Перенос поддерева: связи поддерева с прежними предками удаляются, с новыми — создаются
+-- декартовым произведением (предки нового родителя × узлы поддерева).
+CREATE OR REPLACE FUNCTION event_closure_on_move() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    DELETE
+    FROM event_closure c
+        USING event_closure sub
+    WHERE sub.ancestor_id = NEW.id
+      AND c.descendant_id = sub.descendant_id
+      AND c.ancestor_id IN (SELECT ancestor_id
+                            FROM event_closure
+                            WHERE descendant_id = NEW.id
+                              AND ancestor_id <> NEW.id);
+    IF NEW.parent_id IS NOT NULL THEN
+        INSERT INTO event_closure (ancestor_id, descendant_id, depth)
+        SELECT p.ancestor_id, s.descendant_id, p.depth + s.depth + 1
+        FROM event_closure p
+                 CROSS JOIN event_closure s
+        WHERE p.descendant_id = NEW.parent_id
+          AND s.ancestor_id = NEW.id;
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER trg_event_closure_insert
+    AFTER INSERT
+    ON events
+    FOR EACH ROW
+EXECUTE FUNCTION event_closure_on_insert();
+
+CREATE TRIGGER trg_event_closure_move
+    AFTER UPDATE OF parent_id
+    ON events
+    FOR EACH ROW
+    WHEN (OLD.parent_id IS DISTINCT FROM NEW.parent_id)
+EXECUTE FUNCTION event_closure_on_move();
+
+-- Начальное заполнение по текущим parent_id
+INSERT INTO event_closure (ancestor_id, descendant_id, depth)
+WITH RECURSIVE paths AS (SELECT id AS ancestor_id, id AS descendant_id, 0 AS depth
+                         FROM events
+                         UNION ALL
+                         SELECT p.ancestor_id, e.id, p.depth + 1
+                         FROM paths p
+                                  JOIN events e ON e.parent_id = p.descendant_id
+                         WHERE p.depth < 1000)
+SELECT ancestor_id, descendant_id, depth
+FROM paths
+ON CONFLICT DO NOTHING;
@@ -0,0 +1,5 @@
+-- Постраничный список участников мероприятия читается по курсору (added_at, user_id) в порядке добавления.
+-- Индекс заменяет idx_event_members_event: выборки по event_id обслуживает его префикс.
+CREATE INDEX IF NOT EXISTS idx_event_members_event_added ON event_members (event_id, added_at, user_id);
+
+DROP INDEX IF EXISTS idx_event_members_event;
@@ -0,0 +1,5 @@
+-- Аренда уведомления, взятого в работу: до этого момента рассылка идёт на одном из узлов.
+-- next_attempt_at одинаково сдвигается и арендой, и ожиданием повтора, поэтому отдельная отметка
+-- нужна, чтобы отмена не задевала уже рассылаемые уведомления. NULL — уведомление не захвачено.
+ALTER TABLE event_notifications
+    ADD COLUMN IF NOT EXISTS leased_until TIMESTAMPTZ;
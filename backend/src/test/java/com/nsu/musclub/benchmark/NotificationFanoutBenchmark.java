@@ -0,0 +1,227 @@
+package com.nsu.musclub.benchmark;
+
+import com.nsu.musclub.AbstractIntegrationTest;
+import com.nsu.musclub.dto.event.EventCreateDto;
+import com.nsu.musclub.dto.push.EventNotificationSettingsDto;
+import com.nsu.musclub.service.EventNotificationService;
+import com.nsu.musclub.service.EventService;
+import nl.martijndwars.webpush.Base64Encoder;
+import nl.martijndwars.webpush.Utils;
+import org.bouncycastle.jce.ECNamedCurveTable;
+import org.bouncycastle.jce.interfaces.ECPrivateKey;
+import org.bouncycastle.jce.interfaces.ECPublicKey;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.SecureRandom;
+import java.security.Security;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Нагрузочный тест рассылки: N пользователей × M подписок на локальном {@link StubPushServer},
+ * напоминания нескольких мероприятий проходят полный путь таймер → планировщик → рассылка.
+ * Измеряются пропускная способность доставки и задержка относительно send_at.
+ * <p>
+ * Не входит в {@code test}; запуск: {@code gradle benchmark -Dbenchmark.users=2000}.
+ * Параметры: benchmark.users, benchmark.subscriptions-per-user, benchmark.events, benchmark.latency-ms,
+ * benchmark.error-rate, benchmark.gone-rate, benchmark.timeout-minutes.
+ */
+@Tag("benchmark")
+class NotificationFanoutBenchmark extends AbstractIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationFanoutBenchmark.class);
+
+    private static final int USERS = Integer.getInteger("benchmark.users", 500);
+    private static final int SUBSCRIPTIONS_PER_USER = Integer.getInteger("benchmark.subscriptions-per-user", 2);
+    private static final int EVENTS = Integer.getInteger("benchmark.events", 3);
+    private static final long LATENCY_MS = Long.getLong("benchmark.latency-ms", 20L);
+    private static final double ERROR_RATE = Double.parseDouble(System.getProperty("benchmark.error-rate", "0.01"));
+    private static final double GONE_RATE = Double.parseDouble(System.getProperty("benchmark.gone-rate", "0.005"));
+    private static final Duration TIMEOUT = Duration.ofMinutes(Long.getLong("benchmark.timeout-minutes", 10L));
+
+    /**
+     * Время от планирования до send_at: за это время таймер успевает получить уведомления
+     */
+    private static final Duration LEAD_TIME = Duration.ofSeconds(5);
+
+    private static final KeyPair VAPID_KEYS = generateKeyPair();
+    private static final KeyPair CLIENT_KEYS = generateKeyPair();
+
+    private static StubPushServer pushServer;
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private EventNotificationService notificationService;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void pushProperties(DynamicPropertyRegistry registry) {
+        registry.add("push.vapid-public-key",
+                () -> Base64Encoder.encodeUrlWithoutPadding(Utils.encode((ECPublicKey) VAPID_KEYS.getPublic())));
+        registry.add("push.vapid-private-key",
+                () -> Base64Encoder.encodeUrlWithoutPadding(Utils.encode((ECPrivateKey) VAPID_KEYS.getPrivate())));
+        registry.add("push.retry-base-delay-seconds", () -> 1);
+        registry.add("push.retry-max-delay-seconds", () -> 5);
+    }
+
+    @BeforeAll
+    static void startPushServer() throws Exception {
+        pushServer = new StubPushServer(LATENCY_MS, ERROR_RATE, GONE_RATE, 64);
+    }
+
+    @AfterAll
+    static void stopPushServer() {
+        pushServer.close();
+    }
+
+    @Test
+    void fanout_ShouldDeliverScheduledRemindersToAllSubscriptions() throws InterruptedException {
+        String prefix = "bench_" + UUID.randomUUID().toString().substring(0, 8) + "_";
+        provisionUsers(prefix);
+
+        OffsetDateTime sendAt = OffsetDateTime.now().plus(LEAD_TIME);
+        List<Long> eventIds = new ArrayList<>();
+        for (int i = 0; i < EVENTS; i++) {
+            eventIds.add(createEventWithReminder(prefix, i, sendAt));
+        }
+        log.info("Benchmark: {} users × {} subscriptions, {} reminders due at {}",
+                USERS, SUBSCRIPTIONS_PER_USER, EVENTS, sendAt);
+
+        long deadline = System.currentTimeMillis() + TIMEOUT.toMillis();
+        long pending;
+        while ((pending = countPending(eventIds)) > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(500);
+        }
+
+        report(eventIds, sendAt);
+        assertEquals(0, pending, "Reminders were not processed within " + TIMEOUT);
+        assertEquals(0, pushServer.malformed(), "Push service stub received malformed requests");
+        assertTrue(pushServer.accepted() > 0);
+    }
+
+    private void provisionUsers(String prefix) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("prefix", prefix)
+                .addValue("users", USERS)
+                .addValue("subscriptions", SUBSCRIPTIONS_PER_USER)
+                .addValue("endpoint", pushServer.endpoint(prefix))
+                .addValue("p256dh", Base64Encoder.encodeUrlWithoutPadding(Utils.encode((ECPublicKey) CLIENT_KEYS.getPublic())))
+                .addValue("auth", Base64Encoder.encodeUrlWithoutPadding(randomBytes(16)));
+        jdbcTemplate.update("""
+                INSERT INTO users (username, email, role)
+                SELECT :prefix || g, :prefix || g || '@example.com', 'MEMBER'
+                FROM generate_series(1, :users) g
+                """, params);
+        jdbcTemplate.update("""
+                INSERT INTO push_subscriptions (user_id, endpoint, p256dh_key, auth_key)
+                SELECT u.id, :endpoint || u.id || '-' || s, :p256dh, :auth
+                FROM users u
+                         CROSS JOIN generate_series(1, :subscriptions) s
+                WHERE u.username LIKE :prefix || '%'
+                """, params);
+    }
+
+    /**
+     * Мероприятие со всеми пользователями теста в участниках и одним напоминанием на {@code sendAt}
+     */
+    private Long createEventWithReminder(String prefix, int index, OffsetDateTime sendAt) {
+        EventCreateDto event = new EventCreateDto();
+        event.setTitle("Benchmark " + prefix + index);
+        event.setStartTime(sendAt.plusMinutes(1));
+        Long eventId = eventService.create(event).getId();
+
+        jdbcTemplate.update("""
+                INSERT INTO event_members (event_id, user_id, role)
+                SELECT :eventId, id, 'PERFORMER'
+                FROM users
+                WHERE username LIKE :prefix || '%'
+                """, new MapSqlParameterSource("eventId", eventId).addValue("prefix", prefix));
+
+        EventNotificationSettingsDto settings = new EventNotificationSettingsDto();
+        settings.setReminder24h(false);
+        settings.setReminder2h(false);
+        settings.setReminder15min(false);
+        settings.setCustomIntervals(List.of(1));
+        assertEquals(1, notificationService.scheduleNotificationsForEvent(eventId, settings));
+        return eventId;
+    }
+
+    private long countPending(List<Long> eventIds) {
+        Long count = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM event_notifications WHERE event_id IN (:eventIds) AND status = 'PENDING'",
+                new MapSqlParameterSource("eventIds", eventIds), Long.class);
+        return count != null ? count : 0;
+    }
+
+    private void report(List<Long> eventIds, OffsetDateTime sendAt) {
+        Map<String, Object> deliveries = jdbcTemplate.queryForMap("""
+                SELECT count(*) FILTER (WHERE d.status = 'SENT')   AS sent,
+                       count(*) FILTER (WHERE d.status = 'FAILED') AS failed,
+                       percentile_cont(0.5) WITHIN GROUP (ORDER BY extract(EPOCH FROM d.delivered_at - n.send_at))  AS lag_p50,
+                       percentile_cont(0.95) WITHIN GROUP (ORDER BY extract(EPOCH FROM d.delivered_at - n.send_at)) AS lag_p95,
+                       max(extract(EPOCH FROM d.delivered_at - n.send_at))                                          AS lag_max
+                FROM notification_deliveries d
+                         JOIN event_notifications n ON n.id = d.notification_id
+                WHERE n.event_id IN (:eventIds)
+                """, new MapSqlParameterSource("eventIds", eventIds));
+
+        long first = pushServer.firstRequestAt();
+        long last = pushServer.lastRequestAt();
+        double seconds = first == Long.MAX_VALUE ? 0 : Math.max(1, last - first) / 1000.0;
+        double throughput = seconds == 0 ? 0 : pushServer.requests() / seconds;
+        long startLagMs = first == Long.MAX_VALUE ? -1 : first - sendAt.toInstant().toEpochMilli();
+
+        log.info("""
+                        Benchmark results:
+                          push requests: {} (accepted {}, 503 {}, 410 {}, malformed {}) in {} s — {} req/s
+                          first request {} ms after send_at
+                          deliveries: sent {}, failed {}; lag after send_at p50 {} s, p95 {} s, max {} s""",
+                pushServer.requests(), pushServer.accepted(), pushServer.failed(), pushServer.gone(),
+                pushServer.malformed(), String.format("%.1f", seconds), String.format("%.0f", throughput),
+                startLagMs, deliveries.get("sent"), deliveries.get("failed"),
+                deliveries.get("lag_p50"), deliveries.get("lag_p95"), deliveries.get("lag_max"));
+    }
+
+    private static KeyPair generateKeyPair() {
+        if (Security.getProvider(BouncyCastleProvider.PROVIDER_NAME) == null) {
+            Security.addProvider(new BouncyCastleProvider());
+        }
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("ECDH", BouncyCastleProvider.PROVIDER_NAME);
+            generator.initialize(ECNamedCurveTable.getParameterSpec(Utils.CURVE));
+            return generator.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new SecureRandom().nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,149 @@
+package com.nsu.musclub.benchmark;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Локальная замена push-сервиса для нагрузочных тестов.
+ * Принимает зашифрованные Web Push запросы (aes128gcm + VAPID) по адресам {@code /push/{id}}
+ * и отвечает с заданной задержкой: 201 — доставлено, 503 — временная ошибка (доля {@code errorRate}),
+ * 410 — подписка истекла (доля {@code goneRate}, после этого адрес всегда отвечает 410).
+ * Запросы без обязательных заголовков или тела отклоняются с 400 и учитываются отдельно.
+ */
+public class StubPushServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final long latencyMs;
+    private final double errorRate;
+    private final double goneRate;
+
+    private final Set<String> goneEndpoints = ConcurrentHashMap.newKeySet();
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong gone = new AtomicLong();
+    private final AtomicLong malformed = new AtomicLong();
+    private final AtomicLong firstRequestAt = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong lastRequestAt = new AtomicLong();
+
+    public StubPushServer(long latencyMs, double errorRate, double goneRate, int threads) throws IOException {
+        this.latencyMs = latencyMs;
+        this.errorRate = errorRate;
+        this.goneRate = goneRate;
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        server.createContext("/push/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Адрес подписки с заданным идентификатором
+     */
+    public String endpoint(String id) {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/push/" + id;
+    }
+
+    public long accepted() {
+        return accepted.get();
+    }
+
+    public long failed() {
+        return failed.get();
+    }
+
+    public long gone() {
+        return gone.get();
+    }
+
+    public long malformed() {
+        return malformed.get();
+    }
+
+    public long requests() {
+        return accepted.get() + failed.get() + gone.get() + malformed.get();
+    }
+
+    /**
+     * Момент первого запроса (epoch millis) или {@link Long#MAX_VALUE}, если запросов не было
+     */
+    public long firstRequestAt() {
+        return firstRequestAt.get();
+    }
+
+    /**
+     * Момент ответа на последний запрос (epoch millis)
+     */
+    public long lastRequestAt() {
+        return lastRequestAt.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        long receivedAt = System.currentTimeMillis();
+        firstRequestAt.accumulateAndGet(receivedAt, Math::min);
+        try (exchange) {
+            byte[] body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = in.readAllBytes();
+            }
+            if (!isWellFormed(exchange, body)) {
+                malformed.incrementAndGet();
+                respond(exchange, 400);
+                return;
+            }
+
+            if (latencyMs > 0) {
+                Thread.sleep(latencyMs);
+            }
+
+            String path = exchange.getRequestURI().getPath();
+            double roll = ThreadLocalRandom.current().nextDouble();
+            if (goneEndpoints.contains(path) || roll < goneRate) {
+                goneEndpoints.add(path);
+                gone.incrementAndGet();
+                respond(exchange, 410);
+            } else if (roll < goneRate + errorRate) {
+                failed.incrementAndGet();
+                exchange.getResponseHeaders().add("Retry-After", "1");
+                respond(exchange, 503);
+            } else {
+                accepted.incrementAndGet();
+                respond(exchange, 201);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lastRequestAt.accumulateAndGet(System.currentTimeMillis(), Math::max);
+        }
+    }
+
+    private static boolean isWellFormed(HttpExchange exchange, byte[] body) {
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        return "POST".equals(exchange.getRequestMethod())
+                && body.length > 0
+                && "aes128gcm".equals(exchange.getRequestHeaders().getFirst("Content-Encoding"))
+                && exchange.getRequestHeaders().getFirst("TTL") != null
+                && authorization != null && authorization.startsWith("vapid t=");
+    }
+
+    private static void respond(HttpExchange exchange, int status) throws IOException {
+        exchange.sendResponseHeaders(status, -1);
+    }
+}
@@ -0,0 +1,47 @@
+package com.nsu.musclub.dto.page;
+
+import com.nsu.musclub.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetCursorTest {
+
+    @Test
+    void encodeDecode_ShouldKeepMicrosecondPrecision() {
+        KeysetCursor cursor = KeysetCursor.of(OffsetDateTime.parse("2026-03-01T10:15:30.123456+07:00"), 42L);
+
+        KeysetCursor decoded = KeysetCursor.decode(cursor.encode());
+
+        assertEquals(cursor.at().toInstant(), decoded.at().toInstant());
+        assertEquals(42L, decoded.id());
+    }
+
+    @Test
+    void decode_WithBlankCursor_ShouldReturnNull() {
+        assertNull(KeysetCursor.decode(null));
+        assertNull(KeysetCursor.decode(""));
+    }
+
+    @Test
+    void decode_WithGarbage_ShouldThrowBadRequest() {
+        assertThrows(BadRequestException.class, () -> KeysetCursor.decode("not a cursor!"));
+        assertThrows(BadRequestException.class, () -> KeysetCursor.decode("MTIz"));
+    }
+
+    @Test
+    void cursorPage_ShouldUseExtraRowToDetectNextPage() {
+        OffsetDateTime at = OffsetDateTime.parse("2026-03-01T10:00:00Z");
+
+        CursorPageDto<Long> last = CursorPageDto.of(List.of(3L, 2L), 2, id -> KeysetCursor.of(at, id));
+        CursorPageDto<Long> first = CursorPageDto.of(List.of(3L, 2L, 1L), 2, id -> KeysetCursor.of(at, id));
+
+        assertFalse(last.isHasMore());
+        assertNull(last.getNextCursor());
+        assertEquals(List.of(3L, 2L), first.getItems());
+        assertEquals(2L, KeysetCursor.decode(first.getNextCursor()).id());
+    }
+}
@@ -0,0 +1,140 @@
+package com.nsu.musclub.repository;
+
+import com.nsu.musclub.AbstractIntegrationTest;
+import com.nsu.musclub.domain.Event;
+import com.nsu.musclub.domain.EventNotification;
+import com.nsu.musclub.domain.EventNotification.Status;
+import com.nsu.musclub.domain.User;
+import com.nsu.musclub.repository.NotificationDeliveryBatchRepository.DeliveryRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Transactional
+class EventNotificationPartitionRepositoryTest extends AbstractIntegrationTest {
+
+    private static final YearMonth JANUARY = YearMonth.of(2020, 1);
+    private static final YearMonth FEBRUARY = YearMonth.of(2020, 2);
+
+    @Autowired
+    private EventNotificationPartitionRepository partitionRepository;
+
+    @Autowired
+    private EventNotificationRepository notificationRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private NotificationDeliveryBatchRepository deliveryBatchRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Event event;
+
+    @BeforeEach
+    void setUp() {
+        event = new Event();
+        event.setTitle("Partition Event");
+        event.setStartTime(OffsetDateTime.now().plusDays(1));
+        event = eventRepository.save(event);
+    }
+
+    @Test
+    void ensurePartition_ShouldMoveRowsByUtcMonthBoundary() {
+        Long lastJanuary = saveNotification(OffsetDateTime.of(2020, 1, 31, 23, 59, 59, 0, ZoneOffset.UTC), Status.SENT);
+        // 1 февраля 02:00 по UTC+3 — ещё январь по UTC
+        Long januaryInLocalTime = saveNotification(OffsetDateTime.of(2020, 2, 1, 2, 0, 0, 0, ZoneOffset.ofHours(3)), Status.SENT);
+        Long firstFebruary = saveNotification(OffsetDateTime.of(2020, 2, 1, 0, 0, 0, 0, ZoneOffset.UTC), Status.SENT);
+
+        assertTrue(partitionRepository.ensurePartition(JANUARY));
+        assertTrue(partitionRepository.ensurePartition(FEBRUARY));
+        assertFalse(partitionRepository.ensurePartition(FEBRUARY));
+
+        assertEquals("event_notifications_p202001", partitionOf(lastJanuary));
+        assertEquals("event_notifications_p202001", partitionOf(januaryInLocalTime));
+        assertEquals("event_notifications_p202002", partitionOf(firstFebruary));
+        assertTrue(partitionRepository.findPartitionMonths().containsAll(List.of(JANUARY, FEBRUARY)));
+    }
+
+    @Test
+    void hasPending_ShouldOnlySeePendingRowsOfThatPartition() {
+        Long pending = saveNotification(OffsetDateTime.of(2020, 1, 31, 23, 59, 59, 0, ZoneOffset.UTC), Status.PENDING);
+        saveNotification(OffsetDateTime.of(2020, 2, 1, 0, 0, 0, 0, ZoneOffset.UTC), Status.CANCELLED);
+        partitionRepository.ensurePartition(JANUARY);
+        partitionRepository.ensurePartition(FEBRUARY);
+
+        assertTrue(partitionRepository.hasPending(JANUARY));
+        assertFalse(partitionRepository.hasPending(FEBRUARY));
+
+        jdbcTemplate.update("UPDATE event_notifications SET status = 'SENT' WHERE id = ?", pending);
+
+        assertFalse(partitionRepository.hasPending(JANUARY));
+    }
+
+    @Test
+    void dropPartition_ShouldRemoveMonthAndKeepOthers() {
+        saveNotification(OffsetDateTime.of(2020, 1, 15, 12, 0, 0, 0, ZoneOffset.UTC), Status.SENT);
+        Long february = saveNotification(OffsetDateTime.of(2020, 2, 1, 0, 0, 0, 0, ZoneOffset.UTC), Status.SENT);
+        partitionRepository.ensurePartition(JANUARY);
+        partitionRepository.ensurePartition(FEBRUARY);
+
+        partitionRepository.dropPartition(JANUARY);
+
+        assertFalse(partitionRepository.findPartitionMonths().contains(JANUARY));
+        assertTrue(partitionRepository.findPartitionMonths().contains(FEBRUARY));
+        assertEquals("event_notifications_p202002", partitionOf(february));
+    }
+
+    @Test
+    void deleteDeliveriesChunk_ShouldKeepDeliveriesOfPendingNotifications() {
+        User user = new User();
+        user.setUsername("partition_user");
+        user.setEmail("partition_user@example.com");
+        user.setRole("MEMBER");
+        Long userId = userRepository.save(user).getId();
+        OffsetDateTime sendAt = OffsetDateTime.of(2020, 1, 10, 12, 0, 0, 0, ZoneOffset.UTC);
+        Long sent = saveNotification(sendAt, Status.SENT);
+        Long pending = saveNotification(sendAt.plusDays(1), Status.PENDING);
+        deliveryBatchRepository.upsertAll(List.of(
+                new DeliveryRecord(sent, userId, Status.SENT, sendAt, null, false),
+                new DeliveryRecord(pending, userId, Status.FAILED, sendAt, "timeout", true)));
+        partitionRepository.ensurePartition(JANUARY);
+
+        partitionRepository.lockPartition(JANUARY);
+        assertEquals(1, partitionRepository.deleteDeliveriesChunk(JANUARY, 10));
+        assertEquals(0, partitionRepository.deleteDeliveriesChunk(JANUARY, 10));
+
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM notification_deliveries WHERE notification_id = ?", Integer.class, pending));
+    }
+
+    private Long saveNotification(OffsetDateTime sendAt, Status status) {
+        EventNotification notification = new EventNotification();
+        notification.setEvent(event);
+        notification.setSendAt(sendAt);
+        notification.setNextAttemptAt(sendAt);
+        notification.setStatus(status);
+        notification.setTitle("Partition test");
+        notification.setBody("Partition test");
+        return notificationRepository.saveAndFlush(notification).getId();
+    }
+
+    private String partitionOf(Long notificationId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT tableoid::regclass::text FROM event_notifications WHERE id = ?", String.class, notificationId);
+    }
+}
@@ -0,0 +1,121 @@
+package com.nsu.musclub.repository;
+
+import com.nsu.musclub.AbstractIntegrationTest;
+import com.nsu.musclub.domain.Event;
+import com.nsu.musclub.domain.EventNotification;
+import com.nsu.musclub.domain.EventNotification.Status;
+import com.nsu.musclub.domain.PushSubscription;
+import com.nsu.musclub.domain.User;
+import com.nsu.musclub.dto.push.NotificationReceiptDto.Type;
+import com.nsu.musclub.repository.NotificationDeliveryBatchRepository.DeliveryRecord;
+import com.nsu.musclub.repository.NotificationReceiptRepository.Receipt;
+import com.nsu.musclub.repository.NotificationReceiptRepository.ReceiptKey;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Transactional
+class NotificationReceiptRepositoryTest extends AbstractIntegrationTest {
+
+    private static final String ENDPOINT = "https://push.example.com/receipt-test";
+    private static final String AUTH_KEY = "c2VjcmV0LWF1dGg";
+    private static final OffsetDateTime DELIVERED_AT = OffsetDateTime.of(2026, 1, 10, 12, 0, 0, 0, ZoneOffset.UTC);
+
+    @Autowired
+    private NotificationReceiptRepository receiptRepository;
+
+    @Autowired
+    private NotificationDeliveryBatchRepository deliveryBatchRepository;
+
+    @Autowired
+    private EventNotificationRepository notificationRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PushSubscriptionRepository subscriptionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long notificationId;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUsername("receipt_user");
+        user.setEmail("receipt_user@example.com");
+        user.setRole("MEMBER");
+        user = userRepository.save(user);
+
+        PushSubscription subscription = new PushSubscription();
+        subscription.setUser(user);
+        subscription.setEndpoint(ENDPOINT);
+        subscription.setP256dhKey("p256dh");
+        subscription.setAuthKey(AUTH_KEY);
+        subscription.setActive(true);
+        subscriptionRepository.save(subscription);
+
+        Event event = new Event();
+        event.setTitle("Receipt Event");
+        event.setStartTime(OffsetDateTime.now().plusDays(1));
+        event = eventRepository.save(event);
+
+        EventNotification notification = new EventNotification();
+        notification.setEvent(event);
+        notification.setSendAt(DELIVERED_AT);
+        notification.setNextAttemptAt(DELIVERED_AT);
+        notification.setStatus(Status.SENT);
+        notification.setTitle("Receipt test");
+        notification.setBody("Receipt test");
+        notificationId = notificationRepository.saveAndFlush(notification).getId();
+
+        deliveryBatchRepository.upsertAll(List.of(
+                new DeliveryRecord(notificationId, user.getId(), Status.SENT, DELIVERED_AT, null, false)));
+    }
+
+    @Test
+    void applyAll_ShownAndClickedInOneBatch_ShouldRecordBoth() {
+        Set<ReceiptKey> matched = receiptRepository.applyAll(List.of(
+                receipt(Type.SHOWN, AUTH_KEY, DELIVERED_AT.plusSeconds(5)),
+                receipt(Type.CLICKED, AUTH_KEY, DELIVERED_AT.plusSeconds(30))));
+
+        assertEquals(Set.of(new ReceiptKey(notificationId, ENDPOINT, AUTH_KEY)), matched);
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT shown_at, clicked_at FROM notification_deliveries WHERE notification_id = ?", notificationId);
+        assertEquals(DELIVERED_AT.plusSeconds(5).toInstant(), ((Timestamp) row.get("shown_at")).toInstant());
+        assertEquals(DELIVERED_AT.plusSeconds(30).toInstant(), ((Timestamp) row.get("clicked_at")).toInstant());
+    }
+
+    @Test
+    void applyAll_WithWrongAuthKey_ShouldNotTouchDelivery() {
+        Set<ReceiptKey> matched = receiptRepository.applyAll(List.of(
+                receipt(Type.CLICKED, "Z3Vlc3NlZA", DELIVERED_AT.plusSeconds(5))));
+
+        assertTrue(matched.isEmpty());
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM notification_deliveries WHERE notification_id = ? AND shown_at IS NOT NULL",
+                Integer.class, notificationId));
+        assertEquals(Set.of(new ReceiptKey(null, ENDPOINT, AUTH_KEY)), receiptRepository.findActiveSubscriptions(List.of(
+                new ReceiptKey(null, ENDPOINT, AUTH_KEY), new ReceiptKey(null, ENDPOINT, "Z3Vlc3NlZA"))));
+    }
+
+    private Receipt receipt(Type type, String authKey, OffsetDateTime occurredAt) {
+        return new Receipt(notificationId, ENDPOINT, authKey, type, occurredAt, occurredAt.toInstant().toEpochMilli(), 0);
+    }
+}
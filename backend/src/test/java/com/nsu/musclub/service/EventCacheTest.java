@@ -0,0 +1,105 @@
+package com.nsu.musclub.service;
+
+import com.nsu.musclub.dto.event.EventResponseDto;
+import com.nsu.musclub.service.impl.EventCache;
+import com.nsu.musclub.service.impl.EventCache.Section;
+import com.nsu.musclub.service.impl.PgNotificationListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class EventCacheTest {
+
+    private EventCache cache;
+    private Consumer<String> remoteHandler;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        PgNotificationListener listener = mock(PgNotificationListener.class);
+        cache = new EventCache(listener, 2, 300);
+
+        ArgumentCaptor<Consumer<String>> handler = ArgumentCaptor.forClass(Consumer.class);
+        verify(listener).subscribe(eq(EventCache.CHANNEL), handler.capture());
+        remoteHandler = handler.getValue();
+    }
+
+    @Test
+    void get_ShouldServeRepeatedReadsFromCache() {
+        EventResponseDto first = cache.get(1L, Section.EVENT, () -> load(1L));
+        EventResponseDto second = cache.get(1L, Section.EVENT, () -> load(1L));
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void get_ShouldKeepSectionsSeparate() {
+        cache.get(1L, Section.EVENT, () -> load(1L));
+        List<String> members = cache.get(1L, Section.MEMBERS, () -> List.of("member"));
+
+        assertEquals(List.of("member"), members);
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void get_WhenFull_ShouldEvictLeastRecentlyRead() {
+        cache.get(1L, Section.EVENT, () -> load(1L));
+        cache.get(2L, Section.EVENT, () -> load(2L));
+        cache.get(1L, Section.EVENT, () -> load(1L));
+        cache.get(3L, Section.EVENT, () -> load(3L));
+
+        cache.get(1L, Section.EVENT, () -> load(1L));
+        assertEquals(3, loads.get());
+        cache.get(2L, Section.EVENT, () -> load(2L));
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void invalidate_ShouldReloadOnNextRead() {
+        cache.get(1L, Section.EVENT, () -> load(1L));
+
+        cache.invalidate(1L);
+        cache.get(1L, Section.EVENT, () -> load(1L));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_WhenInvalidatedDuringLoad_ShouldNotCacheStaleValue() {
+        cache.get(1L, Section.EVENT, () -> {
+            cache.invalidate(1L);
+            return load(1L);
+        });
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void remoteChange_ShouldEvictEvent() {
+        cache.get(1L, Section.EVENT, () -> load(1L));
+        cache.get(2L, Section.EVENT, () -> load(2L));
+
+        remoteHandler.accept("1");
+
+        assertEquals(1, cache.size());
+        remoteHandler.accept("garbage");
+        assertEquals(0, cache.size());
+    }
+
+    private EventResponseDto load(Long id) {
+        loads.incrementAndGet();
+        EventResponseDto dto = new EventResponseDto();
+        dto.setId(id);
+        return dto;
+    }
+}
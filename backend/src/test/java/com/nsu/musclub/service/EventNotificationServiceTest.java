@@ -0,0 +1,261 @@
+package com.nsu.musclub.service;
+
+import com.nsu.musclub.AbstractIntegrationTest;
+import com.nsu.musclub.domain.EventNotification.NotificationType;
+import com.nsu.musclub.domain.EventNotification.Status;
+import com.nsu.musclub.dto.event.EventCreateDto;
+import com.nsu.musclub.dto.event.EventMemberUpsertDto;
+import com.nsu.musclub.dto.push.EventNotificationSettingsDto;
+import com.nsu.musclub.dto.push.FanoutJobDto;
+import com.nsu.musclub.dto.push.NotificationResponseDto;
+import com.nsu.musclub.dto.page.CursorPageDto;
+import com.nsu.musclub.dto.push.NotificationStatsDto;
+import com.nsu.musclub.dto.user.UserCreateDto;
+import com.nsu.musclub.exception.ResourceNotFoundException;
+import com.nsu.musclub.repository.NotificationDeliveryBatchRepository;
+import com.nsu.musclub.repository.NotificationDeliveryBatchRepository.DeliveryRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@org.springframework.transaction.annotation.Transactional
+class EventNotificationServiceTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private EventNotificationService notificationService;
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private EventRelationService relationService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private NotificationFanoutService fanoutService;
+
+    @Autowired
+    private NotificationDeliveryBatchRepository deliveryBatchRepository;
+
+    private Long eventId;
+
+    @BeforeEach
+    void setUp() {
+        EventCreateDto eventDto = new EventCreateDto();
+        eventDto.setTitle("Notification Event");
+        eventDto.setStartTime(OffsetDateTime.now().plusDays(3));
+        eventId = eventService.create(eventDto).getId();
+    }
+
+    private Long addMember(String username) {
+        UserCreateDto userDto = new UserCreateDto();
+        userDto.setUsername(username);
+        userDto.setEmail(username + "@example.com");
+        userDto.setRole("MEMBER");
+        Long userId = userService.create(userDto).getId();
+
+        EventMemberUpsertDto memberDto = new EventMemberUpsertDto();
+        memberDto.setUserId(userId);
+        memberDto.setRole("PERFORMER");
+        relationService.upsertMember(eventId, memberDto);
+        return userId;
+    }
+
+    @Test
+    void scheduleNotifications_ShouldCreateOneNotificationPerReminder() {
+        addMember("notify_user1");
+        addMember("notify_user2");
+        addMember("notify_user3");
+
+        int created = notificationService.scheduleNotificationsForEvent(eventId);
+
+        assertEquals(3, created);
+        List<NotificationResponseDto> notifications = notificationService.getNotificationsForEvent(eventId);
+        assertEquals(3, notifications.size());
+        assertTrue(notifications.stream().allMatch(n -> n.getUserId() == null));
+        assertTrue(notifications.stream().allMatch(n -> n.getStatus() == Status.PENDING));
+    }
+
+    @Test
+    void scheduleNotifications_WithoutMembers_ShouldStillCreateNotifications() {
+        int created = notificationService.scheduleNotificationsForEvent(eventId);
+
+        assertEquals(3, created);
+    }
+
+    @Test
+    void scheduleNotifications_Twice_ShouldNotDuplicate() {
+        notificationService.scheduleNotificationsForEvent(eventId);
+
+        int createdAgain = notificationService.scheduleNotificationsForEvent(eventId);
+
+        assertEquals(0, createdAgain);
+        assertEquals(3, notificationService.getNotificationsForEvent(eventId).size());
+    }
+
+    @Test
+    void scheduleNotifications_WithCustomIntervals_ShouldCreateEachInterval() {
+        EventNotificationSettingsDto settings = new EventNotificationSettingsDto();
+        settings.setReminder24h(false);
+        settings.setReminder2h(false);
+        settings.setReminder15min(false);
+        settings.setCustomIntervals(List.of(30, 60, 180));
+
+        int created = notificationService.scheduleNotificationsForEvent(eventId, settings);
+
+        assertEquals(3, created);
+    }
+
+    @Test
+    void scheduleNotifications_WithNonExistentEvent_ShouldThrow() {
+        assertThrows(ResourceNotFoundException.class,
+                () -> notificationService.scheduleNotificationsForEvent(99999L));
+    }
+
+    @Test
+    void cancelNotifications_ShouldCancelPending() {
+        notificationService.scheduleNotificationsForEvent(eventId);
+
+        int cancelled = notificationService.cancelNotificationsForEvent(eventId);
+
+        assertEquals(3, cancelled);
+        NotificationStatsDto stats = notificationService.getStatsForEvent(eventId);
+        assertEquals(0, stats.getPending());
+        assertEquals(3, stats.getCancelled());
+    }
+
+    @Test
+    void getStatsForEvent_ShouldCountPendingNotifications() {
+        addMember("notify_stats_user");
+        notificationService.scheduleNotificationsForEvent(eventId);
+
+        NotificationStatsDto stats = notificationService.getStatsForEvent(eventId);
+
+        assertEquals(3, stats.getPending());
+        assertEquals(0, stats.getSent());
+        assertEquals(0, stats.getTotalDeliveries());
+    }
+
+    @Test
+    void getStatsForEvent_ShouldTrackDeliveriesAndRetries() {
+        Long firstUser = addMember("notify_stats_sent");
+        Long secondUser = addMember("notify_stats_retry");
+        notificationService.scheduleNotificationsForEvent(eventId);
+        NotificationResponseDto notification = notificationService.getNotificationsForEvent(eventId).get(0);
+        OffsetDateTime deliveredAt = notification.getSendAt().plusSeconds(2);
+
+        deliveryBatchRepository.upsertAll(List.of(
+                new DeliveryRecord(notification.getId(), firstUser, Status.SENT, deliveredAt, null, false),
+                new DeliveryRecord(notification.getId(), secondUser, Status.FAILED, deliveredAt, "timeout", true)));
+        deliveryBatchRepository.upsertAll(List.of(
+                new DeliveryRecord(notification.getId(), secondUser, Status.SENT, deliveredAt.plusSeconds(4), null, false)));
+
+        NotificationStatsDto stats = notificationService.getStatsForEvent(eventId);
+
+        assertEquals(2, stats.getSent());
+        assertEquals(0, stats.getFailed());
+        assertEquals(2, stats.getTotalDeliveries());
+        assertEquals(4000, stats.getAverageDeliveryLatencyMs());
+        assertEquals(6000, stats.getMaxDeliveryLatencyMs());
+    }
+
+    @Test
+    void sendImmediateNotification_ShouldEnqueueFanoutJob() {
+        addMember("notify_now_user");
+
+        FanoutJobDto job = notificationService.sendImmediateNotification(eventId, "Сбор", "Начинаем через 5 минут");
+
+        assertNotNull(job.getJobId());
+        assertEquals(eventId, job.getEventId());
+        assertEquals(FanoutJobDto.State.QUEUED, job.getState());
+        assertEquals(job.getJobId(), fanoutService.getJob(job.getJobId()).getJobId());
+
+        List<NotificationResponseDto> notifications = notificationService.getNotificationsForEvent(eventId);
+        assertEquals(1, notifications.size());
+        assertEquals(job.getNotificationId(), notifications.get(0).getId());
+        // SENT проставит задача рассылки; до её завершения уведомление остаётся в очереди под арендой
+        assertEquals(Status.PENDING, notifications.get(0).getStatus());
+        assertNull(notifications.get(0).getSentAt());
+    }
+
+    @Test
+    void cancelNotifications_ShouldNotCancelInFlightImmediateSends() {
+        addMember("notify_inflight_user");
+        notificationService.scheduleNotificationsForEvent(eventId);
+        FanoutJobDto custom = notificationService.sendImmediateNotification(eventId, "Сбор", "Начинаем через 5 минут");
+        FanoutJobDto firstCancel = notificationService.notifyEventCancelled(eventId);
+
+        assertEquals(0, notificationService.cancelNotificationsForEvent(eventId));
+        FanoutJobDto secondCancel = notificationService.notifyEventCancelled(eventId);
+
+        // Напоминания отменены первым уведомлением об отмене, немедленные рассылки дожидаются завершения
+        List<NotificationResponseDto> notifications = notificationService.getNotificationsForEvent(eventId);
+        for (NotificationResponseDto notification : notifications) {
+            Long id = notification.getId();
+            boolean immediate = id.equals(custom.getNotificationId())
+                    || id.equals(firstCancel.getNotificationId())
+                    || id.equals(secondCancel.getNotificationId());
+            assertEquals(immediate ? Status.PENDING : Status.CANCELLED, notification.getStatus(),
+                    () -> "notification " + id + " of type " + notification.getNotificationType());
+        }
+        assertEquals(3, notificationService.getStatsForEvent(eventId).getCancelled());
+    }
+
+    @Test
+    void notifyEventUpdated_ShouldCoalesceIntoOnePendingNotification() {
+        addMember("notify_update_user");
+
+        NotificationResponseDto first = notificationService.notifyEventUpdated(eventId);
+        NotificationResponseDto second = notificationService.notifyEventUpdated(eventId);
+
+        assertEquals(first.getId(), second.getId());
+        assertFalse(second.getSendAt().isBefore(first.getSendAt()));
+        assertTrue(second.getSendAt().isAfter(OffsetDateTime.now()));
+        List<NotificationResponseDto> updates = notificationService.getNotificationsForEvent(eventId).stream()
+                .filter(notification -> notification.getNotificationType() == NotificationType.EVENT_UPDATED)
+                .toList();
+        assertEquals(1, updates.size());
+        assertEquals(Status.PENDING, updates.get(0).getStatus());
+    }
+
+    @Test
+    void getFanoutJob_WithUnknownId_ShouldThrow() {
+        assertThrows(ResourceNotFoundException.class, () -> fanoutService.getJob("unknown"));
+    }
+
+    @Test
+    void getNotificationsForUser_ShouldPageByCursorAndTrackUnread() {
+        Long userId = addMember("notify_inbox_user");
+        notificationService.scheduleNotificationsForEvent(eventId);
+        List<NotificationResponseDto> notifications = notificationService.getNotificationsForEvent(eventId);
+        OffsetDateTime deliveredAt = OffsetDateTime.now().minusHours(1);
+        deliveryBatchRepository.upsertAll(List.of(
+                new DeliveryRecord(notifications.get(0).getId(), userId, Status.SENT, deliveredAt, null, false),
+                new DeliveryRecord(notifications.get(1).getId(), userId, Status.SENT, deliveredAt, null, false),
+                new DeliveryRecord(notifications.get(2).getId(), userId, Status.SENT, deliveredAt.plusMinutes(5), null, false)));
+
+        CursorPageDto<NotificationResponseDto> first = notificationService.getNotificationsForUser(userId, null, 2);
+        CursorPageDto<NotificationResponseDto> second =
+                notificationService.getNotificationsForUser(userId, first.getNextCursor(), 2);
+
+        assertEquals(2, first.getItems().size());
+        assertTrue(first.isHasMore());
+        assertEquals(notifications.get(2).getId(), first.getItems().get(0).getId());
+        assertEquals("Notification Event", first.getItems().get(0).getEventTitle());
+        assertEquals(1, second.getItems().size());
+        assertFalse(second.isHasMore());
+
+        assertEquals(3, notificationService.countUnread(userId).getCount());
+        assertEquals(1, notificationService.markNotificationsRead(userId, List.of(notifications.get(0).getId())));
+        assertEquals(2, notificationService.countUnread(userId).getCount());
+        assertEquals(2, notificationService.markNotificationsRead(userId, null));
+        assertEquals(0, notificationService.countUnread(userId).getCount());
+    }
+}
@@ -1,9 +1,12 @@
 package com.nsu.musclub.service;
 
 import com.nsu.musclub.AbstractIntegrationTest;
+import com.nsu.musclub.dto.event.EventCardDto;
 import com.nsu.musclub.dto.event.EventCreateDto;
+import com.nsu.musclub.dto.event.EventFilterDto;
 import com.nsu.musclub.dto.event.EventResponseDto;
 import com.nsu.musclub.dto.event.EventUpdateDto;
+import com.nsu.musclub.dto.page.CursorPageDto;
 import com.nsu.musclub.exception.BadRequestException;
 import com.nsu.musclub.exception.ResourceNotFoundException;
 import org.junit.jupiter.api.Test;
@@ -12,6 +15,8 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -239,4 +244,57 @@ class EventServiceTest extends AbstractIntegrationTest {
 
         assertNotNull(exception.getMessage());
     }
+
+    @Test
+    void feed_ShouldPageByCursorFromLatestEvent() {
+        // Далёкое будущее, чтобы события теста были первыми в ленте
+        OffsetDateTime base = OffsetDateTime.now().plusYears(200);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            EventCreateDto dto = new EventCreateDto();
+            dto.setTitle("Feed Event " + i);
+            dto.setStartTime(base.plusDays(i));
+            ids.add(eventService.create(dto).getId());
+        }
+
+        CursorPageDto<EventCardDto> first = eventService.feed(null, 2);
+        CursorPageDto<EventCardDto> second = eventService.feed(first.getNextCursor(), 2);
+
+        assertEquals(List.of(ids.get(2), ids.get(1)), first.getItems().stream().map(EventCardDto::getId).toList());
+        assertTrue(first.isHasMore());
+        assertEquals(ids.get(0), second.getItems().get(0).getId());
+        assertEquals("Feed Event 0", second.getItems().get(0).getTitle());
+    }
+
+    @Test
+    void listEvents_WithFilter_ShouldMatchWindowAndVenue() {
+        OffsetDateTime base = OffsetDateTime.now().plusYears(150);
+        for (int i = 0; i < 3; i++) {
+            EventCreateDto dto = new EventCreateDto();
+            dto.setTitle("Filter Event " + i);
+            dto.setStartTime(base.plusDays(i));
+            dto.setVenue(i == 1 ? "Filter Hall" : "Filter Club");
+            eventService.create(dto);
+        }
+
+        EventFilterDto filter = new EventFilterDto();
+        filter.setFrom(base);
+        filter.setTo(base.plusDays(3));
+        filter.setVenue(" filter hall ");
+        filter.setTopLevel(true);
+        filter.setHasChildren(false);
+        Page<EventResponseDto> page = eventService.list(filter, Pageable.ofSize(10));
+
+        assertEquals(1, page.getTotalElements());
+        assertEquals("Filter Event 1", page.getContent().get(0).getTitle());
+    }
+
+    @Test
+    void listEvents_WithInvertedWindow_ShouldThrow400() {
+        EventFilterDto filter = new EventFilterDto();
+        filter.setFrom(futureTime());
+        filter.setTo(pastTime());
+
+        assertThrows(BadRequestException.class, () -> eventService.list(filter, Pageable.ofSize(10)));
+    }
 }
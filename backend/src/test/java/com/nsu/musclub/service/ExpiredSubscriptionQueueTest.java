@@ -0,0 +1,79 @@
+package com.nsu.musclub.service;
+
+import com.nsu.musclub.config.PushNotificationConfig;
+import com.nsu.musclub.dto.push.ActivePushSubscription;
+import com.nsu.musclub.repository.PushSubscriptionRepository;
+import com.nsu.musclub.service.impl.ExpiredSubscriptionQueue;
+import com.nsu.musclub.service.impl.PushSubscriptionRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ExpiredSubscriptionQueueTest {
+
+    private PushSubscriptionRepository repository;
+    private PushSubscriptionRegistry registry;
+    private ExpiredSubscriptionQueue queue;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        repository = mock(PushSubscriptionRepository.class);
+        when(repository.deactivateByIds(anyCollection(), any()))
+                .thenAnswer(invocation -> ((Collection<Long>) invocation.getArgument(0)).size());
+
+        registry = mock(PushSubscriptionRegistry.class);
+
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(null));
+
+        PushNotificationConfig config = new PushNotificationConfig();
+        config.setExpiredSubscriptionBatchSize(2);
+        queue = new ExpiredSubscriptionQueue(repository, registry, transactionTemplate, config);
+    }
+
+    @Test
+    void enqueue_ShouldCollapseDuplicates() {
+        queue.enqueue(subscription(1L, 10L));
+        queue.enqueue(subscription(1L, 10L));
+        queue.enqueue(subscription(2L, 10L));
+
+        assertEquals(2, queue.size());
+    }
+
+    @Test
+    void flush_ShouldDeactivateInBatches() {
+        queue.enqueue(subscription(1L, 10L));
+        queue.enqueue(subscription(2L, 20L));
+        queue.enqueue(subscription(3L, 30L));
+
+        int deactivated = queue.flush();
+
+        assertEquals(3, deactivated);
+        assertEquals(0, queue.size());
+        verify(repository, times(2)).deactivateByIds(anyCollection(), any());
+        verify(registry, times(2)).invalidate(anyCollection());
+    }
+
+    @Test
+    void flush_WhenUpdateFails_ShouldKeepSubscriptionsQueued() {
+        when(repository.deactivateByIds(anyCollection(), any())).thenThrow(new IllegalStateException("db down"));
+        queue.enqueue(subscription(1L, 10L));
+        queue.enqueue(subscription(2L, 20L));
+
+        assertEquals(0, queue.flush());
+        assertEquals(2, queue.size());
+    }
+
+    private static ActivePushSubscription subscription(Long id, Long userId) {
+        return new ActivePushSubscription(id, userId, "https://push.example.com/" + id, "p256dh", "auth");
+    }
+}
@@ -0,0 +1,110 @@
+package com.nsu.musclub.service;
+
+import com.nsu.musclub.config.PushNotificationConfig;
+import com.nsu.musclub.repository.EventNotificationPartitionRepository;
+import com.nsu.musclub.service.impl.NotificationPartitionMaintenance;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class NotificationPartitionMaintenanceTest {
+
+    private static final YearMonth JANUARY = YearMonth.of(2026, 1);
+    private static final YearMonth FEBRUARY = YearMonth.of(2026, 2);
+    private static final YearMonth MARCH = YearMonth.of(2026, 3);
+
+    private EventNotificationPartitionRepository partitionRepository;
+    private NotificationPartitionMaintenance maintenance;
+
+    @BeforeEach
+    void setUp() {
+        partitionRepository = mock(EventNotificationPartitionRepository.class);
+        PushNotificationConfig config = new PushNotificationConfig();
+        config.setRetentionDeleteChunkSize(2);
+        maintenance = new NotificationPartitionMaintenance(partitionRepository,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), config);
+        when(partitionRepository.findPartitionMonths()).thenReturn(List.of(JANUARY, FEBRUARY, MARCH));
+    }
+
+    @Test
+    void dropExpiredPartitions_ThresholdAtMonthStart_ShouldDropPartitionEndingThere() {
+        maintenance.dropExpiredPartitions(OffsetDateTime.of(2026, 3, 1, 0, 0, 0, 0, ZoneOffset.UTC));
+
+        verify(partitionRepository).dropPartition(JANUARY);
+        verify(partitionRepository).dropPartition(FEBRUARY);
+        verify(partitionRepository, never()).dropPartition(MARCH);
+        verify(partitionRepository, never()).hasPending(MARCH);
+    }
+
+    @Test
+    void dropExpiredPartitions_ThresholdJustBeforeMonthEnd_ShouldKeepThatMonth() {
+        maintenance.dropExpiredPartitions(OffsetDateTime.of(2026, 2, 28, 23, 59, 59, 0, ZoneOffset.UTC));
+
+        verify(partitionRepository).dropPartition(JANUARY);
+        verify(partitionRepository, never()).dropPartition(FEBRUARY);
+        verify(partitionRepository, never()).dropPartition(MARCH);
+    }
+
+    @Test
+    void dropExpiredPartitions_ThresholdInNonUtcOffset_ShouldCompareInUtc() {
+        // 1 марта 02:00 по UTC+3 — это ещё 28 февраля по UTC, февральская секция не закончилась
+        maintenance.dropExpiredPartitions(OffsetDateTime.of(2026, 3, 1, 2, 0, 0, 0, ZoneOffset.ofHours(3)));
+
+        verify(partitionRepository).dropPartition(JANUARY);
+        verify(partitionRepository, never()).dropPartition(FEBRUARY);
+    }
+
+    @Test
+    void dropExpiredPartitions_PartitionWithPending_ShouldBeKeptAndLaterMonthsProcessed() {
+        when(partitionRepository.hasPending(JANUARY)).thenReturn(true);
+
+        maintenance.dropExpiredPartitions(OffsetDateTime.of(2026, 3, 1, 0, 0, 0, 0, ZoneOffset.UTC));
+
+        verify(partitionRepository, never()).deleteDeliveriesChunk(eq(JANUARY), anyInt());
+        verify(partitionRepository, never()).dropPartition(JANUARY);
+        verify(partitionRepository).dropPartition(FEBRUARY);
+    }
+
+    @Test
+    void dropExpiredPartitions_ShouldDeleteDeliveriesInChunksBeforeDrop() {
+        when(partitionRepository.deleteDeliveriesChunk(JANUARY, 2)).thenReturn(2, 2, 1, 0);
+
+        maintenance.dropExpiredPartitions(OffsetDateTime.of(2026, 2, 1, 0, 0, 0, 0, ZoneOffset.UTC));
+
+        InOrder order = inOrder(partitionRepository);
+        order.verify(partitionRepository).hasPending(JANUARY);
+        order.verify(partitionRepository, times(3)).deleteDeliveriesChunk(JANUARY, 2);
+        // Под блокировкой секции: повторная проверка, остаток журнала и удаление
+        order.verify(partitionRepository).lockPartition(JANUARY);
+        order.verify(partitionRepository).hasPending(JANUARY);
+        order.verify(partitionRepository).deleteDeliveriesChunk(JANUARY, 2);
+        order.verify(partitionRepository).dropPartition(JANUARY);
+        verify(partitionRepository, times(1)).dropPartition(any(YearMonth.class));
+    }
+
+    @Test
+    void dropExpiredPartitions_PendingAppearedBeforeLock_ShouldSkipDrop() {
+        // Уведомление вернулось в очередь между первой проверкой и блокировкой секции
+        when(partitionRepository.hasPending(JANUARY)).thenReturn(false, true);
+
+        maintenance.dropExpiredPartitions(OffsetDateTime.of(2026, 2, 1, 0, 0, 0, 0, ZoneOffset.UTC));
+
+        InOrder order = inOrder(partitionRepository);
+        order.verify(partitionRepository).lockPartition(JANUARY);
+        order.verify(partitionRepository).hasPending(JANUARY);
+        verify(partitionRepository, times(1)).deleteDeliveriesChunk(JANUARY, 2);
+        verify(partitionRepository, never()).dropPartition(any(YearMonth.class));
+    }
+}
@@ -0,0 +1,172 @@
+package com.nsu.musclub.service;
+
+import com.nsu.musclub.config.PushNotificationConfig;
+import com.nsu.musclub.dto.push.NotificationReceiptDto;
+import com.nsu.musclub.dto.push.NotificationReceiptDto.Type;
+import com.nsu.musclub.repository.NotificationReceiptRepository;
+import com.nsu.musclub.repository.NotificationReceiptRepository.Receipt;
+import com.nsu.musclub.repository.NotificationReceiptRepository.ReceiptKey;
+import com.nsu.musclub.service.impl.NotificationReceiptServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class NotificationReceiptServiceTest {
+
+    private static final String ACTIVE_ENDPOINT = "https://push.example.com/active";
+    private static final String AUTH_KEY = "c2VjcmV0LWF1dGg";
+    private static final Instant START = Instant.parse("2026-01-01T00:00:00Z");
+
+    private NotificationReceiptRepository repository;
+    private PushNotificationConfig config;
+    private AtomicLong now;
+    private NotificationReceiptServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(NotificationReceiptRepository.class);
+        // По умолчанию записи доставки ещё нет
+        when(repository.applyAll(anyList())).thenReturn(Set.of());
+        when(repository.findActiveSubscriptions(anyCollection()))
+                .thenReturn(Set.of(new ReceiptKey(null, ACTIVE_ENDPOINT, AUTH_KEY)));
+
+        config = new PushNotificationConfig();
+        config.setReceiptBufferCapacity(2);
+        config.setReceiptPendingSeconds(60);
+        config.setReceiptMaxAttempts(3);
+        now = new AtomicLong(START.toEpochMilli());
+        service = new NotificationReceiptServiceImpl(repository, config, now::get);
+    }
+
+    @Test
+    void record_WhenQueueIsFull_ShouldDropNewestAndCountIt() {
+        assertTrue(service.record(receipt(1L, ACTIVE_ENDPOINT)));
+        assertTrue(service.record(receipt(2L, ACTIVE_ENDPOINT)));
+
+        assertFalse(service.record(receipt(3L, ACTIVE_ENDPOINT)));
+        assertEquals(1, service.getDropped());
+
+        when(repository.applyAll(anyList())).thenReturn(Set.of(
+                new ReceiptKey(1L, ACTIVE_ENDPOINT, AUTH_KEY), new ReceiptKey(2L, ACTIVE_ENDPOINT, AUTH_KEY)));
+        assertEquals(2, service.flush());
+        assertEquals(0, service.size());
+    }
+
+    @Test
+    void record_ShouldClampOccurredAtToReceiveTime() {
+        NotificationReceiptDto dto = receipt(1L, ACTIVE_ENDPOINT);
+        dto.setOccurredAt(OffsetDateTime.ofInstant(START, ZoneOffset.UTC).plusHours(1));
+        service.record(dto);
+
+        service.flush();
+
+        assertEquals(START, appliedReceipts().get(0).occurredAt().toInstant());
+    }
+
+    @Test
+    void flush_WhenEndpointIsUnknown_ShouldDiscardOnFirstMiss() {
+        service.record(receipt(1L, "https://push.example.com/forged"));
+
+        assertEquals(0, service.flush());
+
+        assertEquals(0, service.size());
+        assertEquals(1, service.getDiscarded());
+    }
+
+    @Test
+    void flush_WhenAuthKeyDoesNotMatchSubscription_ShouldDiscardOnFirstMiss() {
+        NotificationReceiptDto forged = receipt(1L, ACTIVE_ENDPOINT);
+        forged.setAuth("Z3Vlc3NlZA");
+        service.record(forged);
+
+        assertEquals(0, service.flush());
+
+        assertEquals(0, service.size());
+        assertEquals(1, service.getDiscarded());
+        verify(repository).findActiveSubscriptions(List.of(new ReceiptKey(null, ACTIVE_ENDPOINT, "Z3Vlc3NlZA")));
+    }
+
+    @Test
+    void flush_ShouldApplyWholeBatchInOneCall() {
+        config.setReceiptBatchSize(10);
+        service.record(receipt(1L, ACTIVE_ENDPOINT));
+        NotificationReceiptDto click = receipt(1L, ACTIVE_ENDPOINT);
+        click.setType(Type.CLICKED);
+        service.record(click);
+        when(repository.applyAll(anyList())).thenReturn(Set.of(new ReceiptKey(1L, ACTIVE_ENDPOINT, AUTH_KEY)));
+
+        assertEquals(2, service.flush());
+
+        verify(repository, times(1)).applyAll(anyList());
+        assertEquals(List.of(Type.SHOWN, Type.CLICKED), appliedReceipts().stream().map(Receipt::type).toList());
+        verify(repository, never()).findActiveSubscriptions(anyCollection());
+    }
+
+    @Test
+    void flush_WhenDeliveryIsNotRecordedYet_ShouldRequeueUntilAttemptsRunOut() {
+        service.record(receipt(1L, ACTIVE_ENDPOINT));
+
+        service.flush();
+        service.flush();
+        assertEquals(1, service.size());
+
+        service.flush();
+        assertEquals(0, service.size());
+        assertEquals(1, service.getDiscarded());
+    }
+
+    @Test
+    void flush_WhenPendingTimeExpires_ShouldDiscardReceipt() {
+        config.setReceiptMaxAttempts(100);
+        service.record(receipt(1L, ACTIVE_ENDPOINT));
+        service.flush();
+        assertEquals(1, service.size());
+
+        now.addAndGet(61_000);
+        service.flush();
+
+        assertEquals(0, service.size());
+        assertEquals(1, service.getDiscarded());
+    }
+
+    @Test
+    void flush_WhenDatabaseFails_ShouldRequeueWithinLimits() {
+        when(repository.applyAll(anyList())).thenThrow(new IllegalStateException("db down"));
+        service.record(receipt(1L, ACTIVE_ENDPOINT));
+
+        assertEquals(0, service.flush());
+        assertEquals(1, service.size());
+
+        now.addAndGet(61_000);
+        service.flush();
+        assertEquals(0, service.size());
+        assertEquals(1, service.getDiscarded());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Receipt> appliedReceipts() {
+        ArgumentCaptor<List<Receipt>> captor = ArgumentCaptor.forClass(List.class);
+        verify(repository, atLeastOnce()).applyAll(captor.capture());
+        return captor.getValue();
+    }
+
+    private static NotificationReceiptDto receipt(Long notificationId, String endpoint) {
+        NotificationReceiptDto dto = new NotificationReceiptDto();
+        dto.setNotificationId(notificationId);
+        dto.setEndpoint(endpoint);
+        dto.setAuth(AUTH_KEY);
+        dto.setType(Type.SHOWN);
+        return dto;
+    }
+}
@@ -0,0 +1,100 @@
+package com.nsu.musclub.service;
+
+import com.nsu.musclub.config.PushNotificationConfig;
+import com.nsu.musclub.domain.EventNotification.Status;
+import com.nsu.musclub.repository.EventNotificationRepository;
+import com.nsu.musclub.service.impl.NotificationDispatcher.DispatchResult;
+import com.nsu.musclub.service.impl.NotificationRetryPolicy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class NotificationRetryPolicyTest {
+
+    private PushNotificationConfig config;
+    private NotificationRetryPolicy policy;
+
+    @BeforeEach
+    void setUp() {
+        config = new PushNotificationConfig();
+        config.setRetryBaseDelaySeconds(30);
+        config.setRetryMaxDelaySeconds(600);
+        config.setMaxRetries(3);
+        policy = new NotificationRetryPolicy(config, null, null, null);
+    }
+
+    @Test
+    void backoff_ShouldGrowExponentiallyWithJitter() {
+        for (int i = 0; i < 100; i++) {
+            assertBetween(policy.backoff(0, Duration.ZERO), 15, 30);
+            assertBetween(policy.backoff(1, Duration.ZERO), 30, 60);
+            assertBetween(policy.backoff(2, Duration.ZERO), 60, 120);
+        }
+    }
+
+    @Test
+    void backoff_ShouldBeCappedByMaxDelay() {
+        for (int i = 0; i < 100; i++) {
+            assertBetween(policy.backoff(10, Duration.ZERO), 300, 600);
+            assertBetween(policy.backoff(100, Duration.ZERO), 300, 600);
+        }
+    }
+
+    @Test
+    void backoff_ShouldHonorRetryAfter() {
+        assertEquals(Duration.ofMinutes(30), policy.backoff(0, Duration.ofMinutes(30)));
+    }
+
+    @Test
+    void canRetry_ShouldStopAfterMaxRetries() {
+        assertTrue(policy.canRetry(0));
+        assertTrue(policy.canRetry(2));
+        assertFalse(policy.canRetry(3));
+    }
+
+    @Test
+    void recordResult_OutageLongerThanRetryBudget_ShouldDeferWithoutSpendingRetries() {
+        EventNotificationRepository repository = mock(EventNotificationRepository.class);
+        when(repository.deferAttempt(eq(1L), any(), anyString())).thenReturn(1);
+        when(repository.scheduleRetry(eq(1L), any(), anyString())).thenReturn(1);
+        NotificationRetryPolicy policy = new NotificationRetryPolicy(config, repository,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), mock(ApplicationEventPublisher.class));
+        Duration reopenIn = Duration.ofMinutes(5);
+
+        // Цепь разомкнута дольше, чем длятся все повторы: каждая попытка откладывается до её восстановления
+        int outageAttempts = config.getMaxRetries() * 3;
+        for (int i = 0; i < outageAttempts; i++) {
+            OffsetDateTime before = OffsetDateTime.now();
+            policy.recordResult(1L, 0, new DispatchResult(0, 2, 0, 2, reopenIn));
+
+            ArgumentCaptor<OffsetDateTime> nextAttemptAt = ArgumentCaptor.forClass(OffsetDateTime.class);
+            verify(repository, times(i + 1)).deferAttempt(eq(1L), nextAttemptAt.capture(), anyString());
+            assertFalse(nextAttemptAt.getValue().isBefore(before.plus(reopenIn)));
+        }
+        verify(repository, never()).scheduleRetry(any(), any(), any());
+        verify(repository, never()).updateOutcome(any(), any(), any(), any());
+
+        // После восстановления настоящая временная ошибка расходует повторы как обычно
+        policy.recordResult(1L, 0, new DispatchResult(1, 1, 1, 0, Duration.ZERO));
+        verify(repository).scheduleRetry(eq(1L), any(), anyString());
+        policy.recordResult(1L, config.getMaxRetries(), new DispatchResult(1, 1, 1, 0, Duration.ZERO));
+        verify(repository).updateOutcome(eq(1L), eq(Status.SENT), any(), anyString());
+    }
+
+    private static void assertBetween(Duration actual, long minSeconds, long maxSeconds) {
+        assertTrue(actual.toSeconds() >= minSeconds && actual.toSeconds() <= maxSeconds,
+                () -> "Expected delay in [" + minSeconds + ", " + maxSeconds + "] but was " + actual);
+    }
+}
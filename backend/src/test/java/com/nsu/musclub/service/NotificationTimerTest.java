@@ -0,0 +1,57 @@
+package com.nsu.musclub.service;
+
+import com.nsu.musclub.repository.EventNotificationClaimRepository.UpcomingNotification;
+import com.nsu.musclub.repository.PgNotifyPublisher;
+import com.nsu.musclub.service.impl.NotificationTimer;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotificationTimerTest {
+
+    private static final OffsetDateTime AT =
+            OffsetDateTime.ofInstant(Instant.ofEpochMilli(1_700_000_000_000L), ZoneOffset.UTC);
+
+    @Test
+    void encodeDecode_ShouldRoundTrip() {
+        List<UpcomingNotification> notifications = List.of(
+                new UpcomingNotification(1L, AT),
+                new UpcomingNotification(42L, AT.plusMinutes(5)));
+
+        List<String> payloads = NotificationTimer.encode(notifications);
+
+        assertEquals(1, payloads.size());
+        assertEquals(notifications, NotificationTimer.decode(payloads.get(0)));
+    }
+
+    @Test
+    void encode_ShouldSplitPayloadsUnderNotifyLimit() {
+        List<UpcomingNotification> notifications = LongStream.rangeClosed(1, 2000)
+                .mapToObj(id -> new UpcomingNotification(id, AT))
+                .toList();
+
+        List<String> payloads = NotificationTimer.encode(notifications);
+
+        assertTrue(payloads.size() > 1);
+        List<UpcomingNotification> decoded = new ArrayList<>();
+        for (String payload : payloads) {
+            assertTrue(payload.length() <= PgNotifyPublisher.MAX_PAYLOAD_LENGTH);
+            decoded.addAll(NotificationTimer.decode(payload));
+        }
+        assertEquals(notifications, decoded);
+    }
+
+    @Test
+    void decode_ShouldSkipMalformedItems() {
+        List<UpcomingNotification> decoded = NotificationTimer.decode("7@1700000000000,broken,x@1,8@");
+
+        assertEquals(List.of(new UpcomingNotification(7L, AT)), decoded);
+    }
+}
@@ -0,0 +1,106 @@
+package com.nsu.musclub.service;
+
+import com.nsu.musclub.config.PushNotificationConfig;
+import com.nsu.musclub.dto.push.PushOriginHealthDto;
+import com.nsu.musclub.service.impl.PushOriginHealthTracker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PushOriginHealthTrackerTest {
+
+    private static final String FCM = "https://fcm.googleapis.com";
+    private static final String MOZILLA = "https://updates.push.services.mozilla.com";
+
+    private PushOriginHealthTracker tracker;
+    private Instant now;
+
+    @BeforeEach
+    void setUp() {
+        PushNotificationConfig config = new PushNotificationConfig();
+        config.setCircuitWindowSize(10);
+        config.setCircuitMinimumRequests(4);
+        config.setCircuitFailureRateThreshold(0.5);
+        config.setCircuitSlowCallMs(1000);
+        config.setCircuitOpenSeconds(30);
+        config.setCircuitMaxOpenSeconds(100);
+        tracker = new PushOriginHealthTracker(config);
+        now = Instant.parse("2026-01-01T00:00:00Z");
+    }
+
+    @Test
+    void originOf_ShouldKeepSchemeHostAndPort() {
+        assertEquals(FCM, PushOriginHealthTracker.originOf(FCM + "/wp/abc"));
+        assertEquals("http://localhost:8089", PushOriginHealthTracker.originOf("http://localhost:8089/push/1"));
+    }
+
+    @Test
+    void failures_ShouldOpenCircuitOnlyForFailingOrigin() {
+        failTimes(FCM, 4);
+        tracker.record(MOZILLA, false, 50, null, now);
+
+        assertEquals(Duration.ofSeconds(30), tracker.acquire(FCM, now));
+        assertEquals(Duration.ZERO, tracker.acquire(MOZILLA, now));
+        assertEquals(PushOriginHealthDto.State.OPEN, health(FCM).getState());
+        assertEquals(PushOriginHealthDto.State.CLOSED, health(MOZILLA).getState());
+    }
+
+    @Test
+    void halfOpenProbe_ShouldCloseOnSuccessAndReopenWithLongerPauseOnFailure() {
+        failTimes(FCM, 4);
+        now = now.plusSeconds(30);
+
+        assertEquals(Duration.ZERO, tracker.acquire(FCM, now));
+        assertFalse(tracker.acquire(FCM, now).isZero(), "only one probe at a time");
+        tracker.record(FCM, true, 50, "HTTP 503", now);
+        assertEquals(Duration.ofSeconds(60), tracker.acquire(FCM, now));
+
+        now = now.plusSeconds(60);
+        assertEquals(Duration.ZERO, tracker.acquire(FCM, now));
+        tracker.record(FCM, false, 50, null, now);
+        assertEquals(PushOriginHealthDto.State.CLOSED, health(FCM).getState());
+        assertEquals(Duration.ZERO, tracker.acquire(FCM, now));
+    }
+
+    @Test
+    void halfOpenProbe_WhenReleasedWithoutRequest_ShouldAllowNextProbe() {
+        failTimes(FCM, 4);
+        now = now.plusSeconds(30);
+
+        assertEquals(Duration.ZERO, tracker.acquire(FCM, now));
+        // Подготовка запроса не удалась, запрос не отправлен
+        tracker.release(FCM);
+
+        assertEquals(Duration.ZERO, tracker.acquire(FCM, now));
+        assertEquals(PushOriginHealthDto.State.HALF_OPEN, health(FCM).getState());
+    }
+
+    @Test
+    void slowResponses_ShouldCountAsFailures() {
+        for (int i = 0; i < 4; i++) {
+            tracker.acquire(MOZILLA, now);
+            tracker.record(MOZILLA, false, 1500, null, now);
+        }
+
+        assertEquals(PushOriginHealthDto.State.OPEN, health(MOZILLA).getState());
+        assertTrue(health(MOZILLA).getLastError().startsWith("Slow response"));
+    }
+
+    private void failTimes(String origin, int times) {
+        for (int i = 0; i < times; i++) {
+            tracker.acquire(origin, now);
+            tracker.record(origin, true, 50, "HTTP 503", now);
+        }
+    }
+
+    private PushOriginHealthDto health(String origin) {
+        return tracker.getHealth().stream()
+                .filter(dto -> dto.getOrigin().equals(origin))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,95 @@
+package com.nsu.musclub.service;
+
+import com.nsu.musclub.config.PushNotificationConfig;
+import com.nsu.musclub.domain.PushSubscription;
+import com.nsu.musclub.domain.User;
+import com.nsu.musclub.repository.PgNotifyPublisher;
+import com.nsu.musclub.repository.PushSubscriptionRepository;
+import com.nsu.musclub.service.impl.PgNotificationListener;
+import com.nsu.musclub.service.impl.PushSubscriptionRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PushSubscriptionRegistryTest {
+
+    private PushSubscriptionRepository repository;
+    private PgNotifyPublisher publisher;
+    private PushSubscriptionRegistry registry;
+    private Consumer<String> remoteHandler;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        repository = mock(PushSubscriptionRepository.class);
+        when(repository.findActiveByUserIds(anyList())).thenReturn(List.of(subscription(1L, 10L)));
+        publisher = mock(PgNotifyPublisher.class);
+        PgNotificationListener listener = mock(PgNotificationListener.class);
+
+        registry = new PushSubscriptionRegistry(repository, publisher, listener, new PushNotificationConfig());
+
+        ArgumentCaptor<Consumer<String>> handler = ArgumentCaptor.forClass(Consumer.class);
+        verify(listener).subscribe(eq(PushSubscriptionRegistry.CHANNEL), handler.capture());
+        remoteHandler = handler.getValue();
+    }
+
+    @Test
+    void getActive_ShouldServeRepeatedLookupsFromCache() {
+        assertEquals(1, registry.getActive(10L).size());
+        assertEquals(1, registry.getActive(10L).size());
+
+        verify(repository, times(1)).findActiveByUserIds(anyList());
+    }
+
+    @Test
+    void getActive_ShouldCacheUsersWithoutSubscriptions() {
+        Map<Long, ?> result = registry.getActive(List.of(10L, 20L));
+        registry.getActive(20L);
+
+        assertEquals(1, result.size());
+        assertTrue(registry.getActive(20L).isEmpty());
+        verify(repository, times(1)).findActiveByUserIds(anyList());
+    }
+
+    @Test
+    void invalidate_ShouldEvictAndNotifyOtherNodes() {
+        registry.getActive(10L);
+
+        registry.invalidate(List.of(10L));
+        registry.getActive(10L);
+
+        verify(publisher).publish(PushSubscriptionRegistry.CHANNEL, "10");
+        verify(repository, times(2)).findActiveByUserIds(anyList());
+    }
+
+    @Test
+    void remoteChange_ShouldEvictListedUsers() {
+        registry.getActive(List.of(10L, 20L));
+
+        remoteHandler.accept("10");
+
+        assertEquals(1, registry.size());
+        remoteHandler.accept("*");
+        assertEquals(0, registry.size());
+    }
+
+    private static PushSubscription subscription(Long id, Long userId) {
+        User user = new User();
+        user.setId(userId);
+        PushSubscription subscription = new PushSubscription();
+        subscription.setId(id);
+        subscription.setUser(user);
+        subscription.setEndpoint("https://push.example.com/" + id);
+        subscription.setP256dhKey("p256dh");
+        subscription.setAuthKey("auth");
+        return subscription;
+    }
+}
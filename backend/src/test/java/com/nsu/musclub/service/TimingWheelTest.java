@@ -0,0 +1,103 @@
+package com.nsu.musclub.service;
+
+import com.nsu.musclub.service.impl.TimingWheel;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    private static final long TICK_MS = 10;
+    private static final int WHEEL_SIZE = 8;
+    // Кратно обороту каждого уровня, чтобы границы корзин не зависели от момента запуска
+    private static final long START_MS = 1_280_000;
+
+    private final AtomicLong clock = new AtomicLong(START_MS);
+
+    @Test
+    void poll_ShouldFireKeysNotBeforeDeadlineAndInOrder() throws InterruptedException {
+        TimingWheel<String> wheel = newWheel();
+        Map<String, Long> deadlines = new HashMap<>();
+        deadlines.put("near", START_MS + 30);
+        deadlines.put("overflow", START_MS + 255);
+        deadlines.put("far", START_MS + 700);
+        deadlines.forEach((key, deadline) -> assertTrue(wheel.schedule(key, deadline)));
+
+        List<String> fired = new ArrayList<>();
+        while (clock.get() < START_MS + 1000) {
+            // Пустой результат возможен, когда корзина верхнего уровня перекладывается на нижний
+            for (String key : advance(wheel, TICK_MS)) {
+                long lateness = clock.get() - deadlines.get(key);
+                assertTrue(lateness >= 0, key + " fired before its deadline");
+                assertTrue(lateness < TICK_MS, key + " fired more than a tick late");
+                fired.add(key);
+            }
+        }
+
+        assertEquals(List.of("near", "overflow", "far"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void poll_BeforeDeadline_ShouldReturnNothing() throws InterruptedException {
+        TimingWheel<Long> wheel = newWheel();
+        wheel.schedule(1L, START_MS + 50);
+
+        assertEquals(List.of(), advance(wheel, 40));
+        assertTrue(wheel.contains(1L));
+        assertEquals(List.of(1L), advance(wheel, 10));
+    }
+
+    @Test
+    void cancel_ShouldPreventFiring() throws InterruptedException {
+        TimingWheel<Long> wheel = newWheel();
+        wheel.schedule(1L, START_MS + 40);
+        wheel.schedule(2L, START_MS + 60);
+
+        assertTrue(wheel.cancel(1L));
+        assertFalse(wheel.cancel(1L));
+
+        assertEquals(List.of(), advance(wheel, 50));
+        assertEquals(List.of(2L), advance(wheel, 10));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void schedule_SameKey_ShouldReplaceDeadline() throws InterruptedException {
+        TimingWheel<Long> wheel = newWheel();
+        wheel.schedule(1L, START_MS + 500);
+        wheel.schedule(1L, START_MS + 40);
+
+        assertEquals(1, wheel.size());
+        assertEquals(List.of(1L), advance(wheel, 40));
+        assertEquals(List.of(), advance(wheel, 600));
+    }
+
+    @Test
+    void schedule_PastDeadline_ShouldReturnFalse() {
+        TimingWheel<Long> wheel = newWheel();
+
+        assertFalse(wheel.schedule(1L, START_MS - 1000));
+        assertFalse(wheel.schedule(2L, START_MS));
+        assertFalse(wheel.contains(1L));
+        assertFalse(wheel.contains(2L));
+    }
+
+    private <K> TimingWheel<K> newWheel() {
+        return new TimingWheel<>(TICK_MS, WHEEL_SIZE, clock::get);
+    }
+
+    /**
+     * Сдвинуть часы и забрать наступившие ключи, не дожидаясь реального времени
+     */
+    private <K> List<K> advance(TimingWheel<K> wheel, long deltaMs) throws InterruptedException {
+        clock.addAndGet(deltaMs);
+        return wheel.poll(0);
+    }
+}
@@ -0,0 +1,87 @@
+package com.nsu.musclub.service;
+
+import com.nsu.musclub.service.impl.VapidAuthorizationCache;
+import org.jose4j.jws.JsonWebSignature;
+import org.jose4j.jwt.JwtClaims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VapidAuthorizationCacheTest {
+
+    private KeyPair keyPair;
+    private VapidAuthorizationCache cache;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        keyPair = generator.generateKeyPair();
+        cache = new VapidAuthorizationCache(keyPair.getPrivate(), encodePublicKey((ECPublicKey) keyPair.getPublic()),
+                "mailto:admin@musclub.nsu.ru");
+    }
+
+    @Test
+    void authorizationHeader_SameOrigin_ShouldReuseSignedToken() {
+        String first = cache.authorizationHeader("https://fcm.googleapis.com/wp/abc");
+        String second = cache.authorizationHeader("https://fcm.googleapis.com/wp/def");
+
+        assertSame(first, second);
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void authorizationHeader_DifferentOrigins_ShouldSignPerAudience() throws Exception {
+        String fcm = cache.authorizationHeader("https://fcm.googleapis.com/wp/abc");
+        String mozilla = cache.authorizationHeader("https://updates.push.services.mozilla.com/wpush/v2/xyz");
+
+        assertNotEquals(fcm, mozilla);
+        assertEquals(2, cache.size());
+        assertEquals("https://updates.push.services.mozilla.com", verifiedClaims(mozilla).getAudience().get(0));
+    }
+
+    @Test
+    void authorizationHeader_ShouldBeVerifiableWithVapidPublicKey() throws Exception {
+        String header = cache.authorizationHeader("https://push.example.com:8443/send/1");
+
+        assertTrue(header.startsWith("vapid t="));
+        assertTrue(header.endsWith(", k=" + encodePublicKey((ECPublicKey) keyPair.getPublic())));
+
+        JwtClaims claims = verifiedClaims(header);
+        assertEquals("https://push.example.com:8443", claims.getAudience().get(0));
+        assertEquals("mailto:admin@musclub.nsu.ru", claims.getSubject());
+        long ttl = claims.getExpirationTime().getValue() - System.currentTimeMillis() / 1000;
+        assertTrue(ttl > VapidAuthorizationCache.TOKEN_TTL.minusMinutes(1).toSeconds());
+    }
+
+    private JwtClaims verifiedClaims(String header) throws Exception {
+        String token = header.substring("vapid t=".length(), header.indexOf(", k="));
+        JsonWebSignature jws = new JsonWebSignature();
+        jws.setCompactSerialization(token);
+        jws.setKey(keyPair.getPublic());
+        assertTrue(jws.verifySignature());
+        return JwtClaims.parse(jws.getPayload());
+    }
+
+    private static String encodePublicKey(ECPublicKey key) {
+        byte[] point = new byte[65];
+        point[0] = 0x04;
+        copyCoordinate(key.getW().getAffineX(), point, 1);
+        copyCoordinate(key.getW().getAffineY(), point, 33);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(point);
+    }
+
+    private static void copyCoordinate(BigInteger value, byte[] target, int offset) {
+        byte[] bytes = value.toByteArray();
+        int length = Math.min(bytes.length, 32);
+        System.arraycopy(bytes, bytes.length - length, target, offset + 32 - length, length);
+    }
+}
@@ -616,6 +616,243 @@ class EventControllerTest extends AbstractIntegrationTest {
                 .andExpect(jsonPath("$.children.length()", greaterThanOrEqualTo(1)));
     }
 
+    @Test
+    void getTree_ShouldStopAtRequestedDepthAndRejectIndirectCycle() throws Exception {
+        Long rootId = createEventId("Root Event");
+        Long childId = createSubEventId(rootId, "Child Event");
+        Long grandchildId = createSubEventId(childId, "Grandchild Event");
+
+        mockMvc.perform(get("/api/events/{eventId}/tree", rootId).param("depth", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.children[0].id").value(childId))
+                .andExpect(jsonPath("$.children[0].children.length()").value(0));
+
+        mockMvc.perform(get("/api/events/{eventId}/tree", rootId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.children[0].children[0].id").value(grandchildId));
+
+        mockMvc.perform(post("/api/events/{parentId}/subevents/{childId}", grandchildId, rootId))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void closure_ShouldFollowAttachAndDetach() throws Exception {
+        Long rootId = createEventId("Festival");
+        Long stageId = createSubEventId(rootId, "Stage");
+        Long setId = createSubEventId(stageId, "Set");
+        Long otherId = createEventId("Other");
+
+        mockMvc.perform(get("/api/events/{eventId}/descendants", rootId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].id").value(setId));
+        mockMvc.perform(get("/api/events/{eventId}/ancestors", setId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(rootId))
+                .andExpect(jsonPath("$[1].id").value(stageId));
+
+        mockMvc.perform(post("/api/events/{parentId}/subevents/{childId}", otherId, stageId))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/events/{eventId}/subtree/stats", rootId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.eventCount").value(1))
+                .andExpect(jsonPath("$.maxDepth").value(0));
+        mockMvc.perform(get("/api/events/{eventId}/subtree/stats", otherId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.eventCount").value(3))
+                .andExpect(jsonPath("$.maxDepth").value(2));
+
+        mockMvc.perform(delete("/api/events/{parentId}/subevents/{childId}", otherId, stageId))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/events/{eventId}/ancestors", setId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(stageId));
+    }
+
+    @Test
+    void subtreeOperations_ShouldApplyToAllSubEvents() throws Exception {
+        Long rootId = createEventId("Festival");
+        Long stageId = createSubEventId(rootId, "Stage");
+        Long setId = createSubEventId(stageId, "Set");
+        Long otherId = createEventId("Other");
+
+        mockMvc.perform(put("/api/events/{eventId}/subtree/status", stageId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"IN_PROGRESS\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updatedCount").value(2));
+        mockMvc.perform(get("/api/events/{id}", setId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("IN_PROGRESS"));
+        mockMvc.perform(get("/api/events/{id}", rootId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("NOT_STARTED"));
+
+        // Событие начинается через сутки: для каждого из трёх мероприятий остаются напоминания за 2 часа и 15 минут
+        mockMvc.perform(post("/api/events/{eventId}/subtree/notifications/schedule", rootId))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.scheduledCount").value(6));
+        mockMvc.perform(post("/api/events/{eventId}/subtree/notifications/schedule", rootId))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.scheduledCount").value(0));
+        // Немедленная рассылка ещё идёт (уведомление под арендой) и отменой поддерева не затрагивается
+        mockMvc.perform(post("/api/push/events/{eventId}/send-now", setId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Сбор\",\"body\":\"Начинаем\"}"))
+                .andExpect(status().isAccepted());
+        mockMvc.perform(delete("/api/events/{eventId}/subtree/notifications", stageId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cancelledCount").value(4));
+
+        mockMvc.perform(delete("/api/events/{eventId}/subtree", stageId))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/events/{id}", setId))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/events/{eventId}/subtree/stats", rootId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.eventCount").value(1));
+        mockMvc.perform(get("/api/events/{id}", otherId))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(delete("/api/events/{eventId}/subtree", stageId))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void listMembersPage_ShouldPageByCursorAndFilter() throws Exception {
+        Long eventId = createEventId("Concert");
+        Long[] userIds = new Long[3];
+        for (int i = 0; i < userIds.length; i++) {
+            userIds[i] = createUserId("guitar_" + i);
+            mockMvc.perform(post("/api/events/{eventId}/members", eventId)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"userId\":" + userIds[i] + ",\"role\":\"" + (i == 1 ? "ORGANIZER" : "PERFORMER") + "\"}"))
+                    .andExpect(status().isOk());
+        }
+
+        String firstPage = mockMvc.perform(get("/api/events/{eventId}/members/page", eventId).param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].username").value("guitar_0"))
+                .andExpect(jsonPath("$.hasMore").value(true))
+                .andReturn().getResponse().getContentAsString();
+        String cursor = objectMapper.readTree(firstPage).get("nextCursor").asText();
+
+        mockMvc.perform(get("/api/events/{eventId}/members/page", eventId).param("limit", "2").param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].userId").value(userIds[2]))
+                .andExpect(jsonPath("$.hasMore").value(false));
+
+        mockMvc.perform(get("/api/events/{eventId}/members/page", eventId).param("role", "PERFORMER"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2));
+        mockMvc.perform(get("/api/events/{eventId}/members/page", eventId).param("q", "TAR_1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].role").value("ORGANIZER"));
+        // Символы шаблона LIKE ищутся буквально
+        mockMvc.perform(get("/api/events/{eventId}/members/page", eventId).param("q", "%"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(0));
+
+        mockMvc.perform(get("/api/events/{eventId}/members", eventId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3));
+        mockMvc.perform(get("/api/events/{eventId}/members/page", 99999L))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/events/{eventId}/members/page", eventId).param("cursor", "broken"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void importMembers_ShouldReportEachRow() throws Exception {
+        Long eventId = createEventId("Concert");
+        Long existingId = createUserId("drummer");
+        Long newId = createUserId("singer");
+        Long sameRoleId = createUserId("bassist");
+        Long mixedCaseId = createUserId("pianist");
+        for (Long userId : new Long[]{existingId, sameRoleId}) {
+            mockMvc.perform(post("/api/events/{eventId}/members", eventId)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"userId\":" + userId + ",\"role\":\"PERFORMER\"}"))
+                    .andExpect(status().isOk());
+        }
+
+        String body = "{\"members\":["
+                + "{\"userId\":" + existingId + ",\"role\":\"ORGANIZER\"},"
+                + "{\"email\":\"singer@example.com\",\"role\":\"PERFORMER\"},"
+                + "{\"userId\":" + sameRoleId + ",\"role\":\"PERFORMER\"},"
+                + "{\"email\":\"nobody@example.com\",\"role\":\"PERFORMER\"},"
+                + "{\"userId\":" + newId + ",\"role\":\"GUEST\"},"
+                + "{\"userId\":" + newId + ",\"role\":\" \"},"
+                + "{\"email\":\"Pianist@Example.COM\",\"role\":\"PERFORMER\"}]}";
+        mockMvc.perform(post("/api/events/{eventId}/members/import", eventId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.updated").value(1))
+                .andExpect(jsonPath("$.unchanged").value(1))
+                .andExpect(jsonPath("$.failed").value(3))
+                .andExpect(jsonPath("$.results[0].status").value("UPDATED"))
+                .andExpect(jsonPath("$.results[1].status").value("CREATED"))
+                .andExpect(jsonPath("$.results[1].userId").value(newId))
+                .andExpect(jsonPath("$.results[2].status").value("UNCHANGED"))
+                .andExpect(jsonPath("$.results[3].error").value("User not found"))
+                .andExpect(jsonPath("$.results[4].error").value("Duplicate of row 1"))
+                .andExpect(jsonPath("$.results[5].error").value("Role must not be blank"))
+                // Email из таблицы сравнивается без учёта регистра
+                .andExpect(jsonPath("$.results[6].status").value("CREATED"))
+                .andExpect(jsonPath("$.results[6].userId").value(mixedCaseId));
+
+        mockMvc.perform(get("/api/events/{eventId}/members/page", eventId).param("role", "ORGANIZER"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].userId").value(existingId));
+        mockMvc.perform(get("/api/events/{eventId}/members/page", eventId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(4));
+
+        mockMvc.perform(post("/api/events/{eventId}/members/import", eventId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"members\":[]}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/events/{eventId}/members/import", 99999L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isNotFound());
+    }
+
+    private Long createUserId(String username) throws Exception {
+        String response = mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"" + username + "\",\"email\":\"" + username + "@example.com\",\"role\":\"MEMBER\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("id").asLong();
+    }
+
+    private Long createEventId(String title) throws Exception {
+        String response = mockMvc.perform(post("/api/events")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createEventDto(title))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("id").asLong();
+    }
+
+    private Long createSubEventId(Long parentId, String title) throws Exception {
+        String response = mockMvc.perform(post("/api/events/{parentId}/subevents", parentId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createEventDto(title))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("id").asLong();
+    }
+
     @Test
     void getTree_WithDefaultDepth_ShouldReturn200() throws Exception {
         String eventResponse = mockMvc.perform(post("/api/events")
@@ -680,6 +917,75 @@ class EventControllerTest extends AbstractIntegrationTest {
                 .andExpect(jsonPath("$.length()").value(1));
     }
 
+    @Test
+    void getEvent_WithMatchingETag_ShouldReturn304UntilNestedDataChanges() throws Exception {
+        String eventResponse = mockMvc.perform(post("/api/events")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createEventDto("ETag Event"))))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        Long eventId = objectMapper.readTree(eventResponse).get("id").asLong();
+
+        String etag = mockMvc.perform(get("/api/events/{eventId}/timeline", eventId))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/events/{eventId}/timeline", eventId).header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        mockMvc.perform(post("/api/events/{eventId}/timeline", eventId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"plannedTime\":\"09:00\",\"description\":\"Setup\"}"))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/events/{eventId}/timeline", eventId).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)))
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    void getFull_ShouldReturnRequestedSections() throws Exception {
+        String eventResponse = mockMvc.perform(post("/api/events")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createEventDto("Festival"))))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        Long eventId = objectMapper.readTree(eventResponse).get("id").asLong();
+
+        mockMvc.perform(post("/api/events/{parentId}/subevents", eventId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createEventDto("Main Stage"))))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/api/events/{eventId}/timeline", eventId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"plannedTime\":\"09:00\",\"description\":\"Setup\"}"))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/events/{eventId}/full", eventId).param("include", "timeline,tree"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$.event.id").value(eventId))
+                .andExpect(jsonPath("$.timeline.length()").value(1))
+                .andExpect(jsonPath("$.tree.children[0].title").value("Main Stage"))
+                .andExpect(jsonPath("$.members").doesNotExist())
+                .andExpect(jsonPath("$.program").doesNotExist());
+
+        mockMvc.perform(get("/api/events/{eventId}/full", eventId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.members").isArray())
+                .andExpect(jsonPath("$.program").isArray());
+
+        mockMvc.perform(get("/api/events/{eventId}/full", eventId).param("include", "posters"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void programCrudAndReorder_ShouldWork() throws Exception {
         String eventResponse = mockMvc.perform(post("/api/events")
@@ -64,6 +64,7 @@ self.addEventListener('push', (event) => {
     requireInteraction: data.requireInteraction || false,
     data: {
       actionUrl: data.actionUrl || '/',
+      notificationId: data.notificationId || null,
       timestamp: Date.now()
     },
     vibrate: [100, 50, 100],
@@ -85,6 +86,7 @@ self.addEventListener('push', (event) => {
     self.registration.showNotification(data.title, options)
       .then(() => {
         console.log('[SW] ✅ Notification shown successfully');
+        return reportReceipt(data.notificationId, 'SHOWN');
       })
       .catch((error) => {
         console.error('[SW] ❌ Failed to show notification:', error);
@@ -103,8 +105,10 @@ self.addEventListener('notificationclick', (event) => {
     return;
   }
 
+  const receipt = reportReceipt(event.notification.data?.notificationId, 'CLICKED');
+
   event.waitUntil(
-    clients.matchAll({ type: 'window', includeUncontrolled: true }).then((clientList) => {
+    Promise.all([receipt, clients.matchAll({ type: 'window', includeUncontrolled: true }).then((clientList) => {
       for (const client of clientList) {
         if (client.url.includes(self.location.origin) && 'focus' in client) {
           client.navigate(actionUrl);
@@ -114,10 +118,40 @@ self.addEventListener('notificationclick', (event) => {
       if (clients.openWindow) {
         return clients.openWindow(actionUrl);
       }
-    })
+    })])
   );
 });
 
+// Подтверждение показа/клика для статистики; получатель определяется сервером по endpoint подписки,
+// секрет auth той же подписки подтверждает, что подтверждение прислал её владелец
+function reportReceipt(notificationId, type) {
+  if (!notificationId) {
+    return Promise.resolve();
+  }
+  return self.registration.pushManager.getSubscription()
+    .then((subscription) => {
+      if (!subscription) {
+        return;
+      }
+      return fetch('/api/push/receipts', {
+        method: 'POST',
+        headers: {
+          'Content-Type': 'application/json'
+        },
+        body: JSON.stringify({
+          notificationId,
+          endpoint: subscription.endpoint,
+          auth: arrayBufferToBase64(subscription.getKey('auth')),
+          type,
+          occurredAt: new Date().toISOString()
+        })
+      });
+    })
+    .catch((error) => {
+      console.warn('[SW] Failed to report notification receipt:', error);
+    });
+}
+
 self.addEventListener('notificationclose', (event) => {
   console.log('[SW] Notification closed:', event);
 });